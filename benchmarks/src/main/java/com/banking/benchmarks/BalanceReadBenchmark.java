@@ -0,0 +1,92 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.dto.BalanceView;
+import com.banking.dto.PaymentEvent;
+import com.banking.service.AccountQueryService;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front ends polling balances while payments settle: seven threads read random balances through
+ * {@link AccountQueryService} (what {@code GET /accounts/{id}/balance} does, without HTTP) and one
+ * thread settles payments between the same accounts. {@code database} switches the read cache off,
+ * so every read is a query; compare the p99 of {@code read} between the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BalanceReadBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"database", "cache"})
+    public String source;
+
+    private ConfigurableApplicationContext context;
+    private AccountQueryService accountQueryService;
+    private BankingService bankingService;
+    private List<String> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start("--banking.read-cache.enabled=" + source.equals("cache"));
+        accountQueryService = context.getBean(AccountQueryService.class);
+        bankingService = context.getBean(BankingService.class);
+        accounts = BankingContext.seedAccounts(context, ACCOUNTS, Money.parse("1000000000.00"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("pollWhileSettling")
+    @GroupThreads(7)
+    public BalanceView read() {
+        String accountId = accounts.get(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+        return accountQueryService.balance(accountId, null).orElseThrow();
+    }
+
+    @Benchmark
+    @Group("pollWhileSettling")
+    @GroupThreads(1)
+    public void settle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        bankingService.processPayment(PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(accounts.get(from))
+                .toAccountId(accounts.get(to))
+                .amount(Money.parse("1.00"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,73 @@
+package com.banking.benchmarks;
+
+import com.banking.BankingSystemApplication;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.repository.AccountRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Starts the application in-process with the {@code benchmark} profile (see
+ * {@code application-benchmark.yml}) and seeds accounts for the database bound benchmarks.
+ */
+final class BankingContext {
+
+    private BankingContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... args) {
+        return start(new Class<?>[0], args);
+    }
+
+    /** @param overrides configuration classes whose beans replace the application's, e.g. a mock producer */
+    static ConfigurableApplicationContext start(Class<?>[] overrides, String... args) {
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .sources(overrides)
+                .profiles("benchmark")
+                .logStartupInfo(false)
+                .run(args);
+    }
+
+    static List<String> seedAccounts(ConfigurableApplicationContext context, int count, Money initialBalance) {
+        return seedAccounts(context, count, initialBalance, i -> "EUR");
+    }
+
+    /** @param currency currency of the i-th account */
+    static List<String> seedAccounts(ConfigurableApplicationContext context, int count, Money initialBalance,
+                                     IntFunction<String> currency) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = String.format("BENCH%08d", i);
+            seedAccount(context, id, initialBalance, currency.apply(i));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    static void seedAccount(ConfigurableApplicationContext context, String id, Money initialBalance) {
+        seedAccount(context, id, initialBalance, "EUR");
+    }
+
+    private static void seedAccount(ConfigurableApplicationContext context, String id, Money initialBalance,
+                                    String currency) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName("Benchmark " + id)
+                .currency(currency)
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(initialBalance)
+                .build());
+        context.getBean(AccountRepository.class).save(account);
+    }
+}
@@ -0,0 +1,107 @@
+package com.banking.benchmarks;
+
+import com.banking.config.KafkaConfig;
+import com.banking.consumer.BatchPaymentConsumer;
+import com.banking.consumer.ParallelPaymentConsumer;
+import com.banking.consumer.PaymentConsumer;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One poll of {@code records} payments from {@code accounts} source accounts, handed directly
+ * to the listener of each {@code banking.consumer.mode} (no broker involved). Every source
+ * account pays its own target, so the parallel mode runs without balance conflicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConsumerModeBenchmark {
+
+    @Param({"single", "batch", "parallel"})
+    public String mode;
+
+    @Param({"256"})
+    public int records;
+
+    @Param({"64"})
+    public int accounts;
+
+    private static final Acknowledgment NO_ACK = () -> {
+    };
+
+    private ConfigurableApplicationContext context;
+    private List<String> accountIds;
+    private long offset;
+    private final MockConsumer<String, PaymentEvent> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start("--banking.consumer.mode=" + mode);
+        accountIds = BankingContext.seedAccounts(context, accounts * 2, Money.parse("1000000000.00"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void consumePoll() {
+        List<ConsumerRecord<String, PaymentEvent>> poll = poll();
+        switch (mode) {
+            case "single" -> {
+                PaymentConsumer listener = context.getBean(PaymentConsumer.class);
+                for (ConsumerRecord<String, PaymentEvent> record : poll) {
+                    listener.consume(record.value(), record.partition(), record.offset(), record.key(), NO_ACK);
+                }
+            }
+            case "batch" -> context.getBean(BatchPaymentConsumer.class).consume(poll, NO_ACK);
+            case "parallel" -> context.getBean(ParallelPaymentConsumer.class).consume(poll, consumer, NO_ACK);
+            default -> throw new IllegalArgumentException(mode);
+        }
+    }
+
+    private List<ConsumerRecord<String, PaymentEvent>> poll() {
+        List<ConsumerRecord<String, PaymentEvent>> poll = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            int source = i % accounts;
+            PaymentEvent event = PaymentEvent.builder()
+                    .transactionId(UUID.randomUUID().toString())
+                    .fromAccountId(accountIds.get(source))
+                    .toAccountId(accountIds.get(accounts + source))
+                    .amount(Money.parse("1.00"))
+                    .currency("EUR")
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            poll.add(new ConsumerRecord<>(KafkaConfig.PAYMENTS_TOPIC, 0, offset++, event.getFromAccountId(), event));
+        }
+        return poll;
+    }
+}
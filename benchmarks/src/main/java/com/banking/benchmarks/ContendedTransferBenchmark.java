@@ -0,0 +1,96 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.service.SettlementExecutor;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent transfers between a handful of hot accounts through {@link SettlementExecutor},
+ * for the optimistic and the striped concurrency mode. Transfers lost to an optimistic lock
+ * conflict (which would go to the Kafka error handler in production) are reported as
+ * {@code conflicts}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ContendedTransferBenchmark {
+
+    @Param({"optimistic", "striped"})
+    public String mode;
+
+    @Param({"4"})
+    public int hotAccounts;
+
+    private ConfigurableApplicationContext context;
+    private SettlementExecutor settlementExecutor;
+    private List<String> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start("--banking.concurrency.mode=" + mode);
+        settlementExecutor = context.getBean(SettlementExecutor.class);
+        accounts = BankingContext.seedAccounts(context, hotAccounts, Money.parse("1000000000.00"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public void transfer(Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(hotAccounts);
+        int to = (from + 1 + random.nextInt(hotAccounts - 1)) % hotAccounts;
+        try {
+            settlementExecutor.process(PaymentEvent.builder()
+                    .transactionId(UUID.randomUUID().toString())
+                    .fromAccountId(accounts.get(from))
+                    .toAccountId(accounts.get(to))
+                    .amount(Money.parse("1.00"))
+                    .currency("EUR")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        } catch (OptimisticLockingFailureException e) {
+            outcomes.conflicts++;
+        }
+    }
+}
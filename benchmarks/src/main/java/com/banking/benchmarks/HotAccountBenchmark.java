@@ -0,0 +1,101 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.service.SettlementExecutor;
+import com.banking.sharding.HotAccounts;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credits from 8 threads into one merchant account through {@link SettlementExecutor}, each from
+ * a random payer of a large pool, with the merchant's balance in one row ({@code shards=0}) or
+ * split into sub-balances ({@link HotAccounts}). Credits lost to an optimistic lock conflict are
+ * reported as {@code conflicts}; in {@code striped} mode they queue on the lock stripes instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    private static final String MERCHANT = "MERCHANT";
+    private static final int PAYERS = 1_000;
+
+    @Param({"0", "16"})
+    public int shards;
+
+    @Param({"optimistic", "striped"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private SettlementExecutor settlementExecutor;
+    private List<String> payers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start("--banking.concurrency.mode=" + mode,
+                "--banking.hot-accounts.accounts=" + (shards > 0 ? MERCHANT : ""),
+                "--banking.hot-accounts.shards=" + Math.max(1, shards));
+        settlementExecutor = context.getBean(SettlementExecutor.class);
+        payers = BankingContext.seedAccounts(context, PAYERS, Money.parse("1000000000.00"));
+        BankingContext.seedAccount(context, MERCHANT, Money.parse("0.00"));
+        context.getBean(HotAccounts.class).prepareShards();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public void credit(Outcomes outcomes) {
+        try {
+            settlementExecutor.process(PaymentEvent.builder()
+                    .transactionId(UUID.randomUUID().toString())
+                    .fromAccountId(payers.get(ThreadLocalRandom.current().nextInt(PAYERS)))
+                    .toAccountId(MERCHANT)
+                    .amount(Money.parse("1.00"))
+                    .currency("EUR")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        } catch (OptimisticLockingFailureException e) {
+            outcomes.conflicts++;
+        }
+    }
+}
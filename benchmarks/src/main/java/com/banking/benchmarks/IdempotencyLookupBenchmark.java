@@ -0,0 +1,105 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.idempotency.IdempotencyGuard;
+import com.banking.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The idempotency check every consumed event starts with, for a known id (redelivery) and an
+ * unknown one (the common case): the plain {@link TransactionRepository#findByExternalId} query
+ * against the {@link IdempotencyGuard} (status cache and Bloom filter in front of that query).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class IdempotencyLookupBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private IdempotencyGuard idempotencyGuard;
+    private List<String> externalIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        externalIds = new ArrayList<>(rows);
+        List<Transaction> chunk = new ArrayList<>(1_000);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            String externalId = UUID.randomUUID().toString();
+            externalIds.add(externalId);
+            chunk.add(Transaction.builder()
+                    .externalId(externalId)
+                    .fromAccountId("BENCH-FROM")
+                    .toAccountId("BENCH-TO")
+                    .amount(Money.parse("1.00"))
+                    .currency("EUR")
+                    .status(Transaction.TransactionStatus.COMPLETED)
+                    .createdAt(now)
+                    .processedAt(now)
+                    .build());
+            if (chunk.size() == 1_000) {
+                transactionRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        transactionRepository.saveAll(chunk);
+        idempotencyGuard = context.getBean(IdempotencyGuard.class);
+        idempotencyGuard.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Transaction> existingId() {
+        return transactionRepository.findByExternalId(externalIds.get(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public Optional<Transaction> unknownId() {
+        return transactionRepository.findByExternalId(UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public Optional<Transaction.TransactionStatus> guardedExistingId() {
+        return idempotencyGuard.findProcessed(externalIds.get(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public Optional<Transaction.TransactionStatus> guardedUnknownId() {
+        return idempotencyGuard.findProcessed(UUID.randomUUID().toString());
+    }
+}
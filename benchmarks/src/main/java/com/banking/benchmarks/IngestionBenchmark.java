@@ -0,0 +1,130 @@
+package com.banking.benchmarks;
+
+import com.banking.serialization.PaymentEventSerializer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP ingestion on one node: 32 clients on keep-alive connections posting to {@code /payments}
+ * (one payment per request) and {@code /payments/bulk} (NDJSON, {@value #BULK_SIZE} per request,
+ * scored per payment). The application runs in-process on virtual threads; Kafka is a
+ * {@link MockProducer} that acknowledges immediately, so the scores are the HTTP, validation and
+ * producer client cost, not the broker's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class IngestionBenchmark {
+
+    static final int BULK_SIZE = 100;
+
+    private static final MockProducer<Object, Object> PRODUCER =
+            new MockProducer<>(true, (topic, key) -> new StringSerializer().serialize(topic, (String) key),
+                    new PaymentEventSerializer()) {
+                @Override
+                public void close(Duration timeout) {
+                    // Shared by every KafkaTemplate send
+                }
+            };
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI single;
+    private URI bulk;
+
+    @Configuration(proxyBeanMethods = false)
+    static class MockKafka {
+        @Bean
+        ProducerFactory<Object, Object> kafkaProducerFactory() {
+            return () -> PRODUCER;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BankingContext.start(new Class<?>[]{MockKafka.class},
+                "--spring.main.web-application-type=servlet", "--server.port=0");
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        single = URI.create(base + "/payments");
+        bulk = URI.create(base + "/payments/bulk");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        PRODUCER.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int submit() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(single)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payment()))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return expect(response, 202);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public int submitBulk() throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder(BULK_SIZE * 110);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            body.append(payment()).append('\n');
+        }
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(bulk)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return expect(response, 200);
+    }
+
+    private static String payment() {
+        int from = ThreadLocalRandom.current().nextInt(1_000);
+        return "{\"fromAccountId\":\"ACC" + from + "\",\"toAccountId\":\"ACC" + (from + 1)
+                + "\",\"amount\":\"12.34\",\"currency\":\"EUR\"}";
+    }
+
+    private static int expect(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
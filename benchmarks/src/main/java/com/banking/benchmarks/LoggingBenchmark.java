@@ -0,0 +1,128 @@
+package com.banking.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.logging.LogSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost per consumed payment, i.e. messages per second the log statements alone allow.
+ * {@code legacy} is what {@code PaymentConsumer} used to log (two info lines, one rendering the
+ * whole event), {@code structured} the current key-value debug lines plus one sampled info line
+ * per thousand messages. Appenders write Spring Boot's console pattern to a null stream, so
+ * formatting and hand-off are measured without the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 4242 --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync", "async"})
+    public String appender;
+
+    @Param({"legacy", "structured"})
+    public String style;
+
+    private LoggerContext context;
+    private Logger log;
+    private final LogSampler sampler = new LogSampler(1_000);
+    private final PaymentEvent event = PaymentEvent.builder()
+            .transactionId("6f1c2b1e-8a55-4a57-9d3e-0c5f4b8e2a11")
+            .fromAccountId("ACC001")
+            .toAccountId("ACC002")
+            .amount(Money.parse("125.50"))
+            .currency("EUR")
+            .timestamp(LocalDateTime.now())
+            .build();
+    private long offset;
+
+    @Setup
+    public void setup() {
+        context = new LoggerContext();
+        context.start();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        Appender<ILoggingEvent> root = console;
+        if (appender.equals("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_CONSOLE");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            root = async;
+        }
+
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+        log = context.getLogger("com.banking.consumer.PaymentConsumer");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void consumedMessage() {
+        int partition = 1;
+        long currentOffset = offset++;
+        String key = event.getFromAccountId();
+        if (style.equals("legacy")) {
+            log.info("Consumed event from partition {} offset {} with key {}: {}", partition, currentOffset, key, event);
+            log.info("Successfully processed and acknowledged event: {}", event.getTransactionId());
+        } else {
+            log.debug("payment.consumed partition={} offset={} key={} transactionId={}",
+                    partition, currentOffset, key, event.getTransactionId());
+            log.debug("payment.acknowledged partition={} offset={} transactionId={}",
+                    partition, currentOffset, event.getTransactionId());
+            if (sampler.sample()) {
+                log.info("payment.settled partition={} offset={} transactionId={} settledSinceStart={}",
+                        partition, currentOffset, event.getTransactionId(), sampler.count());
+            }
+        }
+    }
+}
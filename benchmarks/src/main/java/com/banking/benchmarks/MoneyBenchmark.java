@@ -0,0 +1,135 @@
+package com.banking.benchmarks;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.domain.MoneyConverter;
+import com.banking.dto.PaymentEvent;
+import com.banking.fx.FxRateTable;
+import com.banking.fx.FxRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money arithmetic along the consumer -> service -> repository path: deserialize the event, check
+ * funds, debit and credit both balances and convert the results for the JDBC layer.
+ * Compares the former {@code BigDecimal} representation with {@link Money}, and prices the FX
+ * conversion of a cross-currency credit against the {@link FxRateTable} snapshot.
+ * Run with {@code -prof gc} to see the allocation difference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final MoneyConverter converter = new MoneyConverter();
+
+    private byte[] json;
+    private BigDecimal decimalFrom;
+    private BigDecimal decimalTo;
+    private Money moneyFrom;
+    private Money moneyTo;
+    private FxRateTable fxRateTable;
+
+    @Setup
+    public void setup() throws Exception {
+        json = mapper.writeValueAsBytes(PaymentEvent.builder()
+                .transactionId("9b2f1c8e-0d7a-4a55-b1f3-3f0d2c6a7e41")
+                .fromAccountId("DE123456789")
+                .toAccountId("FR987654321")
+                .amount(Money.parse("125.40"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build());
+        decimalFrom = new BigDecimal("1000000.00");
+        decimalTo = new BigDecimal("500.00");
+        moneyFrom = Money.parse("1000000.00");
+        moneyTo = Money.parse("500.00");
+        fxRateTable = new FxRateTable(null, new BankingProperties(), new SimpleMeterRegistry());
+        fxRateTable.update(FxRates.of(Map.of("EUR/USD", new BigDecimal("1.0850"), "EUR/GBP", new BigDecimal("0.8590"),
+                "EUR/JPY", new BigDecimal("162.50")), Instant.now()));
+    }
+
+    @Benchmark
+    public Object bigDecimalSettlement() throws Exception {
+        LegacyPaymentEvent event = mapper.readValue(json, LegacyPaymentEvent.class);
+        if (decimalFrom.compareTo(event.getAmount()) < 0) {
+            return null;
+        }
+        BigDecimal from = decimalFrom.subtract(event.getAmount());
+        BigDecimal to = decimalTo.add(event.getAmount());
+        // The JDBC driver binds BigDecimal as-is
+        return from.signum() + to.signum();
+    }
+
+    @Benchmark
+    public Object moneySettlement() throws Exception {
+        PaymentEvent event = mapper.readValue(json, PaymentEvent.class);
+        if (moneyFrom.isLessThan(event.getAmount())) {
+            return null;
+        }
+        Money from = moneyFrom.minus(event.getAmount());
+        Money to = moneyTo.plus(event.getAmount());
+        return converter.convertToDatabaseColumn(from).signum() + converter.convertToDatabaseColumn(to).signum();
+    }
+
+    @Benchmark
+    public Object bigDecimalArithmetic() {
+        BigDecimal amount = new BigDecimal("125.40");
+        if (decimalFrom.compareTo(amount) < 0) {
+            return null;
+        }
+        return decimalFrom.subtract(amount).add(decimalTo.add(amount));
+    }
+
+    @Benchmark
+    public Object moneyArithmetic() {
+        Money amount = Money.parse("125.40");
+        if (moneyFrom.isLessThan(amount)) {
+            return null;
+        }
+        return moneyFrom.minus(amount).plus(moneyTo.plus(amount));
+    }
+
+    @Benchmark
+    public Object moneyArithmeticConverted() {
+        Money amount = Money.parse("125.40");
+        if (moneyFrom.isLessThan(amount)) {
+            return null;
+        }
+        Money credit = fxRateTable.convert(amount, "EUR", "USD", 2).amount();
+        return moneyFrom.minus(amount).plus(moneyTo.plus(credit));
+    }
+
+    /** Shape of {@link PaymentEvent} before amounts moved to {@link Money}. */
+    @Data
+    public static class LegacyPaymentEvent {
+        private String transactionId;
+        private String fromAccountId;
+        private String toAccountId;
+        private BigDecimal amount;
+        private String currency;
+        private LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.serialization.PaymentEventDeserializer;
+import com.banking.serialization.PaymentEventSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentEvent} through the Spring Kafka JSON serializer and deserializer (the previous
+ * wire format) and through the binary {@link PaymentEventSerializer} / {@link PaymentEventDeserializer}
+ * ({@code banking.payment-event.format=binary}), including its JSON fallback. Payload sizes are
+ * listed in the README.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentEventSerdeBenchmark {
+
+    private static final String TOPIC = "payments";
+
+    private JsonSerializer<PaymentEvent> serializer;
+    private JsonDeserializer<PaymentEvent> deserializer;
+    private PaymentEventSerializer binarySerializer;
+    private PaymentEventDeserializer binaryDeserializer;
+    private PaymentEvent event;
+    private byte[] payload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setup() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(PaymentEvent.class);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.banking.dto"), false);
+        event = PaymentEvent.builder()
+                .transactionId("9b2f1c8e-0d7a-4a55-b1f3-3f0d2c6a7e41")
+                .fromAccountId("DE123456789")
+                .toAccountId("FR987654321")
+                .amount(Money.parse("125.40"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+        payload = serializer.serialize(TOPIC, event);
+
+        binarySerializer = new PaymentEventSerializer(PaymentEventSerializer.Format.BINARY);
+        binaryDeserializer = new PaymentEventDeserializer();
+        binaryPayload = binarySerializer.serialize(TOPIC, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+        binarySerializer.close();
+        binaryDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public PaymentEvent deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public PaymentEvent deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, null, ByteBuffer.wrap(binaryPayload));
+    }
+
+    /** A JSON record read by the binary deserializer during the migration. */
+    @Benchmark
+    public PaymentEvent deserializeJsonFallback() {
+        return binaryDeserializer.deserialize(TOPIC, null, ByteBuffer.wrap(payload));
+    }
+}
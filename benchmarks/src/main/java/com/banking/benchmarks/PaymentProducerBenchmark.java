@@ -0,0 +1,96 @@
+package com.banking.benchmarks;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.producer.PaymentProducer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of publishing a file of {@value #FILE_SIZE} payments through
+ * {@link PaymentProducer#sendPayment} one by one versus one {@link PaymentProducer#sendPayments}
+ * call, against a {@link MockProducer} that acknowledges immediately. Scores are per payment.
+ * Broker-side effects of linger, batch size and compression need a real cluster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentProducerBenchmark {
+
+    static final int FILE_SIZE = 1_000;
+
+    private MockProducer<String, PaymentEvent> mockProducer;
+    private PaymentProducer producer;
+    private List<PaymentEvent> file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mockProducer = new MockProducer<>(true, new StringSerializer(), new JsonSerializer<>()) {
+            @Override
+            public void close(Duration timeout) {
+                // KafkaTemplate closes the producer after every send unless the factory pools it
+            }
+        };
+        KafkaTemplate<String, PaymentEvent> template = new KafkaTemplate<>(() -> mockProducer);
+        BankingProperties properties = new BankingProperties();
+        // Direct sends; the outbox path is a database insert
+        properties.getOutbox().setEnabled(false);
+        producer = new PaymentProducer(template, null, properties);
+
+        file = new ArrayList<>(FILE_SIZE);
+        for (int i = 0; i < FILE_SIZE; i++) {
+            file.add(PaymentEvent.builder()
+                    .transactionId(UUID.randomUUID().toString())
+                    .fromAccountId(String.format("ACC%05d", i % 500))
+                    .toAccountId(String.format("ACC%05d", (i + 1) % 500))
+                    .amount(Money.parse("125.40"))
+                    .currency("EUR")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        mockProducer.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILE_SIZE)
+    public void singleSends() {
+        for (PaymentEvent event : file) {
+            producer.sendPayment(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILE_SIZE)
+    public PaymentProducer.BulkSendResult bulkSend() {
+        return producer.sendPayments(file).join();
+    }
+}
@@ -0,0 +1,105 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link BankingService#processPayment} call (idempotency check, balance load, balance update,
+ * commit) between random accounts of a large pool, so there is no contention. {@code native} settles
+ * the same payment with the single statement of {@link BankingService#transfer}. With
+ * {@code currencies=cross} every other account holds USD and every payment goes between an EUR and
+ * a USD account, converted at a rate from {@code banking.fx.rate-file}; compared with
+ * {@code same} it shows what conversion adds per payment.
+ * Uses embedded H2 unless {@code -Dbenchmark.jdbc.url=...} points at a real database; {@code native}
+ * needs PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProcessPaymentBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"jpa", "native"})
+    public String mode;
+
+    @Param({"same", "cross"})
+    public String currencies;
+
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private List<String> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (mode.equals("native") && !System.getProperty("benchmark.jdbc.url", "").startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("The native mode needs -Dbenchmark.jdbc.url pointing at PostgreSQL");
+        }
+        Path rates = Files.createTempFile("fx-rates", ".csv");
+        Files.writeString(rates, "EUR/USD,1.0850\n");
+        context = BankingContext.start("--banking.ledger.mode=" + mode,
+                "--banking.fx.source=file",
+                "--banking.fx.rate-file=" + rates);
+        bankingService = context.getBean(BankingService.class);
+        accounts = BankingContext.seedAccounts(context, ACCOUNTS, Money.parse("1000000000.00"), this::currency);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void processPayment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = currencies.equals("cross")
+                // An odd distance lands on an account of the other currency
+                ? (from + 1 + 2 * random.nextInt(ACCOUNTS / 2)) % ACCOUNTS
+                : (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        PaymentEvent event = PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(accounts.get(from))
+                .toAccountId(accounts.get(to))
+                .amount(Money.parse("1.00"))
+                .currency(currency(from))
+                .timestamp(LocalDateTime.now())
+                .build();
+        if (mode.equals("native")) {
+            bankingService.transfer(event);
+        } else {
+            bankingService.processPayment(event);
+        }
+    }
+
+    private String currency(int account) {
+        return currencies.equals("cross") && account % 2 == 1 ? "USD" : "EUR";
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.reconciliation.ReconciliationEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full reconciliation run from an empty checkpoint over {@code rows} COMPLETED transactions
+ * between {@value #ACCOUNTS} accounts, with and without CSV statements, in a 256 MB heap: the run
+ * must finish without the heap growing with the table.
+ * <p>
+ * 100M rows need PostgreSQL ({@code -Dbenchmark.jdbc.url=...}). The embedded H2 keeps the table
+ * in the benchmark's heap and materializes result sets, so smoke runs need a larger heap, e.g.
+ * {@code -p rows=300000 -jvmArgsAppend -Xmx2g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class ReconciliationBenchmark {
+
+    static final int ACCOUNTS = 10_000;
+    private static final long SEED_CHUNK = 10_000_000;
+
+    @Param({"1000000", "100000000"})
+    public long rows;
+
+    @Param({"none", "csv"})
+    public String statements;
+
+    private ConfigurableApplicationContext context;
+    private ReconciliationEngine reconciliationEngine;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        boolean postgres = System.getProperty("benchmark.jdbc.url", "").startsWith("jdbc:postgresql:");
+        Path directory = Files.createTempDirectory("statements");
+        context = BankingContext.start(
+                "--banking.idempotency.enabled=false",
+                "--banking.reconciliation.enabled=true",
+                "--banking.reconciliation.settle-window=0s",
+                "--banking.reconciliation.statements=" + statements,
+                "--banking.reconciliation.statement-directory=" + directory);
+        reconciliationEngine = context.getBean(ReconciliationEngine.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BankingContext.seedAccounts(context, ACCOUNTS, Money.parse("1000000000.00"));
+        seed(postgres);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCheckpoint() {
+        jdbcTemplate.update("delete from reconciliation_checkpoints");
+        jdbcTemplate.update("delete from account_totals");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReconciliationEngine.Result full() {
+        return reconciliationEngine.run();
+    }
+
+    /** Transfers {@code BENCH(i % accounts) -> BENCH((i * 7 + 1) % accounts)}, one second apart. */
+    private void seed(boolean postgres) {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(rows + 60);
+        String insert = postgres
+                ? """
+                insert into transactions (id, external_id, from_account_id, to_account_id, amount, currency, status,
+                                          created_at, processed_at)
+                select nextval('transactions_seq'), 'bench-' || i, 'BENCH' || lpad((i % ?)::text, 8, '0'),
+                       'BENCH' || lpad(((i * 7 + 1) % ?)::text, 8, '0'), 1.00, 'EUR', 'COMPLETED',
+                       ?::timestamp + make_interval(secs => i), ?::timestamp + make_interval(secs => i)
+                from generate_series(?::bigint, ?::bigint) i"""
+                : """
+                insert into transactions (id, external_id, from_account_id, to_account_id, amount, currency, status,
+                                          created_at, processed_at)
+                select x, 'bench-' || x, 'BENCH' || lpad(cast(mod(x, ?) as varchar), 8, '0'),
+                       'BENCH' || lpad(cast(mod(x * 7 + 1, ?) as varchar), 8, '0'), 1.00, 'EUR', 'COMPLETED',
+                       dateadd(second, x, cast(? as timestamp)), dateadd(second, x, cast(? as timestamp))
+                from system_range(cast(? as bigint), cast(? as bigint))""";
+        for (long from = 1; from <= rows; from += SEED_CHUNK) {
+            long to = Math.min(rows, from + SEED_CHUNK - 1);
+            jdbcTemplate.update(insert, ACCOUNTS, ACCOUNTS, start, start, from, to);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.banking.benchmarks;
+
+import com.banking.consumer.PaymentConsumer;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.startup.AccountSeeder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time from starting the application context to the first settled payment, which is what an
+ * instance added during a peak costs before it helps. Each fork starts one cold JVM; the database
+ * already holds {@code accounts} accounts, a tenth of them with recent transactions, created from
+ * {@code db/migration/V1__baseline.sql} and {@code AccountSeeder} outside the measurement.
+ * {@code default} boots with Hibernate's schema update, {@code fast-start} with the fast-start
+ * profile (no schema introspection, hot balances warm-loaded before the first payment). The
+ * payment is handed to the listener directly, there is no broker.
+ * <p>
+ * For a CDS archive run with {@code -jvmArgsAppend -XX:SharedArchiveFile=app.jsa} (README,
+ * "Fast Startup").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-start"})
+    public String profile;
+
+    @Param({"100000"})
+    public int accounts;
+
+    private String url;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Iteration)
+    public void createDatabase() {
+        url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        new AccountSeeder(dataSource, new DataSourceTransactionManager(dataSource)).seed(IntStream.range(0, accounts)
+                .mapToObj(i -> new AccountSeeder.Seed(id(i), "Benchmark " + i, "EUR", Money.parse("1000000.00")))
+                .toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        new JdbcTemplate(dataSource).batchUpdate("""
+                        insert into transactions (id, external_id, from_account_id, to_account_id, amount, currency,
+                            status, created_at, processed_at)
+                        values (next value for transactions_seq, ?, ?, ?, 1.00, 'EUR', 'COMPLETED', ?, ?)""",
+                IntStream.range(0, accounts / 10).boxed().toList(), 1_000, (statement, i) -> {
+                    statement.setString(1, "WARM-" + i);
+                    statement.setString(2, id(i));
+                    statement.setString(3, id(accounts / 10 + i));
+                    statement.setTimestamp(4, now);
+                    statement.setTimestamp(5, now);
+                });
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @Benchmark
+    public void startToFirstSettlement() {
+        // The benchmark profile's create-drop would win over both profiles' ddl-auto
+        context = profile.equals("fast-start")
+                ? BankingContext.start("--benchmark.jdbc.url=" + url, "--spring.profiles.active=fast-start",
+                        "--spring.jpa.hibernate.ddl-auto=none")
+                : BankingContext.start("--benchmark.jdbc.url=" + url, "--spring.jpa.hibernate.ddl-auto=update");
+        PaymentEvent event = PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(id(0))
+                .toAccountId(id(1))
+                .amount(Money.parse("1.00"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+        context.getBean(PaymentConsumer.class).consume(event, 0, 0, event.getFromAccountId(), () -> {
+        });
+        if (!context.getBean(JdbcTemplate.class).queryForObject(
+                "select status from transactions where external_id = ?", String.class, event.getTransactionId())
+                .equals("COMPLETED")) {
+            throw new IllegalStateException("The first payment was not settled");
+        }
+    }
+
+    private static String id(int i) {
+        return String.format("BENCH%08d", i);
+    }
+}
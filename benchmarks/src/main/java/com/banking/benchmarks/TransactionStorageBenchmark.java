@@ -0,0 +1,194 @@
+package com.banking.benchmarks;
+
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.idempotency.IdempotencyGuard;
+import com.banking.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert and idempotency lookup latency of the {@code transactions} table as it grows to 10M, 100M
+ * and 1B rows spread over the last {@value #HISTORY_MONTHS} months: {@code plain} is the single
+ * table with its unique {@code externalId} index and no horizon, {@code partitioned} the monthly
+ * layout of {@code db/partitioning/transactions.sql} with a {@value #HORIZON_DAYS} day dedupe
+ * horizon. The guard's memory tiers are off, so every check is the database lookup; {@code recentId}
+ * is a redelivery from the last month, {@code unknownId} a new payment.
+ * <p>
+ * These sizes need PostgreSQL ({@code -Dbenchmark.jdbc.url=jdbc:postgresql://...
+ * -Dbenchmark.jdbc.dialect=org.hibernate.dialect.PostgreSQLDialect}). Rows are generated
+ * server-side once per layout and size and kept between runs (1B rows take hours and roughly
+ * 250 GB). On the embedded H2 only {@code plain} runs, e.g. {@code -p rows=1000000} as a smoke test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionStorageBenchmark {
+
+    static final int HISTORY_MONTHS = 24;
+    static final int HORIZON_DAYS = 35;
+    private static final long SEED_CHUNK = 10_000_000;
+
+    @Param({"10000000", "100000000", "1000000000"})
+    public long rows;
+
+    @Param({"plain", "partitioned"})
+    public String layout;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private IdempotencyGuard idempotencyGuard;
+    private long recentRows;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        String url = System.getProperty("benchmark.jdbc.url", "");
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        boolean partitioned = layout.equals("partitioned");
+        if (partitioned && !postgres) {
+            throw new IllegalStateException("The partitioned layout needs -Dbenchmark.jdbc.url pointing at PostgreSQL");
+        }
+        if (postgres) {
+            prepareSchema(url, partitioned);
+        }
+        List<String> args = new ArrayList<>(List.of(
+                // Keeps the seeded rows between runs; the embedded H2 is empty on every start anyway
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--banking.idempotency.enabled=false"));
+        if (partitioned) {
+            args.add("--banking.idempotency.dedupe-horizon=" + HORIZON_DAYS + "d");
+        }
+        context = BankingContext.start(args.toArray(String[]::new));
+        transactionRepository = context.getBean(TransactionRepository.class);
+        idempotencyGuard = context.getBean(IdempotencyGuard.class);
+        seed(context.getBean(JdbcTemplate.class), postgres);
+        recentRows = Math.max(1, rows / HISTORY_MONTHS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction insert() {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionRepository.save(Transaction.builder()
+                .externalId(UUID.randomUUID().toString())
+                .fromAccountId("BENCH-FROM")
+                .toAccountId("BENCH-TO")
+                .amount(Money.parse("1.00"))
+                .currency("EUR")
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .createdAt(now)
+                .processedAt(now)
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Transaction.TransactionStatus> recentId() {
+        return idempotencyGuard.findProcessed("bench-" + (rows - ThreadLocalRandom.current().nextLong(recentRows)));
+    }
+
+    @Benchmark
+    public Optional<Transaction.TransactionStatus> unknownId() {
+        return idempotencyGuard.findProcessed(UUID.randomUUID().toString());
+    }
+
+    /** Drops the tables of the other layout or size and applies the partitioning script. */
+    private void prepareSchema(String url, boolean partitioned) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.jdbc.username", "banking_user"),
+                System.getProperty("benchmark.jdbc.password", "banking_password"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists transaction_storage_seed (layout varchar(16), seeded bigint)");
+            boolean seeded;
+            try (var resultSet = statement.executeQuery("select layout, seeded from transaction_storage_seed")) {
+                seeded = resultSet.next() && resultSet.getString(1).equals(layout) && resultSet.getLong(2) == rows;
+            }
+            if (seeded) {
+                return;
+            }
+            statement.execute("delete from transaction_storage_seed");
+            statement.execute("drop table if exists transactions, transactions_unpartitioned, transactions_archive, "
+                    + "transaction_keys cascade");
+            statement.execute("drop sequence if exists transactions_seq");
+            if (partitioned) {
+                // The driver runs the whole script, dollar-quoted function bodies included, as one call
+                statement.execute(new ClassPathResource("db/partitioning/transactions.sql")
+                        .getContentAsString(StandardCharsets.UTF_8));
+                for (int month = 1; month <= HISTORY_MONTHS; month++) {
+                    statement.execute("select transactions_ensure_partition('"
+                            + YearMonth.now().minusMonths(month).atDay(1) + "')");
+                }
+            }
+        }
+    }
+
+    /** Ids {@code bench-1..rows}, created at evenly spaced times up to now. */
+    private void seed(JdbcTemplate jdbcTemplate, boolean postgres) {
+        if (postgres && jdbcTemplate.queryForObject("select count(*) from transaction_storage_seed", Long.class) > 0) {
+            return;
+        }
+        LocalDateTime start = LocalDateTime.now().minusMonths(HISTORY_MONTHS);
+        double step = (double) Duration.between(start, LocalDateTime.now()).toSeconds() / rows;
+        String insert = postgres
+                ? """
+                insert into transactions (external_id, from_account_id, to_account_id, amount, currency, status,
+                                          created_at, processed_at)
+                select 'bench-' || i, 'BENCH-FROM', 'BENCH-TO', 1.00, 'EUR', 'COMPLETED', t, t
+                from generate_series(?::bigint, ?::bigint) i, lateral (select ? + make_interval(secs => i * ?) as t) at"""
+                : """
+                insert into transactions (external_id, from_account_id, to_account_id, amount, currency, status,
+                                          created_at, processed_at)
+                select 'bench-' || x, 'BENCH-FROM', 'BENCH-TO', 1.00, 'EUR', 'COMPLETED',
+                       dateadd(millisecond, cast(x * cast(? as double precision) * 1000 as bigint), cast(? as timestamp)),
+                       dateadd(millisecond, cast(x * cast(? as double precision) * 1000 as bigint), cast(? as timestamp))
+                from system_range(cast(? as bigint), cast(? as bigint))""";
+        for (long from = 1; from <= rows; from += SEED_CHUNK) {
+            long to = Math.min(rows, from + SEED_CHUNK - 1);
+            if (postgres) {
+                jdbcTemplate.update(insert, from, to, start, step);
+            } else {
+                jdbcTemplate.update(insert, step, start, step, start, from, to);
+            }
+        }
+        if (postgres) {
+            jdbcTemplate.execute("analyze transactions");
+            jdbcTemplate.update("insert into transaction_storage_seed values (?, ?)", layout, rows);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.banking.api;
+
+import com.banking.config.BankingProperties;
+import com.banking.dto.PaymentAccepted;
+import com.banking.dto.PaymentRequest;
+import com.banking.exception.ProducerSaturatedException;
+import com.banking.service.PaymentIngestionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Payment submission. Answers as soon as the payment is on the payments topic, with the
+ * {@code transactionId} to follow it by; resubmitting with the same id is safe, settlement is
+ * idempotent.
+ * <ul>
+ *   <li>{@code POST /payments}: one JSON payment, {@code 202 Accepted}, {@code 400} if invalid,
+ *   {@code 429} when the producer is saturated, {@code 503} if the broker did not acknowledge.</li>
+ *   <li>{@code POST /payments/bulk}: NDJSON, one payment per line, answered with NDJSON, one
+ *   {@link PaymentAccepted} per non-blank line in input order while the body is still being read.
+ *   Lines are published without waiting for the previous ones to be acknowledged. When the
+ *   producer stays saturated for {@code banking.ingestion.bulk-admission-timeout} the submission
+ *   stops with a {@code THROTTLED} line (or {@code 429} before anything was published).</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/payments")
+public class PaymentIngestionController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final PaymentIngestionService ingestionService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectMapper objectMapper;
+    private final Duration bulkAdmissionTimeout;
+
+    public PaymentIngestionController(PaymentIngestionService ingestionService, Validator validator,
+                                      ObjectMapper objectMapper, BankingProperties properties) {
+        this.ingestionService = ingestionService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(PaymentRequest.class);
+        this.objectMapper = objectMapper;
+        this.bulkAdmissionTimeout = properties.getIngestion().getBulkAdmissionTimeout();
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PaymentAccepted> submit(@Valid @RequestBody PaymentRequest request) {
+        PaymentAccepted result = ingestionService.await(ingestionService.submit(request, Duration.ZERO), null);
+        return ResponseEntity
+                .status(result.getStatus() == PaymentAccepted.Status.ACCEPTED ? HttpStatus.ACCEPTED : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(result);
+    }
+
+    @PostMapping(path = "/bulk", consumes = NDJSON, produces = NDJSON)
+    public void submitBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = response.getWriter();
+
+        // Results in input order: decided ones, or submissions still waiting for their acknowledgement
+        Deque<Object> results = new ArrayDeque<>();
+        boolean published = false;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            PaymentRequest payment;
+            try {
+                payment = requestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                results.add(ingestionService.invalid(List.of(e.getOriginalMessage()), lineNumber));
+                continue;
+            }
+            List<String> errors = validator.validate(payment).stream()
+                    .map(PaymentIngestionController::describe)
+                    .sorted()
+                    .toList();
+            if (!errors.isEmpty()) {
+                results.add(ingestionService.invalid(errors, lineNumber));
+                continue;
+            }
+            try {
+                results.add(new Line(lineNumber, ingestionService.submit(payment, bulkAdmissionTimeout)));
+            } catch (ProducerSaturatedException e) {
+                if (!published && !response.isCommitted()) {
+                    response.reset();
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                    return;
+                }
+                results.add(PaymentAccepted.builder()
+                        .line(lineNumber)
+                        .transactionId(payment.getTransactionId())
+                        .status(PaymentAccepted.Status.THROTTLED)
+                        .build());
+                break;
+            }
+            published = true;
+            writeResults(results, writer, false);
+        }
+        writeResults(results, writer, true);
+        writer.flush();
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<PaymentAccepted> invalid(MethodArgumentNotValidException e) {
+        List<String> errors = e.getBindingResult().getAllErrors().stream()
+                .map(error -> error instanceof FieldError field
+                        ? field.getField() + ": " + field.getDefaultMessage()
+                        : error.getDefaultMessage())
+                .sorted()
+                .toList();
+        return ResponseEntity.badRequest().body(ingestionService.invalid(errors, null));
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<PaymentAccepted> unreadable(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(ingestionService.invalid(List.of(e.getMostSpecificCause().getMessage()), null));
+    }
+
+    @ExceptionHandler(ProducerSaturatedException.class)
+    public ResponseEntity<Void> saturated() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    /** Writes results from the head of the queue: all of them, or only as far as they are acknowledged. */
+    private void writeResults(Deque<Object> results, Writer writer, boolean all) throws IOException {
+        while (!results.isEmpty()) {
+            Object head = results.peek();
+            if (head instanceof Line pending) {
+                if (!all && !pending.submission().acknowledged().isDone()) {
+                    return;
+                }
+                head = ingestionService.await(pending.submission(), pending.number());
+            }
+            results.poll();
+            writer.write(objectMapper.writeValueAsString(head));
+            writer.write('\n');
+        }
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private record Line(int number, PaymentIngestionService.Submission submission) {
+    }
+}
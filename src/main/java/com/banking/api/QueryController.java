@@ -0,0 +1,46 @@
+package com.banking.api;
+
+import com.banking.dto.BalanceView;
+import com.banking.dto.TransactionView;
+import com.banking.service.AccountQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Read API for balances and transaction status.
+ * <p>
+ * Read-your-writes: once {@code GET /transactions/{id}} reports a payment as {@code COMPLETED},
+ * {@code GET /accounts/{id}/balance?minVersion=<fromBalanceVersion>} returns a balance that
+ * includes it, on any instance. A balance that has not reached {@code minVersion} yet is answered
+ * with {@code 409 Conflict} and the current balance.
+ */
+@RestController
+@RequiredArgsConstructor
+public class QueryController {
+
+    private final AccountQueryService accountQueryService;
+
+    @GetMapping("/accounts/{accountId}/balance")
+    public ResponseEntity<BalanceView> balance(@PathVariable String accountId,
+                                               @RequestParam(required = false) Long minVersion) {
+        BalanceView balance = accountQueryService.balance(accountId, minVersion)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found: " + accountId));
+        if (minVersion != null && balance.getVersion() < minVersion) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(balance);
+        }
+        return ResponseEntity.ok(balance);
+    }
+
+    @GetMapping("/transactions/{transactionId}")
+    public TransactionView transaction(@PathVariable String transactionId) {
+        return accountQueryService.transaction(transactionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found: " + transactionId));
+    }
+}
@@ -0,0 +1,151 @@
+package com.banking.cache;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Balance;
+import com.banking.domain.Transaction;
+import com.banking.dto.BalanceView;
+import com.banking.dto.TransactionView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded near cache of committed balances and settled transactions behind the read API.
+ * Settlement puts what it wrote once its transaction commits; an entry only ever replaces one with
+ * a lower or equal {@link Balance#getVersion() version}, so commits recorded out of order never
+ * move a balance back. Writes of other instances are not seen and age out after
+ * {@code banking.read-cache.expire-after-write}; callers needing a newer state pass a minimum
+ * version and fall back to the database.
+ */
+@Component
+public class ReadCache {
+
+    private final boolean enabled;
+    private final Cache<String, BalanceView> balances;
+    private final Cache<String, TransactionView> transactions;
+
+    public ReadCache(BankingProperties properties, MeterRegistry meterRegistry) {
+        BankingProperties.ReadCache settings = properties.getReadCache();
+        this.enabled = settings.isEnabled();
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxBalances())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.transactions = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxTransactions())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "banking.balances");
+        CaffeineCacheMetrics.monitor(meterRegistry, transactions, "banking.transactions");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<BalanceView> balance(String accountId) {
+        return enabled ? Optional.ofNullable(balances.getIfPresent(accountId)) : Optional.empty();
+    }
+
+    public Optional<TransactionView> transaction(String externalId) {
+        return enabled ? Optional.ofNullable(transactions.getIfPresent(externalId)) : Optional.empty();
+    }
+
+    /**
+     * Records the balances and transactions once the surrounding transaction commits, or right
+     * away without one. The entities are read after the commit because JPA only increments the
+     * balance versions when it flushes.
+     */
+    public void recordAfterCommit(Collection<Balance> balances, Collection<Transaction> transactions) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(balances, transactions);
+            return;
+        }
+        List<Balance> committedBalances = List.copyOf(balances);
+        List<Transaction> committedTransactions = List.copyOf(transactions);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(committedBalances, committedTransactions);
+            }
+        });
+    }
+
+    /**
+     * Records balances and transactions that are known to be committed. Completed transactions
+     * get the versions of the recorded balances of their accounts.
+     */
+    public void record(Collection<Balance> balances, Collection<Transaction> transactions) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> versions = new HashMap<>();
+        for (Balance balance : balances) {
+            BalanceView view = view(balance);
+            put(view);
+            versions.put(view.getAccountId(), view.getVersion());
+        }
+        for (Transaction transaction : transactions) {
+            boolean completed = transaction.getStatus() == Transaction.TransactionStatus.COMPLETED;
+            put(view(transaction,
+                    completed ? versions.get(transaction.getFromAccountId()) : null,
+                    completed ? versions.get(transaction.getToAccountId()) : null));
+        }
+    }
+
+    public void put(BalanceView balance) {
+        if (enabled) {
+            this.balances.asMap().merge(balance.getAccountId(), balance,
+                    (cached, loaded) -> loaded.getVersion() >= cached.getVersion() ? loaded : cached);
+        }
+    }
+
+    /** Only terminal statuses are kept; a pending transaction is read from the database again. */
+    public void put(TransactionView transaction) {
+        if (enabled && !Transaction.TransactionStatus.PENDING.name().equals(transaction.getStatus())) {
+            this.transactions.put(transaction.getTransactionId(), transaction);
+        }
+    }
+
+    public static BalanceView view(Balance balance) {
+        return BalanceView.builder()
+                .accountId(balance.getAccountId())
+                .amount(balance.getAmount())
+                .version(balance.getVersion() != null ? balance.getVersion() : 0)
+                .build();
+    }
+
+    public static TransactionView view(Transaction transaction, Long fromBalanceVersion, Long toBalanceVersion) {
+        return TransactionView.builder()
+                .transactionId(transaction.getExternalId())
+                .status(transaction.getStatus().name())
+                .failureReason(transaction.getFailureReason())
+                .fromAccountId(transaction.getFromAccountId())
+                .toAccountId(transaction.getToAccountId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .fxRate(transaction.getFxRate())
+                .creditedAmount(transaction.getCreditedAmount())
+                .creditedCurrency(transaction.getCreditedCurrency())
+                .createdAt(transaction.getCreatedAt())
+                .processedAt(transaction.getProcessedAt())
+                .fromBalanceVersion(fromBalanceVersion)
+                .toBalanceVersion(toBalanceVersion)
+                .build();
+    }
+}
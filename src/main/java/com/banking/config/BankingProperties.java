@@ -0,0 +1,390 @@
+package com.banking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Application specific settings bound from the {@code banking.*} namespace.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking")
+public class BankingProperties {
+
+    private final Consumer consumer = new Consumer();
+    private final Concurrency concurrency = new Concurrency();
+    private final Ledger ledger = new Ledger();
+    private final Idempotency idempotency = new Idempotency();
+    private final Producer producer = new Producer();
+    private final Outbox outbox = new Outbox();
+    private final ExactlyOnce exactlyOnce = new ExactlyOnce();
+    private final ReadCache readCache = new ReadCache();
+    private final Ingestion ingestion = new Ingestion();
+    private final Partitioning partitioning = new Partitioning();
+    private final Datasource datasource = new Datasource();
+    private final Reconciliation reconciliation = new Reconciliation();
+    private final Fx fx = new Fx();
+    private final Startup startup = new Startup();
+    private final HotAccounts hotAccounts = new HotAccounts();
+
+    @Data
+    public static class Consumer {
+        /**
+         * {@code single} settles every record in its own database transaction,
+         * {@code batch} settles a whole poll at once, {@code parallel} settles the records of a
+         * poll concurrently on virtual threads, ordered per source account.
+         */
+        private ConsumerMode mode = ConsumerMode.SINGLE;
+
+        /** Poll sizing, shared by the {@code batch} and {@code parallel} modes. */
+        private final Batch batch = new Batch();
+
+        private final Parallel parallel = new Parallel();
+
+        private final Retry retry = new Retry();
+    }
+
+    @Data
+    public static class Batch {
+        /** Upper bound for records handed to the listener per poll (max.poll.records). */
+        private int maxSize = 500;
+
+        /** How long the broker may hold a fetch to fill it up (fetch.max.wait.ms). */
+        private Duration linger = Duration.ofMillis(50);
+
+        /** Bytes the broker waits for before answering a fetch early (fetch.min.bytes). */
+        private int minBytes = 16384;
+    }
+
+    @Data
+    public static class Parallel {
+        /**
+         * Source accounts settled at the same time. Each holds a database connection while it
+         * runs, so keep this close to the connection pool size.
+         */
+        private int maxInFlight = 32;
+    }
+
+    @Data
+    public static class Retry {
+        /**
+         * Retry technical failures of the {@code single} listener through the retry topics
+         * {@code payments-retry-0..n} instead of in place, so the rest of the partition keeps
+         * flowing. Retried payments are then settled out of order with later payments of the same
+         * account, and a retried debit can be rejected for funds a later payment took. Off by
+         * default; not available with exactly-once mode.
+         */
+        private boolean nonBlocking = false;
+
+        /** Deliveries including the first one; attempts - 1 retry topics are created. */
+        private int attempts = 4;
+
+        private Duration initialInterval = Duration.ofSeconds(1);
+
+        private double multiplier = 2.0;
+
+        private Duration maxInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Concurrency {
+        /**
+         * {@code optimistic} relies on {@code Balance.version} alone, {@code striped} serializes
+         * transfers per account inside the JVM before they reach the database.
+         */
+        private ConcurrencyMode mode = ConcurrencyMode.OPTIMISTIC;
+
+        /** Number of lock stripes, rounded up to a power of two. */
+        private int stripes = 1024;
+
+        /** In-process retries of an optimistic lock conflict before it is handed to Kafka (striped mode). */
+        private int maxRetries = 3;
+    }
+
+    @Data
+    public static class Ledger {
+        /**
+         * {@code jpa} reads and writes balances through JPA on every transfer, {@code native} settles
+         * each transfer with one SQL statement (PostgreSQL only), {@code in-memory} settles against
+         * the {@link com.banking.ledger.LedgerEngine} and writes behind.
+         */
+        private LedgerMode mode = LedgerMode.JPA;
+
+        /** Directory holding the journal segments of the in-memory ledger. */
+        private Path journalDirectory = Path.of("data", "ledger");
+
+        /** Force every journal append to disk before the transfer is acknowledged. */
+        private boolean fsync = true;
+
+        /** Interval between two balance snapshots written to the database. */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /** Transaction rows written per JDBC flush while writing a snapshot. */
+        private int flushBatchSize = 1000;
+    }
+
+    @Data
+    public static class Idempotency {
+        /** Answer idempotency checks from memory where possible; off means every check queries the database. */
+        private boolean enabled = true;
+
+        /** Keys the first Bloom filter slice is sized for; later slices double. */
+        private long expectedInsertions = 1_000_000;
+
+        /** Upper bound of the Bloom filter false-positive rate. */
+        private double falsePositiveRate = 0.01;
+
+        /** Slices kept before the oldest is dropped (bounds memory to roughly the most recent ids). */
+        private int maxSlices = 16;
+
+        /** Terminal statuses of recently settled transactions kept for redeliveries. */
+        private int statusCacheSize = 100_000;
+
+        /**
+         * How far back idempotency checks look; ids settled earlier count as new. Must be longer
+         * than any redelivery can be late (payments topic retention, client retries). Unset means
+         * the whole {@code transactions} table.
+         */
+        private Duration dedupeHorizon;
+    }
+
+    @Data
+    public static class Producer {
+        /**
+         * Bulk sends waiting for their broker acknowledgement; submitting more blocks the caller,
+         * which keeps memory flat while a large file is being published.
+         */
+        private int maxInFlight = 10_000;
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * Route {@code PaymentProducer.sendPayment} through the transactional outbox instead of
+         * sending directly; bulk sends always go to Kafka directly.
+         */
+        private boolean enabled = true;
+
+        /** Run the relay publishing the outbox on this instance. */
+        private boolean relayEnabled = true;
+
+        /** Outbox rows claimed, published and deleted per relay transaction. */
+        private int batchSize = 500;
+
+        /** Pause between two relay polls once the outbox is drained. */
+        private Duration pollInterval = Duration.ofMillis(100);
+
+        /** How long the relay waits for the broker to acknowledge a batch before rolling it back. */
+        private Duration sendTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class ExactlyOnce {
+        /**
+         * Settle inside Kafka transactions: the settlement result events and the consumed offsets
+         * are committed atomically, right after the database transaction. Works with the
+         * {@code single} and {@code batch} consumer modes and the {@code jpa} and {@code native}
+         * ledger modes; {@code batch} amortizes one Kafka commit over a whole poll
+         * ({@code banking.consumer.batch.*}).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Prefix of the producer {@code transactional.id}s. Must be unique per running instance;
+         * fencing of zombies relies on the consumer group, not on stable ids.
+         */
+        private String transactionIdPrefix = "banking-settlement-";
+
+        /** Upper bound for a Kafka transaction (transaction.timeout.ms); must cover settling a full poll. */
+        private Duration transactionTimeout = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class ReadCache {
+        /** Serve the read API from an in-process cache updated on commit; off means every read queries the database. */
+        private boolean enabled = true;
+
+        /** Balances kept, least recently used first out. */
+        private long maxBalances = 100_000;
+
+        /** Settled transactions kept, least recently used first out. */
+        private long maxTransactions = 100_000;
+
+        /**
+         * Age after which an entry is read from the database again. Bounds how stale a balance can
+         * be when it was changed by another instance, whose commits this cache does not see.
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Ingestion {
+        /** Serve HTTP requests on virtual threads; Kafka listeners and schedulers keep platform threads. */
+        private boolean virtualThreads = true;
+
+        /** How long a request waits for the broker to acknowledge its payment before answering 503. */
+        private Duration ackTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long a line of a bulk submission waits for the producer to admit it before the
+         * submission stops as throttled. Single submissions are throttled (429) without waiting.
+         */
+        private Duration bulkAdmissionTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Partitioning {
+        /**
+         * Maintain the range-partitioned {@code transactions} table created by
+         * {@code db/partitioning/transactions.sql} (PostgreSQL only): create monthly partitions
+         * ahead of time and archive the ones past the retention.
+         */
+        private boolean enabled = false;
+
+        /** Monthly partitions created ahead of the current one. */
+        private int premakeMonths = 3;
+
+        /**
+         * Age after which a monthly partition leaves the hot table, counted from its end. Must be at
+         * least {@code banking.idempotency.dedupe-horizon}.
+         */
+        private Duration retention = Duration.ofDays(90);
+
+        /** {@code partition} attaches archived months to {@code transactions_archive}, {@code file} exports and drops them. */
+        private ArchiveMode archive = ArchiveMode.PARTITION;
+
+        /** Where {@code file} archiving writes one gzipped CSV per month. */
+        private Path archiveDirectory = Path.of("data/archive");
+
+        private Duration maintenanceInterval = Duration.ofHours(1);
+    }
+
+    /**
+     * Connection pool settings on top of {@code spring.datasource.hikari}. A read replica is
+     * configured as a Hikari pool under {@code banking.datasource.replica} (see {@link DataSourceConfig}).
+     */
+    @Data
+    public static class Datasource {
+        /**
+         * Size the primary pool from the threads that settle concurrently, replacing
+         * {@code spring.datasource.hikari.maximum-pool-size} and {@code minimum-idle}.
+         */
+        private boolean sizeFromConcurrency = false;
+
+        /** Connections on top of the settling threads: outbox relay, ledger flushes, maintenance, read API. */
+        private int headroom = 4;
+    }
+
+    @Data
+    public static class Reconciliation {
+        /**
+         * Periodically add newly settled transactions to per-account running totals and check
+         * every balance against them. Requires the {@code jpa} or {@code native} ledger mode.
+         */
+        private boolean enabled = false;
+
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * Transactions created within this window are left for the next run. Pooled ids are not in
+         * commit order, so the window, not the id, guarantees that no row older than the checkpoint
+         * commits later. Keep it well above the longest settlement transaction and clock skew.
+         */
+        private Duration settleWindow = Duration.ofMinutes(5);
+
+        /** Transactions per database transaction (and statement segment) of a run. */
+        private int chunkSize = 100_000;
+
+        /** {@code csv} or {@code ndjson} also writes each chunk's movements as per-account statements. */
+        private StatementFormat statements = StatementFormat.NONE;
+
+        private Path statementDirectory = Path.of("data/statements");
+    }
+
+    @Data
+    public static class Fx {
+        /**
+         * Where the rates for cross-currency transfers come from: {@code file} reads
+         * {@code rate-file}, {@code table} reads {@code fx_rates}. With {@code none} only
+         * same-currency transfers settle.
+         */
+        private FxSource source = FxSource.NONE;
+
+        /** {@code PAIR,RATE} lines such as {@code EUR/USD,1.0850}; inverse pairs are derived. */
+        private Path rateFile = Path.of("data/fx-rates.csv");
+
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        /**
+         * Rates older than this at their source are not applied: cross-currency payments fail as
+         * technical errors and are retried until a refresh brings newer rates.
+         */
+        private Duration maxAge = Duration.ofDays(1);
+
+        /** Account currencies kept in memory; they never change, so entries only leave when it is full. */
+        private long maxAccounts = 100_000;
+    }
+
+    @Data
+    public static class Startup {
+        /**
+         * Accounts copied in when {@code accounts} is empty, as {@code id,owner_name,currency,balance}
+         * lines with a header. Without a file two demo accounts are created (except in tests).
+         */
+        private Path seedFile;
+
+        /**
+         * Load the balances and currencies of recently active accounts into the caches before the
+         * Kafka listeners start, so the first payments after a scale-out do not pay for cold caches.
+         */
+        private boolean warmLoad = false;
+
+        /** Accounts that sent or received a payment within this window count as hot. */
+        private Duration warmLoadWindow = Duration.ofHours(1);
+
+        /** Upper bound for the accounts loaded. */
+        private int warmLoadLimit = 100_000;
+    }
+
+    @Data
+    public static class HotAccounts {
+        /**
+         * Accounts whose balance is split into {@code shards} sub-balances ({@code balance_shards})
+         * next to their {@code balances} row, so concurrent credits update different rows. Meant for
+         * a few accounts that receive a large share of all payments, e.g. merchants. Ignored by the
+         * {@code in-memory} ledger, which folds the sub-balances back on startup.
+         */
+        private Set<String> accounts = new LinkedHashSet<>();
+
+        /** Sub-balances per hot account; credits pick one by hashing the transaction id. */
+        private int shards = 8;
+    }
+
+    public enum FxSource {
+        NONE, FILE, TABLE
+    }
+
+    public enum StatementFormat {
+        NONE, CSV, NDJSON
+    }
+
+    public enum ArchiveMode {
+        PARTITION, FILE
+    }
+
+    public enum ConsumerMode {
+        SINGLE, BATCH, PARALLEL
+    }
+
+    public enum ConcurrencyMode {
+        OPTIMISTIC, STRIPED
+    }
+
+    public enum LedgerMode {
+        JPA, NATIVE, IN_MEMORY
+    }
+}
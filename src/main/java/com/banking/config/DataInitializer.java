@@ -1,50 +1,44 @@
 package com.banking.config;
 
-import com.banking.domain.Account;
-import com.banking.domain.Balance;
+import com.banking.domain.Money;
 import com.banking.repository.AccountRepository;
-import com.banking.repository.BalanceRepository;
+import com.banking.startup.AccountSeeder;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.util.List;
 
 @Configuration
+@Slf4j
 @RequiredArgsConstructor
 public class DataInitializer {
 
     private final AccountRepository accountRepository;
-    private final BalanceRepository balanceRepository;
+    private final AccountSeeder accountSeeder;
+    private final BankingProperties properties;
 
     @Bean
     @Profile("!test") // Don't run this in tests
     public CommandLineRunner initData() {
         return args -> {
-            if (accountRepository.count() == 0) {
-                createAccount("DE123456789", "Alice", new BigDecimal("1000.00"));
-                createAccount("FR987654321", "Bob", new BigDecimal("500.00"));
+            if (accountRepository.count() > 0) {
+                return;
+            }
+            Path seedFile = properties.getStartup().getSeedFile();
+            if (seedFile != null) {
+                long started = System.nanoTime();
+                long seeded = accountSeeder.seed(seedFile);
+                log.info("Seeded {} accounts from {} in {} ms", seeded, seedFile, (System.nanoTime() - started) / 1_000_000);
+            } else {
+                accountSeeder.seed(List.of(
+                        new AccountSeeder.Seed("DE123456789", "Alice", "EUR", Money.parse("1000.00")),
+                        new AccountSeeder.Seed("FR987654321", "Bob", "EUR", Money.parse("500.00"))));
             }
         };
     }
-
-    private void createAccount(String id, String owner, BigDecimal initialBalance) {
-        Account account = Account.builder()
-                .id(id)
-                .ownerName(owner)
-                .currency("EUR")
-                .createdAt(LocalDateTime.now())
-                .build();
-        accountRepository.save(account);
-
-        Balance balance = Balance.builder()
-                .accountId(id)
-                .account(account)
-                .amount(initialBalance)
-                .build();
-        balanceRepository.save(balance);
-    }
 }
@@ -0,0 +1,103 @@
+package com.banking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    /**
+     * Sizes the primary pool ({@code banking.datasource.size-from-concurrency}) as a fixed-size pool
+     * of {@link #settlingThreads} plus {@code banking.datasource.headroom} connections. A settling
+     * thread holds one connection for its whole database transaction, so a smaller pool makes
+     * listener threads queue for connections ({@code hikaricp.connections.pending}) and a larger
+     * one only adds idle connections to the server.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.datasource.size-from-concurrency", havingValue = "true")
+    static BeanPostProcessor poolSizing(ObjectProvider<BankingProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // The replica pool is read-only and sized on its own
+                if (bean instanceof HikariDataSource dataSource && !dataSource.isReadOnly()) {
+                    BankingProperties settings = properties.getObject();
+                    int size = settlingThreads(settings) + settings.getDatasource().getHeadroom();
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    log.info("Connection pool {} sized to {} connections", beanName, size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Threads that can hold a connection for a settlement at the same time: the parallel
+     * consumer's {@code max-in-flight}, otherwise the listener concurrency, times the main and
+     * retry topics when the {@code single} listener retries through retry topics.
+     */
+    static int settlingThreads(BankingProperties properties) {
+        BankingProperties.Consumer consumer = properties.getConsumer();
+        int listenerThreads = Integer.parseInt(KafkaConfig.LISTENER_CONCURRENCY);
+        return switch (consumer.getMode()) {
+            case PARALLEL -> consumer.getParallel().getMaxInFlight();
+            case BATCH -> listenerThreads;
+            case SINGLE -> consumer.getRetry().isNonBlocking() && !properties.getExactlyOnce().isEnabled()
+                    ? listenerThreads * consumer.getRetry().getAttempts()
+                    : listenerThreads;
+        };
+    }
+
+    /**
+     * Replaces Boot's single pool when {@code banking.datasource.replica.jdbc-url} is set: the
+     * primary pool from {@code spring.datasource.*}, a read-only pool bound from
+     * {@code banking.datasource.replica.*} (Hikari properties, driver and credentials default to
+     * the primary's) and a {@link ReplicaRoutingDataSource} in front of both.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "banking.datasource.replica.jdbc-url")
+    static class Replica {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        @ConfigurationProperties("banking.datasource.replica")
+        HikariDataSource replicaDataSource(DataSourceProperties properties) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica");
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setReadOnly(true);
+            return replica;
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+            ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource();
+            dataSource.setTargetDataSources(Map.of(
+                    ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+                    ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+            dataSource.setDefaultTargetDataSource(primaryDataSource);
+            return dataSource;
+        }
+    }
+}
@@ -1,22 +1,43 @@
 package com.banking.config;
 
+import com.banking.exception.PaymentRejectedException;
+import com.banking.metrics.PartitionStallTracker;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.producer.SettlementResultPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.util.Properties;
+
 @Configuration
 @Slf4j
 public class KafkaConfig {
 
     public static final String PAYMENTS_TOPIC = "payments";
     public static final String PAYMENTS_DLT = "payments.DLT";
+    public static final String PAYMENTS_SETTLED_TOPIC = "payments.settled";
+    public static final String PAYMENTS_REJECTED_TOPIC = "payments.rejected";
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+    /** Consumer threads per payments listener, one per partition of {@link #PAYMENTS_TOPIC}. */
+    public static final String LISTENER_CONCURRENCY = "2";
 
     @Bean
     public NewTopic paymentsTopic() {
@@ -35,20 +56,113 @@ public class KafkaConfig {
     }
 
     @Bean
-    public CommonErrorHandler errorHandler(KafkaOperations<Object, Object> template) {
+    @ConditionalOnProperty(name = "banking.exactly-once.enabled", havingValue = "true")
+    public NewTopic paymentsSettledTopic() {
+        return TopicBuilder.name(PAYMENTS_SETTLED_TOPIC)
+                .partitions(2)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.exactly-once.enabled", havingValue = "true")
+    public NewTopic paymentsRejectedTopic() {
+        return TopicBuilder.name(PAYMENTS_REJECTED_TOPIC)
+                .partitions(2)
+                .replicas(1)
+                .build();
+    }
+
+    /**
+     * Blocking retries for the {@code batch} and {@code parallel} listeners, and for the
+     * {@code single} listener when non-blocking retries are off (see {@link RetryTopicConfig}).
+     */
+    @Bean
+    public CommonErrorHandler errorHandler(KafkaOperations<Object, Object> template, SettlementMetrics settlementMetrics,
+                                           PartitionStallTracker stallTracker) {
         // Dead Letter Topic strategy
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler((record, exception) -> {
+            settlementMetrics.deadLettered(record, exception);
+            recoverer.accept(record, exception);
+        }, retryBackOff());
         
+        // Rejections are normally recorded as FAILED rows and never thrown; should one escape,
+        // retrying it only blocks the partition
+        errorHandler.addNotRetryableExceptions(PaymentRejectedException.class);
+        errorHandler.setRetryListeners(stallTracker);
+        
+        return errorHandler;
+    }
+
+    /**
+     * Listener factory for {@code banking.consumer.mode=single}, replacing Boot's default one so
+     * that exactly-once mode can be applied to it.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ObjectProvider<SettlementResultPublisher> resultPublisher) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        // PaymentConsumer acknowledges each record itself, also on the retry topics
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        resultPublisher.ifAvailable(publisher -> exactlyOnce(factory, publisher));
+        return factory;
+    }
+
+    /**
+     * Listener factory for {@code banking.consumer.mode=batch} and {@code parallel}: hands a whole
+     * poll to the listener and lets the broker linger until a fetch is worth settling at once.
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    @ConditionalOnExpression("'${banking.consumer.mode:single}'.toLowerCase() matches 'batch|parallel'")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            BankingProperties properties,
+            ObjectProvider<SettlementResultPublisher> resultPublisher) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        resultPublisher.ifAvailable(publisher -> exactlyOnce(factory, publisher));
+
+        BankingProperties.Batch batch = properties.getConsumer().getBatch();
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batch.getMaxSize()));
+        overrides.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(batch.getLinger().toMillis()));
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(batch.getMinBytes()));
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setKafkaConsumerProperties(overrides);
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Runs every listener invocation in a Kafka transaction of the result publisher. Failed
+     * invocations are rolled back and handled by an after-rollback processor (the error handler
+     * does not apply): redelivery with the same back-off, then, for record listeners, the dead
+     * letter topic with the offset committed in the same transaction. The processor cannot recover
+     * a single record of a batch, so the batch listener retries and dead-letters failed records
+     * itself (see {@code BatchPaymentConsumer}); a rolled back poll is redelivered as a whole.
+     */
+    private static void exactlyOnce(ConcurrentKafkaListenerContainerFactory<Object, Object> factory,
+                                    SettlementResultPublisher publisher) {
+        factory.getContainerProperties().setTransactionManager(publisher.getTransactionManager());
+        DefaultAfterRollbackProcessor<Object, Object> afterRollback = new DefaultAfterRollbackProcessor<>(
+                publisher.deadLetterRecoverer(), retryBackOff(), publisher.getKafkaTemplate(), true);
+        afterRollback.addNotRetryableExceptions(PaymentRejectedException.class);
+        factory.setAfterRollbackProcessor(afterRollback);
+    }
+
+    private static BackOff retryBackOff() {
         // Exponential backoff: initial 1s, max 10s, multiplier 2.0
         ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
         backOff.setMaxInterval(10000L);
         backOff.setMaxElapsedTime(60000L); // Max 1 minute of retries
-
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
-        
-        // Don't retry for these exceptions (Serialization, Business validation)
-        // errorHandler.addNotRetryableExceptions(SerializationException.class);
-        
-        return errorHandler;
+        return backOff;
     }
 }
@@ -0,0 +1,44 @@
+package com.banking.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections to code running inside {@link #onReplica}, primary connections
+ * everywhere else. Routing is opt-in rather than keyed on read-only transactions: Spring Data runs
+ * {@code findById} and friends read-only, and the ledger snapshot, the idempotency rebuild and the
+ * archive export must not see a lagging replica.
+ * <p>
+ * The decision is taken when a connection is acquired, i.e. when a transaction begins, so the
+ * scope has to enclose the whole transaction. Without a replica configured the scope does nothing.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> REPLICA_SCOPE = new ThreadLocal<>();
+
+    /**
+     * Runs {@code query} against the read replica. Results can lag the primary by the replication
+     * delay; writes inside the scope fail on the read-only connection.
+     */
+    public static <T> T onReplica(Supplier<T> query) {
+        if (REPLICA_SCOPE.get() != null) {
+            return query.get();
+        }
+        REPLICA_SCOPE.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            REPLICA_SCOPE.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return REPLICA_SCOPE.get() != null ? Target.REPLICA : Target.PRIMARY;
+    }
+}
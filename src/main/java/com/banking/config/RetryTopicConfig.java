@@ -0,0 +1,66 @@
+package com.banking.config;
+
+import com.banking.consumer.DeadLetterListener;
+import com.banking.exception.PaymentRejectedException;
+import com.banking.metrics.PartitionStallTracker;
+import com.banking.metrics.SettlementMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+
+/**
+ * Non-blocking retries for the {@code single} listener: a payment failing for a technical reason
+ * is forwarded to {@code payments-retry-0}, {@code payments-retry-1}, ... (each consumed after its
+ * back-off) and finally to {@code payments.DLT}, while the main partition moves on. Rejections
+ * ({@link PaymentRejectedException}) and undeserializable records go to the DLT directly.
+ * <p>
+ * Batch listeners cannot use retry topics and exactly-once mode retries inside its transactions,
+ * so both keep the blocking {@link KafkaConfig#errorHandler error handler}.
+ */
+@Configuration
+@ConditionalOnExpression("'${banking.consumer.mode:single}'.toLowerCase() == 'single'"
+        + " and ${banking.consumer.retry.non-blocking:false} and !${banking.exactly-once.enabled:false}")
+public class RetryTopicConfig extends RetryTopicConfigurationSupport {
+
+    private final PartitionStallTracker stallTracker;
+    private final SettlementMetrics settlementMetrics;
+
+    public RetryTopicConfig(PartitionStallTracker stallTracker, SettlementMetrics settlementMetrics) {
+        this.stallTracker = stallTracker;
+        this.settlementMetrics = settlementMetrics;
+    }
+
+    @Bean
+    public RetryTopicConfiguration paymentsRetryTopics(KafkaTemplate<String, Object> template, BankingProperties properties) {
+        BankingProperties.Retry retry = properties.getConsumer().getRetry();
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(KafkaConfig.PAYMENTS_TOPIC)
+                .maxAttempts(retry.getAttempts())
+                .exponentialBackoff(retry.getInitialInterval().toMillis(), retry.getMultiplier(),
+                        retry.getMaxInterval().toMillis())
+                .notRetryOn(PaymentRejectedException.class)
+                .traversingCauses()
+                .retryTopicSuffix("-retry")
+                .dltSuffix(".DLT")
+                .setTopicSuffixingStrategy(TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+                .autoCreateTopicsWith(2, (short) 1)
+                .dltHandlerMethod("deadLetterListener", "deadLettered")
+                .create(template);
+    }
+
+    @Bean
+    public DeadLetterListener deadLetterListener() {
+        return new DeadLetterListener(settlementMetrics);
+    }
+
+    @Override
+    protected void configureCustomizers(CustomizersConfigurer customizersConfigurer) {
+        customizersConfigurer.customizeErrorHandler(errorHandler -> errorHandler.setRetryListeners(stallTracker));
+    }
+}
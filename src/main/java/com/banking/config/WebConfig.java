@@ -0,0 +1,24 @@
+package com.banking.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * One virtual thread per HTTP request: ingestion requests mostly wait for the broker
+     * acknowledgement, so concurrency is bounded by the producer's admission control instead of
+     * Tomcat's thread pool. Unlike {@code spring.threads.virtual.enabled} this leaves the Kafka
+     * listeners and schedulers on platform threads.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.ingestion.virtual-threads", havingValue = "true", matchIfMissing = true)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
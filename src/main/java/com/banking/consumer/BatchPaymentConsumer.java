@@ -0,0 +1,193 @@
+package com.banking.consumer;
+
+import com.banking.config.BankingProperties;
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.producer.SettlementResultPublisher;
+import com.banking.service.SettlementExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Batch listener used when {@code banking.consumer.mode=batch}.
+ * A whole poll is settled in one database transaction and acknowledged once. If the batch fails
+ * it is bisected until the failing record is isolated, so the healthy records around it are
+ * committed instead of being retried along with it.
+ * <p>
+ * In exactly-once mode the poll is one Kafka transaction: results are published for every
+ * record, and records that failed deserialization are dead-lettered within the transaction
+ * (a rollback would redeliver the whole poll). For the same reason a record that fails to settle
+ * is retried in place with the {@code banking.consumer.retry} back-off and, once its attempts are
+ * used up, dead-lettered within the transaction too; the rest of the poll is settled and
+ * published. The retries must fit into {@code banking.exactly-once.transaction-timeout}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "banking.consumer.mode", havingValue = "batch")
+public class BatchPaymentConsumer {
+
+    private final SettlementExecutor settlementExecutor;
+    private final SettlementMetrics settlementMetrics;
+    private final ObjectProvider<SettlementResultPublisher> resultPublisher;
+    private final BankingProperties properties;
+
+    @KafkaListener(
+            topics = KafkaConfig.PAYMENTS_TOPIC,
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY,
+            concurrency = KafkaConfig.LISTENER_CONCURRENCY // Matching partition count for parallel processing
+    )
+    public void consume(List<ConsumerRecord<String, PaymentEvent>> records, Acknowledgment ack) {
+        log.info("Consumed batch of {} records", records.size());
+        settlementMetrics.batchSize(records.size());
+
+        SettlementResultPublisher publisher = resultPublisher.getIfAvailable();
+        if (publisher != null) {
+            settleExactlyOnce(records, publisher);
+            return;
+        }
+
+        // Records that failed deserialization arrive with a null value; settle everything before
+        // the first one and hand that record to the error handler (which routes it to the DLT).
+        int poisoned = firstUndeserializable(records, 0);
+        try (SettlementMetrics.PartitionScope ignored = SettlementMetrics.partition(records)) {
+            settle(records, 0, poisoned, new ArrayList<>(), (failure, index) -> {
+                // Records before this index are committed, this one goes through the error handler
+                throw new BatchListenerFailedException(failure.getMessage(), failure, index);
+            });
+        }
+        if (poisoned < records.size()) {
+            throw new BatchListenerFailedException("Failed to deserialize payment event", poisoned);
+        }
+
+        ack.acknowledge();
+        log.info("Successfully processed and acknowledged batch of {} records", records.size());
+    }
+
+    private void settleExactlyOnce(List<ConsumerRecord<String, PaymentEvent>> records,
+                                   SettlementResultPublisher publisher) {
+        List<Transaction> settled = new ArrayList<>(records.size());
+        Set<Integer> deadLettered = new HashSet<>();
+        try (SettlementMetrics.PartitionScope ignored = SettlementMetrics.partition(records)) {
+            int from = 0;
+            while (from < records.size()) {
+                int poisoned = firstUndeserializable(records, from);
+                settle(records, from, poisoned, settled, (failure, index) -> {
+                    if (!retry(records.get(index), settled)) {
+                        publisher.deadLetterRecoverer().accept(records.get(index), failure);
+                        deadLettered.add(index);
+                    }
+                });
+                if (poisoned < records.size()) {
+                    publisher.deadLetterRecoverer().accept(records.get(poisoned),
+                            new IllegalArgumentException("Failed to deserialize payment event"));
+                    deadLettered.add(poisoned);
+                }
+                from = poisoned + 1;
+            }
+            List<PaymentEvent> events = new ArrayList<>(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                if (!deadLettered.contains(i)) {
+                    events.add(records.get(i).value());
+                }
+            }
+            publisher.publish(events, settled);
+        }
+        // Offsets go to the Kafka transaction, committed by the container when this returns
+        log.info("Settled batch of {} records, results pending commit", records.size());
+    }
+
+    /**
+     * Settles records [from, to), adding the transactions written to {@code settled}. A record
+     * that still fails once isolated is handed to {@code failed} with its index.
+     */
+    private void settle(List<ConsumerRecord<String, PaymentEvent>> records, int from, int to,
+                        List<Transaction> settled, ObjIntConsumer<RuntimeException> failed) {
+        if (from >= to) {
+            return;
+        }
+        try {
+            List<Transaction> written = settlementExecutor.processBatch(events(records, from, to));
+            settled.addAll(written);
+            log.debug("Settled {} transactions for records [{}, {})", written.size(), from, to);
+            for (int i = from; i < to; i++) {
+                settlementMetrics.endToEnd(records.get(i).value().getTimestamp(), "settled");
+            }
+        } catch (RuntimeException e) {
+            if (to - from == 1) {
+                ConsumerRecord<String, PaymentEvent> record = records.get(from);
+                settlementMetrics.endToEnd(record.value().getTimestamp(), "failed");
+                log.error("Error processing payment event {} from partition {} offset {}: {}",
+                        record.value().getTransactionId(), record.partition(), record.offset(), e.getMessage());
+                failed.accept(e, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            log.warn("Batch [{}, {}) failed ({}), bisecting", from, to, e.getMessage());
+            settle(records, from, middle, settled, failed);
+            settle(records, middle, to, settled, failed);
+        }
+    }
+
+    /** Settles a failed record again until it succeeds or its attempts are used up. */
+    private boolean retry(ConsumerRecord<String, PaymentEvent> record, List<Transaction> settled) {
+        BankingProperties.Retry retry = properties.getConsumer().getRetry();
+        ExponentialBackOff backOff = new ExponentialBackOff(retry.getInitialInterval().toMillis(), retry.getMultiplier());
+        backOff.setMaxInterval(retry.getMaxInterval().toMillis());
+        BackOffExecution execution = backOff.start();
+        for (int attempt = 2; attempt <= retry.getAttempts(); attempt++) {
+            try {
+                Thread.sleep(execution.nextBackOff());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Roll the poll back instead of dead-lettering a record that may still settle
+                throw new KafkaException("Interrupted while retrying payment event " + record.value().getTransactionId(), e);
+            }
+            try {
+                settled.addAll(settlementExecutor.processBatch(List.of(record.value())));
+                settlementMetrics.endToEnd(record.value().getTimestamp(), "settled");
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Attempt {} of payment event {} failed: {}", attempt, record.value().getTransactionId(),
+                        e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static List<PaymentEvent> events(List<ConsumerRecord<String, PaymentEvent>> records, int from, int to) {
+        List<PaymentEvent> events = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            events.add(records.get(i).value());
+        }
+        return events;
+    }
+
+    private static int firstUndeserializable(List<ConsumerRecord<String, PaymentEvent>> records, int from) {
+        for (int i = from; i < records.size(); i++) {
+            if (records.get(i).value() == null) {
+                return i;
+            }
+        }
+        return records.size();
+    }
+}
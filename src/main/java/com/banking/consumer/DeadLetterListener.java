@@ -0,0 +1,39 @@
+package com.banking.consumer;
+
+import com.banking.metrics.SettlementMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Handler of {@code payments.DLT} when non-blocking retries are on (registered by
+ * {@link com.banking.config.RetryTopicConfig}). Counts and logs every dead-lettered payment; the
+ * records stay on the topic for manual handling.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DeadLetterListener {
+
+    private final SettlementMetrics settlementMetrics;
+
+    public void deadLettered(ConsumerRecord<?, ?> record) {
+        Header partition = record.headers().lastHeader(KafkaHeaders.ORIGINAL_PARTITION);
+        String cause = headerValue(record, KafkaHeaders.EXCEPTION_CAUSE_FQCN);
+        String exceptionType = cause != null ? cause.substring(cause.lastIndexOf('.') + 1) : "unknown";
+        settlementMetrics.deadLettered(
+                partition != null ? ByteBuffer.wrap(partition.value()).getInt() : record.partition(), exceptionType);
+        log.error("payment.dead_lettered partition={} offset={} key={} exception={} error=\"{}\"",
+                record.partition(), record.offset(), record.key(), exceptionType,
+                headerValue(record, KafkaHeaders.EXCEPTION_MESSAGE));
+    }
+
+    private static String headerValue(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.banking.consumer;
+
+import com.banking.config.BankingProperties;
+import com.banking.config.KafkaConfig;
+import com.banking.dto.PaymentEvent;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.service.SettlementExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Listener used when {@code banking.consumer.mode=parallel}.
+ * The records of a poll are grouped by {@code fromAccountId}; each group is settled in order on
+ * its own virtual thread while different groups run concurrently, at most
+ * {@code banking.consumer.parallel.max-in-flight} at a time. Parallelism therefore follows the
+ * number of active accounts instead of the partition count.
+ * <p>
+ * Once the poll is done, each partition is committed up to its first record that did not
+ * complete. A record that fails stops the rest of its group (ordering per account is strict) and
+ * the earliest incomplete record is handed to the error handler; completed records after it are
+ * redelivered and skipped as duplicates.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "banking.consumer.mode", havingValue = "parallel")
+public class ParallelPaymentConsumer {
+
+    private final SettlementExecutor settlementExecutor;
+    private final SettlementMetrics settlementMetrics;
+    private final Semaphore inFlight;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("settlement-", 0).factory());
+
+    public ParallelPaymentConsumer(SettlementExecutor settlementExecutor,
+                                   SettlementMetrics settlementMetrics,
+                                   BankingProperties properties) {
+        this.settlementExecutor = settlementExecutor;
+        this.settlementMetrics = settlementMetrics;
+        this.inFlight = new Semaphore(properties.getConsumer().getParallel().getMaxInFlight());
+    }
+
+    @KafkaListener(
+            topics = KafkaConfig.PAYMENTS_TOPIC,
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY,
+            concurrency = KafkaConfig.LISTENER_CONCURRENCY // One poll loop per partition, records fan out from there
+    )
+    public void consume(List<ConsumerRecord<String, PaymentEvent>> records, Consumer<?, ?> consumer, Acknowledgment ack) {
+        log.info("Consumed batch of {} records", records.size());
+        settlementMetrics.batchSize(records.size());
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            groups.computeIfAbsent(orderingKey(records.get(i)), key -> new ArrayList<>()).add(i);
+        }
+
+        boolean[] completed = new boolean[records.size()];
+        RuntimeException[] failures = new RuntimeException[records.size()];
+        List<CompletableFuture<Void>> running = new ArrayList<>(groups.size());
+        for (List<Integer> group : groups.values()) {
+            // Blocks the poll loop while max-in-flight groups are running
+            inFlight.acquireUninterruptibly();
+            running.add(CompletableFuture.runAsync(() -> {
+                try {
+                    settleInOrder(records, group, completed, failures);
+                } finally {
+                    inFlight.release();
+                }
+            }, executor));
+        }
+        // join() also publishes the writes to completed/failures made by the settlement threads
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+
+        int firstIncomplete = firstIncomplete(completed);
+        if (firstIncomplete == records.size()) {
+            ack.acknowledge();
+            log.info("Successfully processed and acknowledged batch of {} records in {} groups",
+                    records.size(), groups.size());
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = completedOffsets(records, completed);
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+        ConsumerRecord<String, PaymentEvent> record = records.get(firstIncomplete);
+        RuntimeException failure = failures[firstIncomplete];
+        if (failure == null) {
+            throw new BatchListenerFailedException("Failed to deserialize payment event", firstIncomplete);
+        }
+        log.error("Error processing payment event {} from partition {} offset {}: {}",
+                record.value().getTransactionId(), record.partition(), record.offset(), failure.getMessage());
+        throw new BatchListenerFailedException(failure.getMessage(), failure, firstIncomplete);
+    }
+
+    private void settleInOrder(List<ConsumerRecord<String, PaymentEvent>> records, List<Integer> group,
+                               boolean[] completed, RuntimeException[] failures) {
+        // All records of a group share the key and therefore the partition
+        try (SettlementMetrics.PartitionScope ignored = SettlementMetrics.partition(records.get(group.get(0)).partition())) {
+            for (int index : group) {
+                PaymentEvent event = records.get(index).value();
+                // Records that failed deserialization arrive with a null value
+                if (event == null) {
+                    return;
+                }
+                try {
+                    settlementExecutor.process(event);
+                    completed[index] = true;
+                    settlementMetrics.endToEnd(event.getTimestamp(), "settled");
+                } catch (RuntimeException e) {
+                    failures[index] = e;
+                    settlementMetrics.endToEnd(event.getTimestamp(), "failed");
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.close();
+    }
+
+    /** Next offset to consume per partition: the first incomplete record, or past the last one. */
+    private static Map<TopicPartition, OffsetAndMetadata> completedOffsets(
+            List<ConsumerRecord<String, PaymentEvent>> records, boolean[] completed) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        Set<TopicPartition> blocked = new HashSet<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, PaymentEvent> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (blocked.contains(partition)) {
+                continue;
+            }
+            if (completed[i]) {
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            } else {
+                blocked.add(partition);
+            }
+        }
+        return offsets;
+    }
+
+    private static String orderingKey(ConsumerRecord<String, PaymentEvent> record) {
+        return record.value() != null ? record.value().getFromAccountId() : String.valueOf(record.key());
+    }
+
+    private static int firstIncomplete(boolean[] completed) {
+        for (int i = 0; i < completed.length; i++) {
+            if (!completed[i]) {
+                return i;
+            }
+        }
+        return completed.length;
+    }
+}
@@ -1,10 +1,16 @@
 package com.banking.consumer;
 
 import com.banking.config.KafkaConfig;
+import com.banking.domain.Transaction;
 import com.banking.dto.PaymentEvent;
-import com.banking.service.BankingService;
+import com.banking.logging.LogSampler;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.producer.SettlementResultPublisher;
+import com.banking.service.SettlementExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -12,17 +18,24 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "banking.consumer.mode", havingValue = "single", matchIfMissing = true)
 public class PaymentConsumer {
 
-    private final BankingService bankingService;
+    private static final LogSampler SETTLED_LOG = new LogSampler(1_000);
+
+    private final SettlementExecutor settlementExecutor;
+    private final SettlementMetrics settlementMetrics;
+    private final ObjectProvider<SettlementResultPublisher> resultPublisher;
 
     @KafkaListener(
             topics = KafkaConfig.PAYMENTS_TOPIC,
             groupId = "${spring.kafka.consumer.group-id}",
-            concurrency = "2" // Matching partition count for parallel processing
+            concurrency = KafkaConfig.LISTENER_CONCURRENCY // Matching partition count for parallel processing
     )
     public void consume(@Payload PaymentEvent event,
                         @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
@@ -30,20 +43,33 @@ public class PaymentConsumer {
                         @Header(KafkaHeaders.RECEIVED_KEY) String key,
                         Acknowledgment ack) {
         
-        log.info("Consumed event from partition {} offset {} with key {}: {}", partition, offset, key, event);
-        
-        try {
+        log.debug("payment.consumed partition={} offset={} key={} transactionId={}",
+                partition, offset, key, event.getTransactionId());
+
+        try (SettlementMetrics.PartitionScope ignored = SettlementMetrics.partition(partition)) {
             // Business logic with idempotency check
-            bankingService.processPayment(event);
+            List<Transaction> settled = settlementExecutor.process(event);
+            // Exactly-once mode: the result joins the listener's Kafka transaction
+            resultPublisher.ifAvailable(publisher -> publisher.publish(List.of(event), settled));
+            boolean rejected = !settled.isEmpty()
+                    && settled.get(0).getStatus() == Transaction.TransactionStatus.FAILED;
+            settlementMetrics.endToEnd(event.getTimestamp(), rejected ? "rejected" : "settled");
             
             // Manual commit after successful processing
             // This ensures "at-least-once" delivery. Combined with idempotent processing in DB,
             // we achieve "exactly-once" semantics for the business state.
             ack.acknowledge();
-            log.info("Successfully processed and acknowledged event: {}", event.getTransactionId());
-            
+            log.debug("payment.acknowledged partition={} offset={} transactionId={}",
+                    partition, offset, event.getTransactionId());
+            if (SETTLED_LOG.sample()) {
+                log.info("payment.settled partition={} offset={} transactionId={} settledSinceStart={}",
+                        partition, offset, event.getTransactionId(), SETTLED_LOG.count());
+            }
+
         } catch (Exception e) {
-            log.error("Error processing payment event {}: {}", event.getTransactionId(), e.getMessage());
+            settlementMetrics.endToEnd(event.getTimestamp(), "failed");
+            log.error("payment.failed partition={} offset={} transactionId={} error=\"{}\"",
+                    partition, offset, event.getTransactionId(), e.getMessage());
             // We do NOT acknowledge here. 
             // The CommonErrorHandler will handle retries and eventual DLT routing.
             throw e; 
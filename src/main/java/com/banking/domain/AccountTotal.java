@@ -0,0 +1,30 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running total of an account's COMPLETED transactions up to the {@link ReconciliationCheckpoint}.
+ * Its balance should be {@code opening + net} plus whatever settled after the checkpoint.
+ */
+@Entity
+@Table(name = "account_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountTotal {
+    @Id
+    private String accountId;
+
+    /** Balance before the first counted transaction; null until the account is first checked. */
+    private Money opening;
+
+    /** Credits minus debits counted so far. */
+    @Column(nullable = false)
+    private Money net;
+
+    private LocalDateTime updatedAt;
+}
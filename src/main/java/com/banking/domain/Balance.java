@@ -2,7 +2,6 @@ package com.banking.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
 
 @Entity
 @Table(name = "balances")
@@ -15,13 +14,13 @@ public class Balance {
     @Id
     private String accountId;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY) // Settlement never reads the account, eager loading was one select per balance
     @MapsId
     @JoinColumn(name = "account_id")
     private Account account;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Version
     private Long version; // Optimistic locking
@@ -0,0 +1,41 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One sub-balance of a hot account ({@code banking.hot-accounts}). The account's balance is its
+ * {@link Balance} plus all of its shards; credits land on one shard each, so concurrent credits to
+ * the account bump different versions. Shards are created with amount zero.
+ */
+@Entity
+@Table(name = "balance_shards")
+@IdClass(BalanceShard.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceShard {
+    @Id
+    private String accountId;
+
+    @Id
+    private int shard;
+
+    @Column(nullable = false)
+    private Money amount;
+
+    @Version
+    private Long version;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String accountId;
+        private int shard;
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Quoted exchange rate read by {@code banking.fx.source=table}: one unit of the base currency
+ * buys {@code rate} units of the quote currency.
+ */
+@Entity
+@Table(name = "fx_rates")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRate {
+    public static final int RATE_SCALE = 10;
+
+    @Id
+    @Column(length = 7)
+    private String pair; // BASE/QUOTE, e.g. EUR/USD
+
+    @Column(nullable = false, precision = 24, scale = RATE_SCALE)
+    private BigDecimal rate;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Highest ledger journal sequence whose effects are contained in the {@code balances} and
+ * {@code transactions} tables. Written in the same database transaction as the snapshot.
+ */
+@Entity
+@Table(name = "ledger_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Long journalSequence;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,213 @@
+package com.banking.domain;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fixed-point amount: {@code minorUnits * 10^-scale}, backed by a {@code long}.
+ * The scale normally is the number of minor units of the currency (2 for EUR, 0 for JPY, 3 for
+ * KWD). Arithmetic is exact: operands are aligned to the larger scale, overflow and lossy
+ * rescaling throw {@link ArithmeticException} instead of rounding silently.
+ * Like {@link BigDecimal}, {@link #equals} is scale sensitive while {@link #compareTo} is not.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public record Money(long minorUnits, int scale) implements Comparable<Money> {
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+    private static final ConcurrentMap<String, Integer> CURRENCY_SCALES = new ConcurrentHashMap<>();
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public Money {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+    }
+
+    public static Money ofMinor(long minorUnits, int scale) {
+        return new Money(minorUnits, scale);
+    }
+
+    /** Exact conversion keeping the scale of the given value. */
+    public static Money of(BigDecimal amount) {
+        int scale = Math.max(0, amount.scale());
+        return new Money(amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), scale);
+    }
+
+    /** Exact conversion to the minor units of the given currency. */
+    public static Money of(BigDecimal amount, String currency) {
+        int scale = scaleOf(currency);
+        return new Money(amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), scale);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code "-1234.50"} without going through {@link BigDecimal}.
+     * Exponent notation is delegated to {@link BigDecimal}.
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+        long units = 0;
+        int scale = -1;
+        boolean digits = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c == 'e' || c == 'E') {
+                return of(new BigDecimal(text.toString()));
+            } else {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+        return new Money(negative ? -units : units, Math.max(scale, 0));
+    }
+
+    /** Default number of fraction digits of an ISO 4217 currency, 2 for unknown codes. */
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return 2;
+        }
+        return CURRENCY_SCALES.computeIfAbsent(currency, code -> {
+            try {
+                return Math.max(0, Currency.getInstance(code).getDefaultFractionDigits());
+            } catch (IllegalArgumentException e) {
+                return 2;
+            }
+        });
+    }
+
+    public Money plus(Money other) {
+        if (scale == other.scale) {
+            return new Money(Math.addExact(minorUnits, other.minorUnits), scale);
+        }
+        int common = Math.max(scale, other.scale);
+        return new Money(Math.addExact(unitsAt(common), other.unitsAt(common)), common);
+    }
+
+    public Money minus(Money other) {
+        if (scale == other.scale) {
+            return new Money(Math.subtractExact(minorUnits, other.minorUnits), scale);
+        }
+        int common = Math.max(scale, other.scale);
+        return new Money(Math.subtractExact(unitsAt(common), other.unitsAt(common)), common);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), scale);
+    }
+
+    /** Same amount at another scale; throws {@link ArithmeticException} if digits would be lost. */
+    public Money withScale(int newScale) {
+        return newScale == scale ? this : new Money(unitsAt(newScale), newScale);
+    }
+
+    /** Same amount at another scale, rounding lost digits with the given mode. */
+    public Money withScale(int newScale, RoundingMode roundingMode) {
+        if (newScale >= scale) {
+            return withScale(newScale);
+        }
+        return of(toBigDecimal().setScale(newScale, roundingMode));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (scale == other.scale) {
+            return Long.compare(minorUnits, other.minorUnits);
+        }
+        int common = Math.max(scale, other.scale);
+        try {
+            return Long.compare(unitsAt(common), other.unitsAt(common));
+        } catch (ArithmeticException e) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    /** Plain decimal notation, e.g. {@code 1234.50}. */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text);
+        return text.toString();
+    }
+
+    public void appendTo(StringBuilder text) {
+        if (scale == 0) {
+            text.append(minorUnits);
+            return;
+        }
+        long divisor = POWERS_OF_TEN[scale];
+        long whole = minorUnits / divisor;
+        long fraction = Math.abs(minorUnits % divisor);
+        if (minorUnits < 0 && whole == 0) {
+            text.append('-');
+        }
+        text.append(whole).append('.');
+        String digits = Long.toString(fraction);
+        for (int i = digits.length(); i < scale; i++) {
+            text.append('0');
+        }
+        text.append(digits);
+    }
+
+    private long unitsAt(int targetScale) {
+        if (targetScale == scale) {
+            return minorUnits;
+        }
+        if (targetScale > scale) {
+            return Math.multiplyExact(minorUnits, POWERS_OF_TEN[targetScale - scale]);
+        }
+        long divisor = POWERS_OF_TEN[scale - targetScale];
+        if (minorUnits % divisor != 0) {
+            throw new ArithmeticException("Rounding necessary to rescale " + this + " to scale " + targetScale);
+        }
+        return minorUnits / divisor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A payment waiting in the transactional outbox to be published to Kafka. Written in the
+ * transaction of the business change and deleted by the relay once the broker acknowledged it.
+ * The payload is already in the configured wire format.
+ */
+@Entity
+@Table(name = "payment_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String messageKey;
+
+    @Column(nullable = false)
+    private String transactionId;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
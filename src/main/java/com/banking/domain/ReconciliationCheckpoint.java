@@ -0,0 +1,34 @@
+package com.banking.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Position of the reconciliation pass in {@code transactions}, ordered by {@code (createdAt, id)}:
+ * every COMPLETED row up to and including this one is contained in {@link AccountTotal}. Written in
+ * the same database transaction as the totals.
+ */
+@Entity
+@Table(name = "reconciliation_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationCheckpoint {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    @Column(nullable = false)
+    private Long lastTransactionId;
+
+    /** Number of the last statement segment written, 0 before the first one. */
+    @Column(nullable = false)
+    private Long segment;
+
+    private LocalDateTime updatedAt;
+}
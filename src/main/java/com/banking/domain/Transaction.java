@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transactions", indexes = {
-    @Index(name = "idx_transaction_external_id", columnList = "externalId", unique = true)
+    @Index(name = "idx_transaction_external_id", columnList = "externalId", unique = true),
+    @Index(name = "idx_transaction_created_at", columnList = "createdAt, id") // Reconciliation cursor
 })
 @Getter
 @Setter
@@ -15,8 +16,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 public class Transaction {
+    /** Matches {@code hibernate.jdbc.batch_size} and the default poll size of the batch listener. */
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    /**
+     * Pooled sequence: one {@code nextval} hands out {@value #ID_ALLOCATION_SIZE} ids, so inserts
+     * wait for the flush and are sent as JDBC batches (IDENTITY inserts one row at a time).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -29,7 +38,7 @@ public class Transaction {
     private String toAccountId;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(nullable = false)
     private String currency;
@@ -40,9 +49,25 @@ public class Transaction {
 
     private String failureReason;
 
-    private LocalDateTime createdAt;
+    /** Set for transfers between accounts in different currencies only: the applied rate and what the target received. */
+    @Column(precision = 24, scale = FxRate.RATE_SCALE)
+    private BigDecimal fxRate;
+    private Money creditedAmount;
+    private String creditedCurrency;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt; // Partition key when the table is partitioned
     private LocalDateTime processedAt;
 
+    /** The amount credited to the target account. */
+    public Money credit() {
+        return creditedAmount != null ? creditedAmount : amount;
+    }
+
+    public String creditCurrency() {
+        return creditedCurrency != null ? creditedCurrency : currency;
+    }
+
     public enum TransactionStatus {
         PENDING, COMPLETED, FAILED
     }
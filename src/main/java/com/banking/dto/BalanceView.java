@@ -0,0 +1,20 @@
+package com.banking.dto;
+
+import com.banking.domain.Money;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Committed balance of an account as served by {@code GET /accounts/{id}/balance}.
+ * {@code version} is the balance's optimistic lock version: it grows with every committed change
+ * and is what {@code minVersion} is compared against.
+ */
+@Value
+@Builder
+@Jacksonized
+public class BalanceView {
+    String accountId;
+    Money amount;
+    long version;
+}
@@ -0,0 +1,39 @@
+package com.banking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Answer to a submitted payment: {@code ACCEPTED} once it is on the payments topic, settlement
+ * follows asynchronously (see {@code GET /transactions/{transactionId}}). Bulk submissions answer
+ * with one of these per input line.
+ */
+@Value
+@Builder
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class PaymentAccepted {
+
+    public enum Status {
+        /** Acknowledged by the broker. */
+        ACCEPTED,
+        /** Failed validation; not sent. */
+        INVALID,
+        /** The broker did not acknowledge it; it may or may not have been published. */
+        FAILED,
+        /** Producer saturated; not sent. Bulk processing stops here, resubmit from this line. */
+        THROTTLED
+    }
+
+    /** Line of a bulk submission, counting from 1. */
+    Integer line;
+    String transactionId;
+    Status status;
+    @Singular
+    List<String> errors;
+}
@@ -1,7 +1,7 @@
 package com.banking.dto;
 
+import com.banking.domain.Money;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -12,7 +12,7 @@ public class PaymentEvent {
     private String transactionId;
     private String fromAccountId;
     private String toAccountId;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private LocalDateTime timestamp;
 }
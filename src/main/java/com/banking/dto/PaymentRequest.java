@@ -0,0 +1,51 @@
+package com.banking.dto;
+
+import com.banking.domain.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+/**
+ * Payment submitted through {@code POST /payments} or one line of {@code POST /payments/bulk}.
+ * {@code transactionId} is the idempotency key; one is generated when the client sends none.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentRequest {
+
+    @Size(max = 64)
+    private String transactionId;
+
+    @NotBlank
+    @Size(max = 64)
+    private String fromAccountId;
+
+    @NotBlank
+    @Size(max = 64)
+    private String toAccountId;
+
+    @NotNull
+    private Money amount;
+
+    @NotNull
+    @Pattern(regexp = "[A-Z]{3}", message = "must be an ISO 4217 code")
+    private String currency;
+
+    @JsonIgnore
+    @AssertTrue(message = "amount must be positive")
+    public boolean isAmountPositive() {
+        return amount == null || !(amount.isNegative() || amount.isZero());
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "source and target account must differ")
+    public boolean isBetweenDifferentAccounts() {
+        return fromAccountId == null || !fromAccountId.equals(toAccountId);
+    }
+}
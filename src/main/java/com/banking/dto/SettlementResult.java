@@ -0,0 +1,24 @@
+package com.banking.dto;
+
+import com.banking.domain.Money;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a settled {@link PaymentEvent}, published to {@code payments.settled} or
+ * {@code payments.rejected} in exactly-once mode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementResult {
+    private String transactionId;
+    private String status;
+    private String failureReason;
+    private String fromAccountId;
+    private String toAccountId;
+    private Money amount;
+    private String currency;
+    private LocalDateTime processedAt;
+}
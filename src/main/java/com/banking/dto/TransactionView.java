@@ -0,0 +1,35 @@
+package com.banking.dto;
+
+import com.banking.domain.Money;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Settled transaction as served by {@code GET /transactions/{externalId}}.
+ * For completed transfers the balance versions are a lower bound that already includes the
+ * transfer: passing them as {@code minVersion} reads both balances with this payment applied.
+ * The FX fields are only set for a transfer between accounts in different currencies.
+ */
+@Value
+@Builder
+@Jacksonized
+public class TransactionView {
+    String transactionId;
+    String status;
+    String failureReason;
+    String fromAccountId;
+    String toAccountId;
+    Money amount;
+    String currency;
+    BigDecimal fxRate;
+    Money creditedAmount;
+    String creditedCurrency;
+    LocalDateTime createdAt;
+    LocalDateTime processedAt;
+    Long fromBalanceVersion;
+    Long toBalanceVersion;
+}
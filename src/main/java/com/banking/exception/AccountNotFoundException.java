@@ -0,0 +1,8 @@
+package com.banking.exception;
+
+public class AccountNotFoundException extends PaymentRejectedException {
+
+    public AccountNotFoundException(String role, String accountId) {
+        super(role + " account not found: " + accountId);
+    }
+}
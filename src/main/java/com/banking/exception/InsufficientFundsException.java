@@ -0,0 +1,8 @@
+package com.banking.exception;
+
+public class InsufficientFundsException extends PaymentRejectedException {
+
+    public InsufficientFundsException(String accountId) {
+        super("Insufficient funds in account: " + accountId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.banking.exception;
+
+/** The amount has more decimals than the account's currency supports. */
+public class InvalidAmountException extends PaymentRejectedException {
+
+    public InvalidAmountException(String message) {
+        super(message);
+    }
+}
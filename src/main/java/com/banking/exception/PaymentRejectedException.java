@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+/**
+ * A payment that can never settle as sent, whatever the state of the infrastructure. Rejections
+ * are recorded as {@code FAILED} transactions and acknowledged instead of being retried; every
+ * other exception thrown while settling is treated as technical and transient.
+ */
+public class PaymentRejectedException extends RuntimeException {
+
+    public PaymentRejectedException(String message) {
+        super(message);
+    }
+}
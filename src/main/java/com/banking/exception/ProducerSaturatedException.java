@@ -0,0 +1,12 @@
+package com.banking.exception;
+
+/**
+ * No payment could be admitted because {@code banking.producer.max-in-flight} sends are already
+ * waiting for their acknowledgement. Nothing was sent; the caller should back off and retry.
+ */
+public class ProducerSaturatedException extends RuntimeException {
+
+    public ProducerSaturatedException(int maxInFlight) {
+        super("Producer saturated: " + maxInFlight + " sends awaiting acknowledgement");
+    }
+}
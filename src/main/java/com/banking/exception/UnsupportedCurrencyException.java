@@ -0,0 +1,12 @@
+package com.banking.exception;
+
+/**
+ * The payment is not in the currency of its source account, or there is no FX rate to convert it
+ * into the currency of its target account.
+ */
+public class UnsupportedCurrencyException extends PaymentRejectedException {
+
+    public UnsupportedCurrencyException(String message) {
+        super(message);
+    }
+}
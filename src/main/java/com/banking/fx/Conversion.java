@@ -0,0 +1,18 @@
+package com.banking.fx;
+
+import com.banking.domain.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount converted into another currency.
+ *
+ * @param currency the currency of {@code amount}
+ * @param rate     the applied rate, {@code null} if the currencies are the same and nothing was converted
+ */
+public record Conversion(Money amount, String currency, BigDecimal rate) {
+
+    public boolean converted() {
+        return rate != null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.banking.fx;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.exception.UnsupportedCurrencyException;
+import com.banking.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Currency rules of a transfer: the payment must be in the currency of its source account, and a
+ * target account in another currency is credited the amount converted through the
+ * {@link FxRateTable}.
+ * <p>
+ * Account currencies never change, so they are cached without expiry and settlement does not
+ * read the {@code accounts} table again; unknown accounts are not cached.
+ */
+@Component
+public class CurrencyExchange {
+
+    private final AccountRepository accountRepository;
+    private final FxRateTable fxRateTable;
+    private final Cache<String, String> currencies;
+
+    public CurrencyExchange(AccountRepository accountRepository, FxRateTable fxRateTable,
+                            BankingProperties properties, MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.fxRateTable = fxRateTable;
+        this.currencies = Caffeine.newBuilder()
+                .maximumSize(properties.getFx().getMaxAccounts())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, currencies, "banking.account.currencies");
+    }
+
+    /**
+     * What the target account is credited for a debit of the source account.
+     * Missing accounts are left to the caller: the debit is returned unconverted.
+     *
+     * @param creditScale the scale of the target balance, only asked for when the amount is converted
+     *
+     * @throws UnsupportedCurrencyException if the payment is not in the source account's currency
+     *                                      or there is no rate into the target account's currency
+     */
+    public Conversion credit(PaymentEvent event, Money debit, IntSupplier creditScale) {
+        String from = currency(event.getFromAccountId());
+        String to = currency(event.getToAccountId());
+        if (from != null && !from.equals(event.getCurrency())) {
+            throw new UnsupportedCurrencyException("Currency " + event.getCurrency()
+                    + " does not match source account: " + event.getFromAccountId());
+        }
+        if (from == null || to == null || from.equals(to)) {
+            return new Conversion(debit, event.getCurrency(), null);
+        }
+        return fxRateTable.convert(debit, from, to, creditScale.getAsInt());
+    }
+
+    /** Loads the currencies of the accounts with one query, ahead of settling a batch. */
+    public void preload(Collection<String> accountIds) {
+        currencies.getAll(accountIds, this::load);
+    }
+
+    /** Caches a currency read elsewhere, e.g. while warm-loading balances. */
+    public void remember(String accountId, String currency) {
+        currencies.put(accountId, currency);
+    }
+
+    /** @return the account's currency, {@code null} if the account does not exist */
+    public String currency(String accountId) {
+        String currency = currencies.getIfPresent(accountId);
+        if (currency != null) {
+            return currency;
+        }
+        return currencies.getAll(List.of(accountId), this::load).get(accountId);
+    }
+
+    private Map<String, String> load(Collection<? extends String> accountIds) {
+        return accountRepository.findCurrencies(List.copyOf(accountIds)).stream()
+                .collect(Collectors.toMap(AccountRepository.AccountCurrency::getId,
+                        AccountRepository.AccountCurrency::getCurrency));
+    }
+}
@@ -0,0 +1,163 @@
+package com.banking.fx;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.FxRate;
+import com.banking.domain.Money;
+import com.banking.exception.UnsupportedCurrencyException;
+import com.banking.repository.FxRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FX rates used to settle cross-currency transfers. Lookups read an immutable {@link FxRates}
+ * snapshot through one volatile read: no lock and no database access on the settlement path.
+ * A refresh builds a complete new snapshot from {@code banking.fx.source} and swaps it in; a
+ * refresh that fails keeps the previous snapshot.
+ * <p>
+ * Without a usable snapshot (not loaded yet, or older than {@code banking.fx.max-age}) conversions
+ * fail as technical errors and are retried, so a source outage delays cross-currency payments
+ * instead of rejecting them. A pair the source does not quote is a business rejection.
+ */
+@Component
+@Slf4j
+public class FxRateTable {
+
+    private final FxRateRepository fxRateRepository;
+    private final BankingProperties.Fx settings;
+    private final AtomicReference<FxRates> snapshot = new AtomicReference<>(FxRates.EMPTY);
+
+    public FxRateTable(FxRateRepository fxRateRepository, BankingProperties properties, MeterRegistry meterRegistry) {
+        this.fxRateRepository = fxRateRepository;
+        this.settings = properties.getFx();
+        Gauge.builder("banking.fx.rates.age", this, FxRateTable::ageSeconds)
+                .description("Age of the FX rates in use, as reported by their source")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    // @Scheduled only understands milliseconds and ISO-8601, the property uses Boot's duration format
+    @Scheduled(fixedDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.fx.refresh-interval:1m}').toMillis()}",
+            initialDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.fx.refresh-interval:1m}').toMillis()}")
+    public void refresh() {
+        try {
+            FxRates rates = switch (settings.getSource()) {
+                case NONE -> null;
+                case FILE -> readFile(settings.getRateFile());
+                case TABLE -> readTable();
+            };
+            if (rates != null) {
+                FxRates previous = snapshot.getAndSet(rates);
+                if (!rates.rates().equals(previous.rates())) {
+                    log.info("Loaded {} FX rates as of {} from {}", rates.size(), rates.asOf(), settings.getSource());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("FX rate refresh from {} failed, keeping rates as of {}: {}",
+                    settings.getSource(), snapshot.get().asOf(), e.getMessage());
+        }
+    }
+
+    /** Replaces the rates in use, e.g. with ones received from elsewhere. */
+    public void update(FxRates rates) {
+        snapshot.set(rates);
+    }
+
+    public FxRates current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Converts an amount into another currency at the current rate, rounded half-even to the
+     * minor unit of the target currency, or to {@code maxScale} decimals if the balance it goes to
+     * holds fewer (3-decimal currencies such as KWD into a 2-decimal balance column).
+     *
+     * @throws UnsupportedCurrencyException if there is no rate for the pair
+     * @throws IllegalStateException if the rates are not loaded or too old
+     */
+    public Conversion convert(Money amount, String from, String to, int maxScale) {
+        FxRates rates = snapshot.get();
+        if (settings.getSource() != BankingProperties.FxSource.NONE) {
+            if (rates.asOf() == null) {
+                throw new IllegalStateException("FX rates have not been loaded from " + settings.getSource());
+            }
+            if (rates.asOf().isBefore(Instant.now().minus(settings.getMaxAge()))) {
+                throw new IllegalStateException("FX rates as of " + rates.asOf() + " are older than " + settings.getMaxAge());
+            }
+        }
+        BigDecimal rate = rates.rate(from, to);
+        if (rate == null) {
+            throw new UnsupportedCurrencyException("No FX rate for " + from + "/" + to);
+        }
+        BigDecimal converted = amount.toBigDecimal().multiply(rate)
+                .setScale(Math.min(Money.scaleOf(to), maxScale), RoundingMode.HALF_EVEN);
+        return new Conversion(Money.of(converted), to, rate);
+    }
+
+    /**
+     * Reads {@code PAIR,RATE} lines such as {@code EUR/USD,1.0850}; blank lines, {@code #} comments
+     * and a {@code pair,rate} header are skipped. The rates are as old as the file. An unchanged
+     * file is not parsed again.
+     */
+    private FxRates readFile(Path file) throws IOException {
+        Instant modified = Files.getLastModifiedTime(file).toInstant();
+        FxRates current = snapshot.get();
+        if (modified.equals(current.asOf()) && current.size() > 0) {
+            return current;
+        }
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#") || line.equalsIgnoreCase("pair,rate")) {
+                continue;
+            }
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": expected PAIR,RATE but was " + line);
+            }
+            quotes.put(line.substring(0, comma).strip(), new BigDecimal(line.substring(comma + 1).strip()));
+        }
+        return FxRates.of(quotes, modified);
+    }
+
+    /** Reads {@code fx_rates}; the rates are as old as the least recently updated one. */
+    private FxRates readTable() {
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        Instant asOf = Instant.now();
+        for (FxRate rate : fxRateRepository.findAll()) {
+            quotes.put(rate.getPair(), rate.getRate());
+            Instant updated = rate.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant();
+            if (updated.isBefore(asOf)) {
+                asOf = updated;
+            }
+        }
+        return FxRates.of(quotes, asOf);
+    }
+
+    private double ageSeconds() {
+        Instant asOf = snapshot.get().asOf();
+        return asOf == null ? Double.NaN : Duration.between(asOf, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.banking.fx;
+
+import com.banking.domain.FxRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of the FX rates, indexed {@code base -> quote -> rate} so a lookup is two
+ * hash probes without building a key. Every quoted pair also answers its inverse, {@code 1 / rate}
+ * at {@value FxRate#RATE_SCALE} decimals, unless the inverse is quoted itself.
+ *
+ * @param asOf age of the rates at the source, {@code null} for the empty snapshot
+ */
+public record FxRates(Map<String, Map<String, BigDecimal>> rates, Instant asOf) {
+
+    public static final FxRates EMPTY = new FxRates(Map.of(), null);
+
+    private static final Pattern PAIR = Pattern.compile("[A-Z]{3}/[A-Z]{3}");
+
+    public FxRates {
+        rates = Map.copyOf(rates);
+    }
+
+    /**
+     * @param quotes rates by {@code BASE/QUOTE} pair
+     * @throws IllegalArgumentException for a malformed pair or a rate that is not positive
+     */
+    public static FxRates of(Map<String, BigDecimal> quotes, Instant asOf) {
+        Map<String, Map<String, BigDecimal>> rates = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> quote : quotes.entrySet()) {
+            String pair = quote.getKey();
+            if (!PAIR.matcher(pair).matches() || pair.substring(0, 3).equals(pair.substring(4))) {
+                throw new IllegalArgumentException("Invalid FX pair " + pair);
+            }
+            BigDecimal rate = quote.getValue() == null ? null
+                    : quote.getValue().setScale(FxRate.RATE_SCALE, RoundingMode.HALF_EVEN);
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Invalid FX rate " + quote.getValue() + " for " + pair);
+            }
+            rates.computeIfAbsent(pair.substring(0, 3), base -> new HashMap<>()).put(pair.substring(4), rate);
+        }
+        for (Map.Entry<String, BigDecimal> quote : quotes.entrySet()) {
+            String base = quote.getKey().substring(0, 3);
+            String quoted = quote.getKey().substring(4);
+            rates.computeIfAbsent(quoted, currency -> new HashMap<>()).computeIfAbsent(base,
+                    currency -> BigDecimal.ONE.divide(quote.getValue(), FxRate.RATE_SCALE, RoundingMode.HALF_EVEN));
+        }
+        rates.replaceAll((base, quoted) -> Map.copyOf(quoted));
+        return new FxRates(rates, asOf);
+    }
+
+    /** Units of {@code quote} bought by one unit of {@code base}; {@code null} if there is no rate. */
+    public BigDecimal rate(String base, String quote) {
+        Map<String, BigDecimal> quoted = rates.get(base);
+        return quoted == null ? null : quoted.get(quote);
+    }
+
+    /** Number of pairs including derived inverses. */
+    public int size() {
+        return rates.values().stream().mapToInt(Map::size).sum();
+    }
+}
@@ -0,0 +1,273 @@
+package com.banking.idempotency;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Transaction;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Tiered idempotency check in front of {@code transactions.externalId}.
+ * <ol>
+ *   <li>A bounded LRU of recently settled ids and their status answers redeliveries (e.g. after a
+ *   rebalance) without a query.</li>
+ *   <li>A {@link ScalableBloomFilter} over every settled id answers "definitely new" for the vast
+ *   majority of events, which then skip the database lookup altogether.</li>
+ *   <li>Everything else ("maybe seen") is looked up in the database.</li>
+ * </ol>
+ * The filter is rebuilt from the {@code transactions} table in the background after startup;
+ * until it is complete every lookup goes to the database. Ids are recorded only after their
+ * transaction commits. A definite miss can still be wrong for ids written by another instance or
+ * forgotten with a dropped slice: the unique index on {@code externalId} rejects those inserts and
+ * the caller retries after {@link #markSeen}.
+ * <p>
+ * With {@code banking.idempotency.dedupe-horizon} set, only transactions created within the
+ * horizon count: the filter is rebuilt from them and lookups leave older rows (and partitions)
+ * out. An id settled before the horizon is treated as new.
+ */
+@Component
+@Slf4j
+public class IdempotencyGuard {
+
+    /** Lower bound without a horizon; every transaction is created after it. */
+    private static final LocalDateTime BEGINNING_OF_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BankingProperties.Idempotency settings;
+    private final Duration dedupeHorizon;
+    private final SettlementMetrics settlementMetrics;
+    private final ScalableBloomFilter seen;
+    private final Map<String, Transaction.TransactionStatus> recentStatuses;
+    private volatile boolean ready;
+
+    private final Counter bloomMisses;
+    private final Counter cacheHits;
+    private final Counter databaseHits;
+    private final Counter databaseMisses;
+    private final Counter falsePositives;
+
+    public IdempotencyGuard(TransactionRepository transactionRepository,
+                            PlatformTransactionManager transactionManager,
+                            BankingProperties properties,
+                            SettlementMetrics settlementMetrics,
+                            MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.settings = properties.getIdempotency();
+        this.dedupeHorizon = settings.getDedupeHorizon();
+        this.settlementMetrics = settlementMetrics;
+        this.seen = new ScalableBloomFilter(settings.getExpectedInsertions(), settings.getFalsePositiveRate(),
+                settings.getMaxSlices());
+        int cacheSize = settings.getStatusCacheSize();
+        this.recentStatuses = new LinkedHashMap<>(Math.min(cacheSize, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Transaction.TransactionStatus> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        this.bloomMisses = lookups(meterRegistry, "bloom_miss");
+        this.cacheHits = lookups(meterRegistry, "cache_hit");
+        this.databaseHits = lookups(meterRegistry, "db_hit");
+        this.databaseMisses = lookups(meterRegistry, "db_miss");
+        this.falsePositives = lookups(meterRegistry, "false_positive");
+        Gauge.builder("banking.idempotency.bloom.size", seen, ScalableBloomFilter::approximateSize)
+                .description("Approximate number of ids held by the Bloom filter")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("banking.idempotency.lookups")
+                .description("Idempotency checks by the tier that answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** Status of an already settled transaction, empty if the id is new. */
+    public Optional<Transaction.TransactionStatus> findProcessed(String externalId) {
+        long started = System.nanoTime();
+        Optional<Transaction.TransactionStatus> status = lookup(externalId);
+        settlementMetrics.record(SettlementMetrics.Stage.IDEMPOTENCY, started, status.isPresent() ? "duplicate" : "new");
+        return status;
+    }
+
+    private Optional<Transaction.TransactionStatus> lookup(String externalId) {
+        Transaction.TransactionStatus cached = cachedStatus(externalId);
+        if (cached != null) {
+            cacheHits.increment();
+            return Optional.of(cached);
+        }
+        boolean filtered = isFiltering();
+        if (filtered && !seen.mightContain(externalId)) {
+            bloomMisses.increment();
+            return Optional.empty();
+        }
+        Optional<Transaction.TransactionStatus> status = transactionRepository.findStatusSince(externalId, horizonStart());
+        if (status.isPresent()) {
+            databaseHits.increment();
+        } else if (filtered) {
+            falsePositives.increment();
+        } else {
+            databaseMisses.increment();
+        }
+        return status;
+    }
+
+    /** The subset of the given ids that are already settled; at most one query for the uncertain ones. */
+    public List<String> findProcessed(Collection<String> externalIds) {
+        long started = System.nanoTime();
+        List<String> processed = new ArrayList<>();
+        List<String> uncertain = new ArrayList<>();
+        boolean filtered = isFiltering();
+        for (String externalId : externalIds) {
+            if (cachedStatus(externalId) != null) {
+                cacheHits.increment();
+                processed.add(externalId);
+            } else if (filtered && !seen.mightContain(externalId)) {
+                bloomMisses.increment();
+            } else {
+                uncertain.add(externalId);
+            }
+        }
+        if (!uncertain.isEmpty()) {
+            List<String> existing = transactionRepository.findExistingExternalIds(uncertain, horizonStart());
+            databaseHits.increment(existing.size());
+            (filtered ? falsePositives : databaseMisses).increment(uncertain.size() - existing.size());
+            processed.addAll(existing);
+        }
+        settlementMetrics.record(SettlementMetrics.Stage.IDEMPOTENCY, started, processed.isEmpty() ? "new" : "duplicate");
+        return processed;
+    }
+
+    /**
+     * Whether a "not processed" answer is exact, i.e. the filter covers the whole table and has
+     * not forgotten anything. Callers without a unique-index backstop must check this.
+     */
+    public boolean isExhaustive() {
+        return isFiltering() && !seen.hasDroppedSlices();
+    }
+
+    /**
+     * Oldest creation time an idempotency check looks at: now minus the dedupe horizon, or the
+     * beginning of time without one.
+     */
+    public LocalDateTime horizonStart() {
+        return dedupeHorizon == null ? BEGINNING_OF_TIME : LocalDateTime.now().minus(dedupeHorizon);
+    }
+
+    /** Records the transactions once the surrounding database transaction has committed. */
+    public void recordAfterCommit(Collection<Transaction> transactions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(transactions);
+            return;
+        }
+        List<Transaction> committed = List.copyOf(transactions);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(committed);
+            }
+        });
+    }
+
+    /** Records transactions that are known to be committed. */
+    public void record(Collection<Transaction> transactions) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Map<String, Transaction.TransactionStatus> statuses = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            seen.add(transaction.getExternalId());
+            statuses.put(transaction.getExternalId(), transaction.getStatus());
+        }
+        synchronized (recentStatuses) {
+            recentStatuses.putAll(statuses);
+        }
+    }
+
+    /**
+     * Forces the next checks of these ids to the database, e.g. after the unique index rejected
+     * one of them.
+     */
+    public void markSeen(Collection<String> externalIds) {
+        externalIds.forEach(seen::add);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void rebuildInBackground() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Thread.ofVirtual().name("idempotency-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Idempotency filter rebuild failed, all checks keep going to the database", e);
+            }
+        });
+    }
+
+    /** Loads every id within the horizon into the filter and the newest statuses into the cache. */
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime since = horizonStart();
+        long count = readOnlyTransaction.execute(status -> {
+            long[] loaded = new long[1];
+            try (Stream<String> ids = transactionRepository.streamExternalIds(since)) {
+                ids.forEach(id -> {
+                    seen.add(id);
+                    loaded[0]++;
+                });
+            }
+            return loaded[0];
+        });
+        // Warm the status cache with the newest rows, the likeliest to be redelivered
+        List<TransactionRepository.ExternalIdStatus> recent = transactionRepository.findRecentStatuses(
+                PageRequest.of(0, settings.getStatusCacheSize()));
+        synchronized (recentStatuses) {
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                recentStatuses.putIfAbsent(recent.get(i).getExternalId(), recent.get(i).getStatus());
+            }
+        }
+        ready = true;
+        log.info("Idempotency filter rebuilt from {} transactions in {} ms",
+                count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private boolean isFiltering() {
+        return ready && settings.isEnabled();
+    }
+
+    private Transaction.TransactionStatus cachedStatus(String externalId) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        synchronized (recentStatuses) {
+            return recentStatuses.get(externalId);
+        }
+    }
+}
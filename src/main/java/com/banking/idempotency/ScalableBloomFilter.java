@@ -0,0 +1,152 @@
+package com.banking.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter (Almeida et al.) over strings: when the current slice reaches its
+ * capacity a new slice with twice the capacity and half the false-positive rate is added, so the
+ * overall rate stays below {@code falsePositiveRate} however many keys arrive.
+ * Once {@code maxSlices} is exceeded the oldest slice is dropped, i.e. the filter only remembers
+ * recent keys and may answer "definitely not seen" for very old ones.
+ * <p>
+ * Adds and lookups are lock-free; growing the slice list is synchronized.
+ */
+public class ScalableBloomFilter {
+
+    private final int maxSlices;
+    private volatile Slice[] slices;
+    private volatile boolean dropped;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate, int maxSlices) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        this.maxSlices = Math.max(1, maxSlices);
+        this.slices = new Slice[]{new Slice(Math.max(1024, initialCapacity), falsePositiveRate / 2)};
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+        for (Slice slice : slices) {
+            if (slice.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(String key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+        Slice[] current = slices;
+        Slice active = current[current.length - 1];
+        if (active.isFull()) {
+            active = grow(active);
+        }
+        active.add(h1, h2);
+    }
+
+    /** Approximate number of keys added to the slices still held. */
+    public long approximateSize() {
+        long size = 0;
+        for (Slice slice : slices) {
+            size += slice.count.get();
+        }
+        return size;
+    }
+
+    public int sliceCount() {
+        return slices.length;
+    }
+
+    /** Whether a slice has been dropped, i.e. a negative answer may concern a forgotten key. */
+    public boolean hasDroppedSlices() {
+        return dropped;
+    }
+
+    private synchronized Slice grow(Slice full) {
+        Slice[] current = slices;
+        Slice active = current[current.length - 1];
+        if (active != full) {
+            return active;
+        }
+        // Each slice doubles the capacity and halves the error: p/2 + p/4 + ... stays below p
+        Slice next = new Slice(full.capacity * 2, full.falsePositiveRate / 2);
+        Slice[] grown;
+        if (current.length < maxSlices) {
+            grown = Arrays.copyOf(current, current.length + 1);
+        } else {
+            grown = Arrays.copyOfRange(current, 1, current.length + 1);
+            dropped = true;
+        }
+        grown[grown.length - 1] = next;
+        slices = grown;
+        return next;
+    }
+
+    /** 64-bit FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer. */
+    private static long hash(String key, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLong count = new AtomicLong();
+
+        Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = (long) wordCount * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        }
+
+        boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        void add(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
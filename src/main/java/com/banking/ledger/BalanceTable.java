@@ -0,0 +1,121 @@
+package com.banking.ledger;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Open-addressing table of account balances held as {@code long} minor units.
+ * Every account gets a stable slot; amounts, scales and dirty flags live in parallel primitive
+ * arrays so a transfer never allocates. Not thread safe, the owning {@link LedgerEngine}
+ * serializes access.
+ */
+final class BalanceTable {
+
+    private String[] keys;
+    private long[] amounts;
+    private byte[] scales;
+    private boolean[] dirty;
+    private int size;
+
+    BalanceTable(int expectedAccounts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedAccounts * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /** Slot of the account, or {@code -1} if it is not loaded. */
+    int slot(String accountId) {
+        int mask = keys.length - 1;
+        for (int i = hash(accountId) & mask; ; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return -1;
+            }
+            if (key.equals(accountId)) {
+                return i;
+            }
+        }
+    }
+
+    int put(String accountId, long amount, int scale) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = insert(accountId);
+        amounts[slot] = amount;
+        scales[slot] = (byte) scale;
+        return slot;
+    }
+
+    long amount(int slot) {
+        return amounts[slot];
+    }
+
+    int scale(int slot) {
+        return scales[slot];
+    }
+
+    void add(int slot, long delta) {
+        amounts[slot] = Math.addExact(amounts[slot], delta);
+        dirty[slot] = true;
+    }
+
+    void markDirty(int slot) {
+        dirty[slot] = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Hands every dirty slot to the consumer and clears its flag. */
+    void drainDirty(ObjIntConsumer<String> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (dirty[i]) {
+                dirty[i] = false;
+                consumer.accept(keys[i], i);
+            }
+        }
+    }
+
+    private int insert(String accountId) {
+        int mask = keys.length - 1;
+        for (int i = hash(accountId) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == null) {
+                keys[i] = accountId;
+                size++;
+                return i;
+            }
+            if (keys[i].equals(accountId)) {
+                return i;
+            }
+        }
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        long[] oldAmounts = amounts;
+        byte[] oldScales = scales;
+        boolean[] oldDirty = dirty;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = insert(oldKeys[i]);
+                amounts[slot] = oldAmounts[i];
+                scales[slot] = oldScales[i];
+                dirty[slot] = oldDirty[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        amounts = new long[capacity];
+        scales = new byte[capacity];
+        dirty = new boolean[capacity];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,27 @@
+package com.banking.ledger;
+
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One applied settlement as written to the {@link LedgerJournal}.
+ * The amount is kept in minor units of the given scale. The credit fields are only set for a
+ * completed transfer between accounts in different currencies.
+ */
+record JournalEntry(long sequence,
+                    String externalId,
+                    String fromAccountId,
+                    String toAccountId,
+                    long amountMinor,
+                    int scale,
+                    String currency,
+                    Transaction.TransactionStatus status,
+                    String failureReason,
+                    LocalDateTime createdAt,
+                    Money creditedAmount,
+                    String creditedCurrency,
+                    BigDecimal fxRate) {
+}
@@ -0,0 +1,344 @@
+package com.banking.ledger;
+
+import com.banking.cache.ReadCache;
+import com.banking.config.BankingProperties;
+import com.banking.domain.Balance;
+import com.banking.domain.LedgerCheckpoint;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.exception.PaymentRejectedException;
+import com.banking.fx.Conversion;
+import com.banking.fx.CurrencyExchange;
+import com.banking.idempotency.IdempotencyGuard;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.LedgerCheckpointRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.HotAccounts;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory, write-behind owner of all balances ({@code banking.ledger.mode=in-memory}).
+ * Transfers are validated and applied against a {@link BalanceTable} of long minor units and
+ * appended to a durable {@link LedgerJournal} before they are acknowledged; balances and
+ * transaction rows reach the database in periodic snapshots together with a
+ * {@link LedgerCheckpoint}. On startup the last snapshot is loaded and the journal tail replayed.
+ * <p>
+ * The engine assumes it is the only writer of the {@code balances} table. Sub-balances of hot
+ * accounts left by the other modes are folded into their balances before they are loaded.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "banking.ledger.mode", havingValue = "in-memory")
+public class LedgerEngine {
+
+    static final String CHECKPOINT_ID = "ledger";
+
+    private final BalanceRepository balanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final IdempotencyGuard idempotencyGuard;
+    private final ReadCache readCache;
+    private final CurrencyExchange currencyExchange;
+    private final HotAccounts hotAccounts;
+    private final BankingProperties.Ledger settings;
+
+    private final BalanceTable balances = new BalanceTable(1024);
+    private final Set<String> unflushedIds = new HashSet<>();
+    private List<JournalEntry> pending = new ArrayList<>();
+    private LedgerJournal journal;
+    private long sequence;
+    private volatile long flushEpoch;
+
+    public LedgerEngine(BalanceRepository balanceRepository,
+                        TransactionRepository transactionRepository,
+                        LedgerCheckpointRepository checkpointRepository,
+                        TransactionTemplate transactionTemplate,
+                        EntityManager entityManager,
+                        IdempotencyGuard idempotencyGuard,
+                        ReadCache readCache,
+                        CurrencyExchange currencyExchange,
+                        HotAccounts hotAccounts,
+                        BankingProperties properties) {
+        this.balanceRepository = balanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.idempotencyGuard = idempotencyGuard;
+        this.readCache = readCache;
+        this.currencyExchange = currencyExchange;
+        this.hotAccounts = hotAccounts;
+        this.settings = properties.getLedger();
+    }
+
+    @PostConstruct
+    synchronized void recover() {
+        hotAccounts.prepareShards();
+        for (Balance balance : balanceRepository.findAll()) {
+            load(balance);
+        }
+        long checkpoint = checkpointRepository.findById(CHECKPOINT_ID)
+                .map(LedgerCheckpoint::getJournalSequence)
+                .orElse(0L);
+
+        journal = new LedgerJournal(settings.getJournalDirectory(), settings.isFsync());
+        sequence = journal.replay(checkpoint, entry -> {
+            if (entry.status() == Transaction.TransactionStatus.COMPLETED) {
+                apply(entry);
+            }
+            pending.add(entry);
+            unflushedIds.add(entry.externalId());
+        });
+        log.info("Ledger recovered {} balances from snapshot {} and replayed {} journal entries up to {}",
+                balances.size(), checkpoint, pending.size(), sequence);
+    }
+
+    /**
+     * Settles the events in order. Duplicates (already in the database or still waiting for the
+     * next snapshot) are skipped; business rejections are journaled as FAILED.
+     *
+     * @return the transactions applied by this call, duplicates excluded
+     */
+    public List<Transaction> settle(List<PaymentEvent> events) {
+        List<String> externalIds = events.stream().map(PaymentEvent::getTransactionId).toList();
+        long epoch = flushEpoch;
+        Set<String> existing = findProcessed(externalIds);
+
+        synchronized (this) {
+            if (epoch != flushEpoch) {
+                // A snapshot was committed (and its ids forgotten) since the lookup above
+                existing = findProcessed(externalIds);
+            }
+            List<Transaction> settled = new ArrayList<>(events.size());
+            for (PaymentEvent event : events) {
+                if (existing.contains(event.getTransactionId()) || unflushedIds.contains(event.getTransactionId())) {
+                    log.info("Transaction {} already processed. Skipping.", event.getTransactionId());
+                    continue;
+                }
+                JournalEntry entry = settle(event);
+                unflushedIds.add(entry.externalId());
+                settled.add(toTransaction(entry));
+            }
+            return settled;
+        }
+    }
+
+    /**
+     * Nothing stops a duplicate from reaching the balances here, so the guard is only trusted
+     * when its negative answers are exact.
+     */
+    private Set<String> findProcessed(List<String> externalIds) {
+        if (idempotencyGuard.isExhaustive()) {
+            return new HashSet<>(idempotencyGuard.findProcessed(externalIds));
+        }
+        return new HashSet<>(transactionRepository.findExistingExternalIds(externalIds, idempotencyGuard.horizonStart()));
+    }
+
+    private JournalEntry settle(PaymentEvent event) {
+        int fromSlot = slot(event.getFromAccountId());
+        int toSlot = slot(event.getToAccountId());
+        // Loading the target may have grown the table and moved the source
+        fromSlot = fromSlot < 0 ? -1 : balances.slot(event.getFromAccountId());
+
+        // Rejected entries keep the amount as sent, applied ones use the scale of the source account
+        int scale = event.getAmount().scale();
+        long amountMinor = event.getAmount().minorUnits();
+        String failureReason = null;
+        Conversion conversion = null;
+        if (fromSlot < 0) {
+            failureReason = "Source account not found: " + event.getFromAccountId();
+        } else if (toSlot < 0) {
+            failureReason = "Target account not found: " + event.getToAccountId();
+        } else {
+            try {
+                Money debit = event.getAmount().withScale(balances.scale(fromSlot));
+                int creditScale = balances.scale(toSlot);
+                conversion = currencyExchange.credit(event, debit, () -> creditScale);
+                // The credit side has to be representable exactly as well
+                (conversion.converted() ? conversion.amount() : event.getAmount()).withScale(balances.scale(toSlot));
+                amountMinor = debit.minorUnits();
+                scale = debit.scale();
+                if (balances.amount(fromSlot) < amountMinor) {
+                    failureReason = "Insufficient funds in account: " + event.getFromAccountId();
+                }
+            } catch (ArithmeticException e) {
+                failureReason = "Invalid amount " + event.getAmount() + " for account: " + event.getFromAccountId();
+            } catch (PaymentRejectedException e) {
+                failureReason = e.getMessage();
+            }
+        }
+        boolean converted = failureReason == null && conversion.converted();
+
+        JournalEntry entry = new JournalEntry(
+                sequence + 1,
+                event.getTransactionId(),
+                event.getFromAccountId(),
+                event.getToAccountId(),
+                amountMinor,
+                scale,
+                event.getCurrency(),
+                failureReason == null ? Transaction.TransactionStatus.COMPLETED : Transaction.TransactionStatus.FAILED,
+                failureReason,
+                LocalDateTime.now(),
+                converted ? conversion.amount() : null,
+                converted ? conversion.currency() : null,
+                converted ? conversion.rate() : null);
+        // Write-ahead: the entry is durable before the balances move
+        journal.append(entry);
+        sequence = entry.sequence();
+        if (failureReason == null) {
+            apply(entry);
+        } else {
+            log.error("Payment processing failed for {}: {}", event.getTransactionId(), failureReason);
+        }
+        pending.add(entry);
+        return entry;
+    }
+
+    /**
+     * Writes the balances changed since the last snapshot and the pending transaction rows to the
+     * database, then advances the checkpoint and drops the journal segments it covers.
+     */
+    // @Scheduled only understands milliseconds and ISO-8601, the property uses Boot's duration format
+    @Scheduled(fixedDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.ledger.flush-interval:1s}').toMillis()}")
+    public void flush() {
+        List<JournalEntry> batch;
+        Map<String, Money> snapshot = new HashMap<>();
+        long upTo;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            balances.drainDirty((accountId, slot) ->
+                    snapshot.put(accountId, Money.ofMinor(balances.amount(slot), balances.scale(slot))));
+            upTo = sequence;
+            journal.roll();
+        }
+
+        List<Balance> written;
+        try {
+            written = transactionTemplate.execute(status -> write(batch, snapshot, upTo));
+        } catch (RuntimeException e) {
+            log.error("Ledger snapshot up to {} failed, keeping {} entries for the next attempt: {}",
+                    upTo, batch.size(), e.getMessage());
+            synchronized (this) {
+                batch.addAll(pending);
+                pending = batch;
+                for (String accountId : snapshot.keySet()) {
+                    balances.markDirty(balances.slot(accountId));
+                }
+            }
+            return;
+        }
+
+        List<Transaction> transactions = batch.stream().map(LedgerEngine::toTransaction).toList();
+        idempotencyGuard.record(transactions);
+        readCache.record(written, transactions);
+        synchronized (this) {
+            for (JournalEntry entry : batch) {
+                unflushedIds.remove(entry.externalId());
+            }
+            flushEpoch++;
+            journal.deleteClosedSegments(upTo);
+        }
+        log.debug("Ledger snapshot up to {} written: {} balances, {} transactions", upTo, snapshot.size(), batch.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        synchronized (this) {
+            journal.close();
+        }
+    }
+
+    /** @return the balances written, with their new versions */
+    private List<Balance> write(List<JournalEntry> batch, Map<String, Money> snapshot, long upTo) {
+        List<Balance> written = balanceRepository.findAllById(snapshot.keySet());
+        for (Balance balance : written) {
+            balance.setAmount(snapshot.get(balance.getAccountId()));
+        }
+        entityManager.flush();
+
+        int chunkSize = settings.getFlushBatchSize();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<JournalEntry> chunk = batch.subList(from, Math.min(batch.size(), from + chunkSize));
+            transactionRepository.saveAll(chunk.stream().map(LedgerEngine::toTransaction).toList());
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        checkpointRepository.save(LedgerCheckpoint.builder()
+                .id(CHECKPOINT_ID)
+                .journalSequence(upTo)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        return written;
+    }
+
+    private void apply(JournalEntry entry) {
+        slot(entry.fromAccountId());
+        int toSlot = slot(entry.toAccountId());
+        int fromSlot = balances.slot(entry.fromAccountId());
+        balances.add(fromSlot, -entry.amountMinor());
+        Money credit = entry.creditedAmount() != null
+                ? entry.creditedAmount()
+                : Money.ofMinor(entry.amountMinor(), entry.scale());
+        balances.add(toSlot, rescale(credit.minorUnits(), credit.scale(), balances.scale(toSlot)));
+    }
+
+    /** Slot of the account, loading its balance on first use; {@code -1} if the account does not exist. */
+    private int slot(String accountId) {
+        int slot = balances.slot(accountId);
+        if (slot >= 0) {
+            return slot;
+        }
+        return balanceRepository.findById(accountId).map(this::load).orElse(-1);
+    }
+
+    private int load(Balance balance) {
+        Money amount = balance.getAmount();
+        return balances.put(balance.getAccountId(), amount.minorUnits(), amount.scale());
+    }
+
+    private static long rescale(long minor, int fromScale, int toScale) {
+        return Money.ofMinor(minor, fromScale).withScale(toScale).minorUnits();
+    }
+
+    private static Transaction toTransaction(JournalEntry entry) {
+        return Transaction.builder()
+                .externalId(entry.externalId())
+                .fromAccountId(entry.fromAccountId())
+                .toAccountId(entry.toAccountId())
+                .amount(Money.ofMinor(entry.amountMinor(), entry.scale()))
+                .currency(entry.currency())
+                .status(entry.status())
+                .failureReason(entry.failureReason())
+                .fxRate(entry.fxRate())
+                .creditedAmount(entry.creditedAmount())
+                .creditedCurrency(entry.creditedCurrency())
+                .createdAt(entry.createdAt())
+                .processedAt(entry.createdAt())
+                .build();
+    }
+}
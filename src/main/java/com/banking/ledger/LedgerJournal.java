@@ -0,0 +1,241 @@
+package com.banking.ledger;
+
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of applied settlements, split into segment files named after the first
+ * sequence they contain. Every entry is framed as {@code [length][crc32][payload]}; a torn or
+ * corrupt tail left by a crash is detected on replay and truncated. Fields added later are
+ * appended to the payload, so entries written before they existed still decode.
+ * Not thread safe, the owning {@link LedgerEngine} serializes access.
+ */
+@Slf4j
+class LedgerJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final CRC32 crc = new CRC32();
+    private FileChannel segment;
+    private Path activePath;
+
+    LedgerJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create ledger journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Replays every entry with a sequence above {@code afterSequence} in order.
+     *
+     * @return the highest sequence found in the journal, or {@code afterSequence} if there is none
+     */
+    long replay(long afterSequence, Consumer<JournalEntry> consumer) {
+        long last = afterSequence;
+        for (Path path : segments()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                long position = 0;
+                while (true) {
+                    header.clear();
+                    if (channel.read(header, position) < HEADER_BYTES) {
+                        break;
+                    }
+                    header.flip();
+                    int length = header.getInt();
+                    int checksum = header.getInt();
+                    ByteBuffer payload = ByteBuffer.allocate(Math.max(0, length));
+                    if (length <= 0 || channel.read(payload, position + HEADER_BYTES) < length || checksum(payload.array()) != checksum) {
+                        break;
+                    }
+                    JournalEntry entry = decode(payload.array());
+                    if (entry.sequence() > afterSequence) {
+                        consumer.accept(entry);
+                    }
+                    last = Math.max(last, entry.sequence());
+                    position += HEADER_BYTES + length;
+                }
+                if (position < channel.size()) {
+                    log.warn("Truncating torn ledger journal tail in {} at byte {}", path.getFileName(), position);
+                    channel.truncate(position);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot replay ledger journal segment " + path, e);
+            }
+        }
+        return last;
+    }
+
+    void append(JournalEntry entry) {
+        if (segment == null) {
+            roll(entry.sequence());
+        }
+        byte[] payload = encode(entry);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        try {
+            while (frame.hasRemaining()) {
+                segment.write(frame);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to ledger journal", e);
+        }
+    }
+
+    /** Closes the active segment; the next append opens a new one starting at its sequence. */
+    void roll() {
+        closeSegment();
+    }
+
+    /** Deletes every closed segment; their entries are covered by a durable snapshot. */
+    void deleteClosedSegments(long upToSequence) {
+        for (Path path : segments()) {
+            if (firstSequence(path) <= upToSequence && !path.equals(activePath)) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Cannot delete ledger journal segment {}: {}", path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closeSegment();
+    }
+
+    private void roll(long firstSequence) {
+        activePath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try {
+            segment = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger journal segment " + activePath, e);
+        }
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.force(true);
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Cannot close ledger journal segment {}: {}", activePath, e.getMessage());
+            }
+            segment = null;
+            activePath = null;
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .toList());
+            segments.sort(null);
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list ledger journal directory " + directory, e);
+        }
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private int checksum(byte[] payload) {
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private byte[] encode(JournalEntry entry) {
+        buffer.reset();
+        try {
+            out.writeLong(entry.sequence());
+            out.writeUTF(entry.externalId());
+            out.writeUTF(entry.fromAccountId());
+            out.writeUTF(entry.toAccountId());
+            out.writeLong(entry.amountMinor());
+            out.writeByte(entry.scale());
+            out.writeUTF(entry.currency());
+            out.writeByte(entry.status().ordinal());
+            out.writeBoolean(entry.failureReason() != null);
+            if (entry.failureReason() != null) {
+                out.writeUTF(entry.failureReason());
+            }
+            out.writeLong(entry.createdAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(entry.createdAt().getNano());
+            out.writeBoolean(entry.fxRate() != null);
+            if (entry.fxRate() != null) {
+                out.writeLong(entry.creditedAmount().minorUnits());
+                out.writeByte(entry.creditedAmount().scale());
+                out.writeUTF(entry.creditedCurrency());
+                out.writeUTF(entry.fxRate().toPlainString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static JournalEntry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        String externalId = in.readUTF();
+        String from = in.readUTF();
+        String to = in.readUTF();
+        long amountMinor = in.readLong();
+        int scale = in.readByte();
+        String currency = in.readUTF();
+        Transaction.TransactionStatus status = Transaction.TransactionStatus.values()[in.readByte()];
+        String failureReason = in.readBoolean() ? in.readUTF() : null;
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        Money creditedAmount = null;
+        String creditedCurrency = null;
+        BigDecimal fxRate = null;
+        if (in.available() > 0 && in.readBoolean()) {
+            creditedAmount = Money.ofMinor(in.readLong(), in.readByte());
+            creditedCurrency = in.readUTF();
+            fxRate = new BigDecimal(in.readUTF());
+        }
+        return new JournalEntry(sequence, externalId, from, to, amountMinor, scale, currency, status, failureReason,
+                createdAt, creditedAmount, creditedCurrency, fxRate);
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in {@code every} calls through, for info lines on per-message hot paths whose full
+ * detail is only logged at debug.
+ */
+public final class LogSampler {
+
+    private final int every;
+    private final AtomicLong calls = new AtomicLong();
+
+    public LogSampler(int every) {
+        if (every < 1) {
+            throw new IllegalArgumentException("every must be positive");
+        }
+        this.every = every;
+    }
+
+    /** True for the first call and then for every {@code every}-th one. */
+    public boolean sample() {
+        return calls.getAndIncrement() % every == 0;
+    }
+
+    /** Calls so far, including the ones not sampled. */
+    public long count() {
+        return calls.get();
+    }
+}
@@ -0,0 +1,122 @@
+package com.banking.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.listener.RetryListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a partition is held up by a failing record: from the first failed delivery
+ * until the record (or batch) either succeeds on redelivery ({@code resumed}) or is handed to a
+ * retry or dead letter topic ({@code recovered}). Registered as retry listener on the error
+ * handlers and as record and batch interceptor on the listener containers, which report the
+ * successes.
+ * <p>
+ * {@code banking.kafka.partition.stall} records finished stalls per topic and partition,
+ * {@code banking.kafka.partition.stalled} counts the partitions stalled right now and
+ * {@code banking.kafka.partition.stall.longest} is the age of the oldest ongoing stall.
+ */
+@Component
+public class PartitionStallTracker implements RetryListener, RecordInterceptor<Object, Object>, BatchInterceptor<Object, Object> {
+
+    private final Map<TopicPartition, Long> stalledSince = new ConcurrentHashMap<>();
+    private final Meter.MeterProvider<Timer> stalls;
+
+    public PartitionStallTracker(MeterRegistry meterRegistry) {
+        this.stalls = Timer.builder("banking.kafka.partition.stall")
+                .description("Time a partition was blocked by a failing record")
+                .withRegistry(meterRegistry);
+        Gauge.builder("banking.kafka.partition.stalled", stalledSince, Map::size)
+                .description("Partitions currently blocked by a failing record")
+                .register(meterRegistry);
+        Gauge.builder("banking.kafka.partition.stall.longest", this, PartitionStallTracker::longestStallSeconds)
+                .description("Age of the oldest ongoing partition stall")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void failedDelivery(ConsumerRecord<?, ?> record, Exception ex, int deliveryAttempt) {
+        stalledSince.putIfAbsent(partitionOf(record), System.nanoTime());
+    }
+
+    @Override
+    public void failedDelivery(ConsumerRecords<?, ?> records, Exception ex, int deliveryAttempt) {
+        long now = System.nanoTime();
+        for (TopicPartition partition : records.partitions()) {
+            stalledSince.putIfAbsent(partition, now);
+        }
+    }
+
+    @Override
+    public void recovered(ConsumerRecord<?, ?> record, Exception ex) {
+        end(partitionOf(record), "recovered");
+    }
+
+    @Override
+    public void recovered(ConsumerRecords<?, ?> records, Exception ex) {
+        for (TopicPartition partition : records.partitions()) {
+            end(partition, "recovered");
+        }
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        if (!stalledSince.isEmpty()) {
+            end(partitionOf(record), "resumed");
+        }
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        if (!stalledSince.isEmpty()) {
+            for (TopicPartition partition : records.partitions()) {
+                end(partition, "resumed");
+            }
+        }
+    }
+
+    private void end(TopicPartition partition, String outcome) {
+        Long since = stalledSince.remove(partition);
+        if (since != null) {
+            stalls.withTags(Tags.of("topic", partition.topic(), "partition", String.valueOf(partition.partition()),
+                    "outcome", outcome)).record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double longestStallSeconds() {
+        long now = System.nanoTime();
+        long longest = 0;
+        for (long since : stalledSince.values()) {
+            longest = Math.max(longest, now - since);
+        }
+        return longest / 1e9;
+    }
+
+    private static TopicPartition partitionOf(ConsumerRecord<?, ?> record) {
+        return new TopicPartition(record.topic(), record.partition());
+    }
+}
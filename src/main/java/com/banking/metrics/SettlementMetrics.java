@@ -0,0 +1,198 @@
+package com.banking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the settlement hot path, all tagged with the Kafka {@code partition} being settled
+ * and an {@code outcome}. Listeners open a {@link #partition} scope around the work they hand to
+ * the service layer, which picks the tag up from the current thread; work outside a listener is
+ * tagged {@code partition=none}.
+ */
+@Component
+public class SettlementMetrics {
+
+    public static final String NO_PARTITION = "none";
+
+    private static final ThreadLocal<String> PARTITION = ThreadLocal.withInitial(() -> NO_PARTITION);
+
+    /** Timed stages of a settlement. */
+    public enum Stage {
+        IDEMPOTENCY("banking.settlement.idempotency", "Idempotency check of the incoming transaction ids"),
+        BALANCE_LOAD("banking.settlement.balance.load", "Loading the balances of a settlement"),
+        BALANCE_SAVE("banking.settlement.balance.save", "Saving the updated balances and transaction rows"),
+        COMMIT("banking.settlement.commit", "Flush and commit of the settlement transaction");
+
+        private final String meterName;
+        private final String description;
+
+        Stage(String meterName, String description) {
+            this.meterName = meterName;
+            this.description = description;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Meter.MeterProvider<Timer>> stages = new EnumMap<>(Stage.class);
+    private final Meter.MeterProvider<Timer> endToEnd;
+    private final Meter.MeterProvider<Counter> deadLettered;
+    private final Meter.MeterProvider<DistributionSummary> batchSize;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public SettlementMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder(stage.meterName)
+                    .description(stage.description)
+                    .withRegistry(meterRegistry));
+        }
+        this.endToEnd = Timer.builder("banking.payment.lag")
+                .description("Time from PaymentEvent.timestamp until the settlement is committed")
+                .withRegistry(meterRegistry);
+        this.deadLettered = Counter.builder("banking.kafka.dlt")
+                .description("Records routed to the dead letter topic")
+                .withRegistry(meterRegistry);
+        this.batchSize = DistributionSummary.builder("banking.consumer.batch.size")
+                .description("Records handed to a batch listener per poll")
+                .baseUnit("records")
+                .withRegistry(meterRegistry);
+    }
+
+    /** Tags meters recorded on this thread with the partition until the scope is closed. */
+    public static PartitionScope partition(int partition) {
+        return partition(Integer.toString(partition));
+    }
+
+    /** Scope for a batch: the partition if all records share one, {@code mixed} otherwise. */
+    public static PartitionScope partition(List<? extends ConsumerRecord<?, ?>> records) {
+        String partition = NO_PARTITION;
+        for (ConsumerRecord<?, ?> record : records) {
+            String current = Integer.toString(record.partition());
+            if (partition.equals(NO_PARTITION)) {
+                partition = current;
+            } else if (!partition.equals(current)) {
+                partition = "mixed";
+                break;
+            }
+        }
+        return partition(partition);
+    }
+
+    private static PartitionScope partition(String partition) {
+        String previous = PARTITION.get();
+        PARTITION.set(partition);
+        return () -> PARTITION.set(previous);
+    }
+
+    public static String currentPartition() {
+        return PARTITION.get();
+    }
+
+    public void record(Stage stage, long startNanos, String outcome) {
+        stages.get(stage).withTags(tags(outcome)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times the flush and commit of the current transaction (from {@code beforeCommit} to
+     * completion) as {@link Stage#COMMIT}, tagged {@code committed} or {@code rolled_back}.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String partition = currentPartition();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (started == 0) {
+                    return;
+                }
+                String outcome = status == STATUS_COMMITTED ? "committed" : "rolled_back";
+                stages.get(Stage.COMMIT)
+                        .withTags(Tags.of("partition", partition, "outcome", outcome))
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /** Lag from the producer timestamp of the event until now, i.e. after its settlement returned. */
+    public void endToEnd(LocalDateTime eventTimestamp, String outcome) {
+        if (eventTimestamp == null) {
+            return;
+        }
+        Duration lag = Duration.between(eventTimestamp, LocalDateTime.now());
+        endToEnd.withTags(tags(outcome)).record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    public void batchSize(int records) {
+        batchSize.withTags(tags("consumed")).record(records);
+    }
+
+    public void deadLettered(ConsumerRecord<?, ?> record, Exception exception) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(exception);
+        deadLettered(record.partition(), cause.getClass().getSimpleName());
+    }
+
+    public void deadLettered(int partition, String exceptionType) {
+        deadLettered.withTags(Tags.of(
+                "partition", Integer.toString(partition),
+                "outcome", "dead_lettered",
+                "exception", exceptionType)).increment();
+    }
+
+    /** Counts a settlement as in flight on the current partition until the scope is closed. */
+    public InFlight inFlight() {
+        AtomicInteger gauge = inFlight.computeIfAbsent(currentPartition(), partition -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("banking.settlement.inflight", value, AtomicInteger::get)
+                    .description("Settlement transactions currently running")
+                    .tags("partition", partition)
+                    .register(meterRegistry);
+            return value;
+        });
+        gauge.incrementAndGet();
+        return gauge::decrementAndGet;
+    }
+
+    public static Tags tags(String outcome) {
+        return Tags.of("partition", currentPartition(), "outcome", outcome);
+    }
+
+    @FunctionalInterface
+    public interface PartitionScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    public interface InFlight extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
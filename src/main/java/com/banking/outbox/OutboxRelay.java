@@ -0,0 +1,142 @@
+package com.banking.outbox;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.OutboxEvent;
+import com.banking.repository.OutboxEventRepository;
+import com.banking.serialization.PaymentEventSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the rows of {@code payment_outbox} to Kafka. Every poll claims up to
+ * {@code banking.outbox.batch-size} of the oldest rows with {@code FOR UPDATE SKIP LOCKED}, hands
+ * them to the producer in one go (it batches and compresses per partition), waits for every
+ * acknowledgement and deletes the batch with a single statement in the same transaction. Full
+ * batches are followed by the next one right away, so a backlog drains without waiting for the
+ * poll interval.
+ * <p>
+ * Delivery is at least once: a failed send or delete rolls the whole batch back and it is
+ * published again by the next poll, the consumers drop the duplicates by transaction id. Rows are
+ * sent in insertion order, so with a single active relay the per-account ordering of direct sends
+ * is kept; relays on other instances skip the claimed rows and take the next batch.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "banking.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BankingProperties.Outbox settings;
+
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer lag;
+    private final Timer batchDuration;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       BankingProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getOutbox();
+        this.relayed = Counter.builder("banking.outbox.relayed")
+                .description("Outbox rows published and deleted")
+                .register(meterRegistry);
+        this.failures = Counter.builder("banking.outbox.relay.failures")
+                .description("Relay batches rolled back after a failed send or delete")
+                .register(meterRegistry);
+        this.lag = Timer.builder("banking.outbox.relay.lag")
+                .description("Time from enqueueing a row to its broker acknowledgement")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("banking.outbox.relay.batch")
+                .description("Claim, publish and delete of one relay batch")
+                .register(meterRegistry);
+    }
+
+    // @Scheduled only understands milliseconds and ISO-8601, the property uses Boot's duration format
+    @Scheduled(fixedDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.outbox.poll-interval:100ms}').toMillis()}")
+    public void relay() {
+        int batchSize = settings.getBatchSize();
+        Integer published;
+        do {
+            try {
+                published = transactionTemplate.execute(status -> relayBatch(batchSize));
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("outbox.relay_failed error=\"{}\"", e.getMessage());
+                return;
+            }
+        } while (published != null && published == batchSize);
+    }
+
+    private int relayBatch(int batchSize) {
+        long start = System.nanoTime();
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(new ProducerRecord<>(event.getTopic(), null, event.getMessageKey(),
+                    event.getPayload(), PaymentEventSerializer.typeHeaders(new RecordHeaders(), event.getPayload()))));
+            ids.add(event.getId());
+        }
+        // Don't wait for linger.ms, the batch is complete
+        kafkaTemplate.flush();
+        awaitAcknowledgements(sends);
+
+        outboxEventRepository.deleteByIds(ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : batch) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        relayed.increment(batch.size());
+        batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("outbox.relayed records={} firstId={} lastId={}", batch.size(), ids.get(0), ids.get(ids.size() - 1));
+        return batch.size();
+    }
+
+    private void awaitAcknowledgements(List<CompletableFuture<SendResult<String, byte[]>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(settings.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while relaying outbox batch", e);
+        } catch (ExecutionException e) {
+            throw new KafkaException("Relaying outbox batch failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new KafkaException("Outbox batch not acknowledged within " + settings.getSendTimeout(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.banking.outbox;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.OutboxEvent;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.OutboxEventRepository;
+import com.banking.serialization.PaymentEventSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Write side of the transactional outbox. Payments are stored in {@code payment_outbox} within
+ * the caller's database transaction, so they are published if and only if that transaction
+ * commits; {@link OutboxRelay} moves them to Kafka. The payload is serialized here with the
+ * producer's configured {@link PaymentEventSerializer} format and relayed as is.
+ */
+@Service
+@Slf4j
+public class PaymentOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentEventSerializer serializer = new PaymentEventSerializer();
+
+    public PaymentOutbox(OutboxEventRepository outboxEventRepository, KafkaProperties kafkaProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.serializer.configure(kafkaProperties.getProducer().getProperties(), false);
+    }
+
+    /** Joins the caller's transaction, or commits on its own when there is none. */
+    @Transactional
+    public void enqueue(PaymentEvent event) {
+        outboxEventRepository.save(toOutboxEvent(KafkaConfig.PAYMENTS_TOPIC, event));
+        log.debug("payment.enqueued transactionId={} key={}", event.getTransactionId(), event.getFromAccountId());
+    }
+
+    @Transactional
+    public void enqueueAll(Collection<PaymentEvent> events) {
+        List<OutboxEvent> rows = events.stream()
+                .map(event -> toOutboxEvent(KafkaConfig.PAYMENTS_TOPIC, event))
+                .toList();
+        outboxEventRepository.saveAll(rows);
+        log.debug("payment.enqueued records={}", rows.size());
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, PaymentEvent event) {
+        // Same key as a direct send: ordering per source account
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(event.getFromAccountId())
+                .transactionId(event.getTransactionId())
+                .payload(serializer.serialize(topic, event))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
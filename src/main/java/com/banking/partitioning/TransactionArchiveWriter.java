@@ -0,0 +1,105 @@
+package com.banking.partitioning;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a detached monthly partition to {@code <directory>/<partition>.csv.gz}: one header line,
+ * then one RFC 4180 line per row in id order, nulls as empty fields. Rows are streamed through a
+ * cursor, the file is written under a temporary name, forced to disk and renamed, so a file with
+ * the final name is always complete.
+ */
+class TransactionArchiveWriter {
+
+    static final String COLUMNS = "id,external_id,from_account_id,to_account_id,amount,currency,status,"
+            + "failure_reason,created_at,processed_at,fx_rate,credited_amount,credited_currency";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+
+    TransactionArchiveWriter(DataSource dataSource, PlatformTransactionManager transactionManager, Path directory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only streams with a cursor inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = directory;
+    }
+
+    /** Exports the table and returns the number of rows written. */
+    long export(String table) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(table + ".csv.gz");
+        Path temporary = directory.resolve(table + ".csv.gz.tmp");
+        long[] rows = {0};
+        try (OutputStream file = Files.newOutputStream(temporary);
+             Writer out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(file, 1 << 16),
+                     StandardCharsets.UTF_8), 1 << 16)) {
+            out.write(COLUMNS);
+            out.write("\r\n");
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                    "select " + COLUMNS + " from " + table + " order by id",
+                    resultSet -> {
+                        writeRow(resultSet, out);
+                        rows[0]++;
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return rows[0];
+    }
+
+    private static void writeRow(ResultSet resultSet, Writer out) throws SQLException {
+        try {
+            int columns = resultSet.getMetaData().getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    out.write(',');
+                }
+                String value = resultSet.getString(i);
+                if (value != null) {
+                    writeField(value, out);
+                }
+            }
+            out.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeField(String value, Writer out) throws IOException {
+        boolean quoted = value.isEmpty() || value.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n');
+        if (!quoted) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
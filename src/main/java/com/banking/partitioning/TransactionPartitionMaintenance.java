@@ -0,0 +1,213 @@
+package com.banking.partitioning;
+
+import com.banking.config.BankingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the range-partitioned {@code transactions} table of {@code db/partitioning/transactions.sql}
+ * lean. Every run, and once right after startup:
+ * <ol>
+ *   <li>creates the monthly partitions up to {@code banking.partitioning.premake-months} ahead, so
+ *   inserts never miss a partition;</li>
+ *   <li>archives every month that ended more than {@code banking.partitioning.retention} ago and
+ *   holds only terminal rows: the partition is detached concurrently (inserts and lookups on the
+ *   other months keep going), then either compacted with {@code VACUUM FULL} and attached to
+ *   {@code transactions_archive}, or exported to a gzipped CSV file and dropped;</li>
+ *   <li>deletes the idempotency keys older than {@code banking.idempotency.dedupe-horizon} from
+ *   {@code transaction_keys}.</li>
+ * </ol>
+ * A month still holding {@code PENDING} rows is left in place and logged. Each step only depends on
+ * the catalog, so a run interrupted between detaching and archiving is completed by the next one.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "banking.partitioning.enabled", havingValue = "true")
+public class TransactionPartitionMaintenance {
+
+    static final String PARENT = "transactions";
+    static final String ARCHIVE = "transactions_archive";
+    private static final String PARTITION_PREFIX = PARENT + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int TRIM_BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchiveWriter archiveWriter;
+    private final BankingProperties.Partitioning settings;
+    private final Duration dedupeHorizon;
+
+    private final Counter archivedRows;
+    private final Counter trimmedKeys;
+
+    public TransactionPartitionMaintenance(DataSource dataSource,
+                                           PlatformTransactionManager transactionManager,
+                                           BankingProperties properties,
+                                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.settings = properties.getPartitioning();
+        this.dedupeHorizon = properties.getIdempotency().getDedupeHorizon();
+        if (dedupeHorizon != null && dedupeHorizon.compareTo(settings.getRetention()) > 0) {
+            // Archived rows would be missed by the lookups while their keys still reject inserts
+            throw new IllegalStateException("banking.partitioning.retention (" + settings.getRetention()
+                    + ") must be at least banking.idempotency.dedupe-horizon (" + dedupeHorizon + ")");
+        }
+        this.archiveWriter = new TransactionArchiveWriter(dataSource, transactionManager, settings.getArchiveDirectory());
+        this.archivedRows = Counter.builder("banking.partitioning.archived")
+                .description("Transaction rows moved out of the hot table")
+                .tag("mode", settings.getArchive().name().toLowerCase())
+                .register(meterRegistry);
+        this.trimmedKeys = Counter.builder("banking.partitioning.keys.trimmed")
+                .description("Idempotency keys deleted after leaving the dedupe horizon")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.partitioning.maintenance-interval:1h}').toMillis()}")
+    public void maintain() {
+        if (!isPartitioned()) {
+            log.error("partition.maintenance_skipped table={} reason=not_partitioned, apply db/partitioning/transactions.sql",
+                    PARENT);
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int ahead = 0; ahead <= settings.getPremakeMonths(); ahead++) {
+            jdbcTemplate.queryForObject("select transactions_ensure_partition(?)", String.class,
+                    current.plusMonths(ahead).atDay(1));
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getRetention());
+        for (String partition : detachedPartitions()) {
+            month(partition).ifPresent(month -> archive(partition, month));
+        }
+        for (Map<String, Object> attached : attachedPartitions()) {
+            String partition = (String) attached.get("relname");
+            Optional<YearMonth> month = month(partition);
+            if (month.isEmpty() || !upperBound(month.get()).isBefore(cutoff)) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(attached.get("inhdetachpending"))) {
+                // An earlier concurrent detach was interrupted
+                jdbcTemplate.execute("alter table " + PARENT + " detach partition " + partition + " finalize");
+            } else if (!detach(partition)) {
+                continue;
+            }
+            archive(partition, month.get());
+        }
+        trimKeys();
+    }
+
+    /**
+     * The month of a partition named {@code transactions_pYYYY_MM} by {@code transactions_ensure_partition},
+     * empty for any other table.
+     */
+    static Optional<YearMonth> month(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static LocalDateTime upperBound(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass(?))",
+                Boolean.class, PARENT));
+    }
+
+    private List<Map<String, Object>> attachedPartitions() {
+        return jdbcTemplate.queryForList("""
+                select c.relname, i.inhdetachpending from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = to_regclass(?) order by c.relname""", PARENT);
+    }
+
+    /** Monthly tables attached to neither parent, i.e. left behind by an interrupted run. */
+    private List<String> detachedPartitions() {
+        return jdbcTemplate.queryForList("""
+                select relname from pg_class
+                where relname like ? and relkind = 'r' and not relispartition
+                  and relnamespace = current_schema()::regnamespace
+                order by relname""", String.class, PARTITION_PREFIX.replace("_", "\\_") + "%");
+    }
+
+    private boolean detach(String partition) {
+        Map<String, Object> counts = jdbcTemplate.queryForMap(
+                "select count(*) as total, count(*) filter (where status = 'PENDING') as pending from " + partition);
+        long pending = ((Number) counts.get("pending")).longValue();
+        if (pending > 0) {
+            log.warn("partition.archive_deferred partition={} pending={}", partition, pending);
+            return false;
+        }
+        // Without CONCURRENTLY the detach waits for, and then blocks, every query on the table
+        jdbcTemplate.execute("alter table " + PARENT + " detach partition " + partition + " concurrently");
+        log.info("partition.detached partition={} rows={}", partition, counts.get("total"));
+        return true;
+    }
+
+    private void archive(String partition, YearMonth month) {
+        long started = System.nanoTime();
+        try {
+            long rows;
+            if (settings.getArchive() == BankingProperties.ArchiveMode.FILE) {
+                rows = archiveWriter.export(partition);
+                jdbcTemplate.execute("drop table " + partition);
+            } else {
+                // Settled rows were updated once after their insert, half the pages are dead tuples
+                jdbcTemplate.execute("vacuum (full, analyze) " + partition);
+                LocalDate lower = month.atDay(1);
+                jdbcTemplate.execute("alter table " + ARCHIVE + " attach partition " + partition
+                        + " for values from ('" + lower + "') to ('" + lower.plusMonths(1) + "')");
+                rows = jdbcTemplate.queryForObject("select count(*) from " + partition, Long.class);
+            }
+            archivedRows.increment(rows);
+            log.info("partition.archived partition={} mode={} rows={} durationMs={}", partition,
+                    settings.getArchive().name().toLowerCase(), rows, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | DataAccessException e) {
+            // The partition stays detached and is picked up again by the next run
+            log.error("partition.archive_failed partition={} error={}", partition, e.getMessage(), e);
+        }
+    }
+
+    private void trimKeys() {
+        if (dedupeHorizon == null) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(dedupeHorizon);
+        long total = 0;
+        int deleted;
+        do {
+            // Short batches keep the lock footprint and WAL bursts small
+            deleted = jdbcTemplate.update("""
+                    delete from transaction_keys where ctid = any(array(
+                        select ctid from transaction_keys where created_at < ? limit ?))""", before, TRIM_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == TRIM_BATCH_SIZE);
+        trimmedKeys.increment(total);
+        if (total > 0) {
+            log.info("partition.keys_trimmed before={} keys={}", before, total);
+        }
+    }
+}
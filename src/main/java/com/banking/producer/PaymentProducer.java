@@ -1,45 +1,228 @@
 package com.banking.producer;
 
+import com.banking.config.BankingProperties;
 import com.banking.config.KafkaConfig;
 import com.banking.dto.PaymentEvent;
-import lombok.RequiredArgsConstructor;
+import com.banking.exception.ProducerSaturatedException;
+import com.banking.logging.LogSampler;
+import com.banking.outbox.PaymentOutbox;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class PaymentProducer {
 
+    static final String CORRELATION_ID_HEADER = "correlationId";
+
+    private static final LogSampler SENT_LOG = new LogSampler(1_000);
+
     private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final PaymentOutbox paymentOutbox;
+    private final boolean outboxEnabled;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    public PaymentProducer(KafkaTemplate<String, PaymentEvent> kafkaTemplate, PaymentOutbox paymentOutbox,
+                           BankingProperties properties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.paymentOutbox = paymentOutbox;
+        this.outboxEnabled = properties.getOutbox().isEnabled();
+        this.maxInFlight = properties.getProducer().getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+    }
 
+    /**
+     * Publishes a payment. With {@code banking.outbox.enabled} (the default) it is written to the
+     * outbox in the caller's transaction and published by the relay once that commits; otherwise
+     * it is sent to Kafka right away, whatever happens to the caller's transaction.
+     */
     public void sendPayment(PaymentEvent event) {
-        log.info("Producing payment event: {}", event);
-        
+        if (outboxEnabled) {
+            paymentOutbox.enqueue(event);
+            return;
+        }
+        log.debug("payment.producing transactionId={} key={}", event.getTransactionId(), event.getFromAccountId());
+
         // Use fromAccountId as key to ensure ordering per account and distribution across partitions
         Message<PaymentEvent> message = MessageBuilder
                 .withPayload(event)
                 .setHeader(KafkaHeaders.TOPIC, KafkaConfig.PAYMENTS_TOPIC)
                 .setHeader(KafkaHeaders.KEY, event.getFromAccountId())
-                .setHeader("correlationId", UUID.randomUUID().toString())
+                .setHeader(CORRELATION_ID_HEADER, UUID.randomUUID().toString())
                 .build();
 
         kafkaTemplate.send(message)
                 .whenComplete((result, ex) -> {
                     if (ex == null) {
-                        log.info("Message sent successfully to topic {} partition {} offset {}",
-                                result.getRecordMetadata().topic(),
+                        log.debug("payment.sent transactionId={} partition={} offset={}",
+                                event.getTransactionId(),
                                 result.getRecordMetadata().partition(),
                                 result.getRecordMetadata().offset());
+                        if (SENT_LOG.sample()) {
+                            log.info("payment.sent topic={} partition={} offset={} sentSinceStart={}",
+                                    result.getRecordMetadata().topic(),
+                                    result.getRecordMetadata().partition(),
+                                    result.getRecordMetadata().offset(),
+                                    SENT_LOG.count());
+                        }
                     } else {
-                        log.error("Failed to send message", ex);
+                        log.error("payment.send_failed transactionId={}", event.getTransactionId(), ex);
                     }
                 });
     }
+
+    /**
+     * Sends a payment straight to Kafka if it can be admitted: it shares the
+     * {@code banking.producer.max-in-flight} unacknowledged sends with {@link #sendPayments} and
+     * waits at most {@code maxWait} for one of them to complete. Never goes through the outbox.
+     *
+     * @return completes with the broker acknowledgement
+     * @throws ProducerSaturatedException if nothing could be admitted in time; nothing was sent
+     */
+    public CompletableFuture<SendResult<String, PaymentEvent>> trySendPayment(PaymentEvent event, Duration maxWait) {
+        if (!tryAcquire(maxWait)) {
+            throw new ProducerSaturatedException(maxInFlight);
+        }
+        ProducerRecord<String, PaymentEvent> record = new ProducerRecord<>(KafkaConfig.PAYMENTS_TOPIC, null,
+                event.getFromAccountId(), event,
+                new RecordHeaders(new Header[]{new RecordHeader(CORRELATION_ID_HEADER,
+                        UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))}));
+        try {
+            return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                inFlight.release();
+                if (ex != null) {
+                    log.error("payment.send_failed transactionId={}", event.getTransactionId(), ex);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private boolean tryAcquire(Duration maxWait) {
+        if (maxWait.isZero()) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Publishes a batch of payments under one correlation id.
+     *
+     * @see #sendPayments(Stream)
+     */
+    public CompletableFuture<BulkSendResult> sendPayments(Collection<PaymentEvent> events) {
+        return sendPayments(events.stream());
+    }
+
+    /**
+     * Publishes the payments as they are pulled from the stream, e.g. while a file is parsed.
+     * Records go straight to the producer, which batches them per partition (see the
+     * {@code spring.kafka.producer} linger, batch size and compression settings). At most
+     * {@code banking.producer.max-in-flight} sends wait for their acknowledgement at a time; beyond
+     * that this method blocks, so the stream is consumed no faster than the broker acknowledges.
+     *
+     * @return completes once every record is acknowledged or failed; failed records are reported
+     *         in the result rather than failing the future
+     */
+    public CompletableFuture<BulkSendResult> sendPayments(Stream<PaymentEvent> events) {
+        byte[] correlationId = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        BulkSend bulk = new BulkSend();
+        events.forEach(event -> {
+            inFlight.acquireUninterruptibly();
+            bulk.submitted();
+            // Headers are mutable (the json format adds the __TypeId__ header), only the value is shared
+            ProducerRecord<String, PaymentEvent> record = new ProducerRecord<>(KafkaConfig.PAYMENTS_TOPIC, null,
+                    event.getFromAccountId(), event,
+                    new RecordHeaders(new Header[]{new RecordHeader(CORRELATION_ID_HEADER, correlationId)}));
+            try {
+                kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                    inFlight.release();
+                    bulk.completed(event, ex);
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                bulk.completed(event, e);
+            }
+        });
+        log.debug("payment.bulk_submitted correlationId={} records={}",
+                new String(correlationId, StandardCharsets.UTF_8), bulk.submitted.get());
+        return bulk.seal();
+    }
+
+    /**
+     * Outcome of a bulk send.
+     *
+     * @param sent     records acknowledged by the broker
+     * @param failures failed records by transaction id
+     */
+    public record BulkSendResult(int sent, Map<String, Throwable> failures) {
+
+        public boolean isComplete() {
+            return failures.isEmpty();
+        }
+    }
+
+    private static final class BulkSend {
+        private final CompletableFuture<BulkSendResult> result = new CompletableFuture<>();
+        private final AtomicInteger submitted = new AtomicInteger();
+        private final AtomicInteger sent = new AtomicInteger();
+        private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        // One extra count held until seal(), so the result cannot complete while still submitting
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+
+        void submitted() {
+            submitted.incrementAndGet();
+            outstanding.incrementAndGet();
+        }
+
+        void completed(PaymentEvent event, Throwable failure) {
+            if (failure == null) {
+                sent.incrementAndGet();
+            } else {
+                log.error("payment.send_failed transactionId={}", event.getTransactionId(), failure);
+                failures.put(event.getTransactionId(), failure);
+            }
+            release();
+        }
+
+        CompletableFuture<BulkSendResult> seal() {
+            release();
+            return result;
+        }
+
+        private void release() {
+            if (outstanding.decrementAndGet() == 0) {
+                result.complete(new BulkSendResult(sent.get(), Map.copyOf(failures)));
+            }
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package com.banking.producer;
+
+import com.banking.config.BankingProperties;
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.dto.SettlementResult;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.repository.TransactionRepository;
+import com.banking.serialization.PaymentEventSerializer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the outcome of every settled payment to {@code payments.settled} or
+ * {@code payments.rejected} when {@code banking.exactly-once.enabled} is set.
+ * <p>
+ * Owns a transactional producer of its own; its {@link #getTransactionManager() transaction
+ * manager} is installed on the listener containers (see {@link KafkaConfig}), which then run every
+ * listener invocation in a Kafka transaction and send the consumed offsets to it. The database
+ * transaction commits inside the listener, before the Kafka transaction. If the Kafka commit then
+ * fails the records are redelivered, skipped by the idempotency check, and their results are
+ * published again from the stored transaction rows, so a {@code read_committed} consumer sees
+ * exactly one result per payment. The transaction manager is deliberately not a bean: the
+ * application's {@code transactionManager} stays the JPA one.
+ * <p>
+ * Dead-letter publishing goes through the same producer, so a recovered record and its offset
+ * commit are atomic as well.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.exactly-once.enabled", havingValue = "true")
+public class SettlementResultPublisher {
+
+    private final TransactionRepository transactionRepository;
+    private final SettlementMetrics settlementMetrics;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTransactionManager<String, Object> transactionManager;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+    private final Meter.MeterProvider<Counter> published;
+
+    public SettlementResultPublisher(TransactionRepository transactionRepository,
+                                     SettlementMetrics settlementMetrics,
+                                     KafkaProperties kafkaProperties,
+                                     ObjectProvider<SslBundles> sslBundles,
+                                     BankingProperties properties,
+                                     MeterRegistry meterRegistry) {
+        if (properties.getConsumer().getMode() == BankingProperties.ConsumerMode.PARALLEL) {
+            throw new IllegalStateException("banking.exactly-once requires the single or batch consumer mode; "
+                    + "the parallel consumer commits offsets itself");
+        }
+        if (properties.getLedger().getMode() == BankingProperties.LedgerMode.IN_MEMORY) {
+            throw new IllegalStateException("banking.exactly-once requires the jpa or native ledger mode; "
+                    + "the in-memory ledger writes transactions behind, after the offsets are committed");
+        }
+        this.transactionRepository = transactionRepository;
+        this.settlementMetrics = settlementMetrics;
+
+        BankingProperties.ExactlyOnce settings = properties.getExactlyOnce();
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable());
+        config.put(ProducerConfig.TRANSACTION_TIMEOUT_CONFIG, (int) settings.getTransactionTimeout().toMillis());
+        // Results are written as JSON bytes; dead-lettered payments keep their original format
+        PaymentEventSerializer valueSerializer = new PaymentEventSerializer();
+        valueSerializer.configure(config, false);
+        DefaultKafkaProducerFactory<String, Object> producerFactory =
+                new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
+        producerFactory.setTransactionIdPrefix(settings.getTransactionIdPrefix());
+
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        this.transactionManager = new KafkaTransactionManager<>(producerFactory);
+        this.deadLetterRecoverer = new DeadLetterPublishingRecoverer(kafkaTemplate);
+        this.published = Counter.builder("banking.settlement.results")
+                .description("Settlement result events published in exactly-once mode")
+                .withRegistry(meterRegistry);
+    }
+
+    public KafkaTemplate<String, Object> getKafkaTemplate() {
+        return kafkaTemplate;
+    }
+
+    public KafkaTransactionManager<String, Object> getTransactionManager() {
+        return transactionManager;
+    }
+
+    /** Routes a record to the dead letter topic within the current Kafka transaction. */
+    public ConsumerRecordRecoverer deadLetterRecoverer() {
+        return (record, exception) -> {
+            settlementMetrics.deadLettered(record, exception);
+            deadLetterRecoverer.accept(record, exception);
+        };
+    }
+
+    /**
+     * Publishes one result per event, in the order of the events, within the listener's Kafka
+     * transaction.
+     *
+     * @param settled the transactions written for the events; results of events missing here
+     *                (duplicates of an earlier, aborted delivery) are read from the database
+     * @throws IllegalStateException if an event has no settled transaction, which rolls the
+     *                               listener's Kafka transaction back
+     */
+    public void publish(List<PaymentEvent> events, List<Transaction> settled) {
+        Map<String, Transaction> byExternalId = new HashMap<>();
+        for (Transaction transaction : settled) {
+            byExternalId.put(transaction.getExternalId(), transaction);
+        }
+        List<String> missing = new ArrayList<>();
+        for (PaymentEvent event : events) {
+            if (!byExternalId.containsKey(event.getTransactionId())) {
+                missing.add(event.getTransactionId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Transaction transaction : transactionRepository.findByExternalIdIn(missing)) {
+                byExternalId.put(transaction.getExternalId(), transaction);
+            }
+        }
+
+        for (PaymentEvent event : events) {
+            Transaction transaction = byExternalId.get(event.getTransactionId());
+            if (transaction == null || transaction.getStatus() == Transaction.TransactionStatus.PENDING) {
+                // Committing the offsets would lose the result: roll back and redeliver instead
+                throw new IllegalStateException("No settled transaction for payment " + event.getTransactionId());
+            }
+            boolean completed = transaction.getStatus() == Transaction.TransactionStatus.COMPLETED;
+            String topic = completed ? KafkaConfig.PAYMENTS_SETTLED_TOPIC : KafkaConfig.PAYMENTS_REJECTED_TOPIC;
+            kafkaTemplate.send(new ProducerRecord<>(topic, transaction.getFromAccountId(), toJson(transaction)));
+            published.withTags(SettlementMetrics.tags(completed ? "settled" : "rejected")).increment();
+        }
+    }
+
+    private byte[] toJson(Transaction transaction) {
+        SettlementResult result = SettlementResult.builder()
+                .transactionId(transaction.getExternalId())
+                .status(transaction.getStatus().name())
+                .failureReason(transaction.getFailureReason())
+                .fromAccountId(transaction.getFromAccountId())
+                .toAccountId(transaction.getToAccountId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .processedAt(transaction.getProcessedAt())
+                .build();
+        try {
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Cannot serialize SettlementResult", e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.banking.reconciliation;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.AccountTotal;
+import com.banking.domain.Money;
+import com.banking.domain.ReconciliationCheckpoint;
+import com.banking.domain.Transaction;
+import com.banking.repository.AccountTotalRepository;
+import com.banking.repository.ReconciliationCheckpointRepository;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Checks that every balance equals its opening balance plus the COMPLETED transactions that
+ * touched it ({@code banking.reconciliation.enabled}).
+ * <p>
+ * A run first adds the transactions settled since the {@link ReconciliationCheckpoint} to the
+ * per-account {@link AccountTotal}s. It reads them through a forward-only cursor in
+ * {@code (createdAt, id)} order, {@code chunk-size} rows per database transaction, and advances the
+ * checkpoint with each chunk, so a rerun, or a run after a crash, only reads what is new. Memory
+ * is bounded by the accounts touched in one chunk, not by the size of the table.
+ * <p>
+ * It then reads all balances (a hot account's with its sub-balances), the totals and the
+ * transactions after the checkpoint in one REPEATABLE READ snapshot and flags every balance that differs from
+ * {@code opening + net + settled since}. An account without an opening balance yet (the first run,
+ * or a new account) is adopted instead: its opening balance is derived from its current balance.
+ * <p>
+ * Not available with the in-memory ledger: it writes transactions behind, and after a crash
+ * replays them from the journal with their original {@code createdAt}, which may already lie
+ * behind the checkpoint.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.reconciliation.enabled", havingValue = "true")
+@Slf4j
+public class ReconciliationEngine {
+
+    static final String CHECKPOINT_ID = "transactions";
+
+    /** Position before the first transaction; ids start at 1. */
+    private static final LocalDateTime BEGINNING_OF_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 10_000;
+    private static final int MAX_REPORTED = 100;
+
+    private final TransactionRepository transactionRepository;
+    private final AccountTotalRepository accountTotalRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate snapshotTransaction;
+    private final BankingProperties.Reconciliation settings;
+
+    private final Counter reconciledTransactions;
+    private final AtomicLong driftingAccounts = new AtomicLong();
+
+    public ReconciliationEngine(TransactionRepository transactionRepository,
+                                AccountTotalRepository accountTotalRepository,
+                                ReconciliationCheckpointRepository checkpointRepository,
+                                EntityManager entityManager,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                BankingProperties properties,
+                                MeterRegistry meterRegistry) {
+        if (properties.getLedger().getMode() == BankingProperties.LedgerMode.IN_MEMORY) {
+            throw new IllegalStateException("banking.reconciliation requires the jpa or native ledger mode; "
+                    + "the in-memory ledger can write transactions behind the checkpoint");
+        }
+        this.transactionRepository = transactionRepository;
+        this.accountTotalRepository = accountTotalRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        // Balances, totals and the transactions after the checkpoint must come from the same snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.settings = properties.getReconciliation();
+        this.reconciledTransactions = Counter.builder("banking.reconciliation.transactions")
+                .description("COMPLETED transactions added to the account totals")
+                .register(meterRegistry);
+        Gauge.builder("banking.reconciliation.drift", driftingAccounts, AtomicLong::get)
+                .description("Accounts whose balance differed from their totals in the last run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.reconciliation.interval:1h}').toMillis()}",
+            initialDelayString = "#{T(org.springframework.boot.convert.DurationStyle).detectAndParse('${banking.reconciliation.interval:1h}').toMillis()}")
+    public void reconcile() {
+        run();
+    }
+
+    public Result run() {
+        long started = System.nanoTime();
+        LocalDateTime before = LocalDateTime.now().minus(settings.getSettleWindow());
+        long transactions = 0;
+        int counted;
+        do {
+            counted = chunkTransaction.execute(status -> addChunk(before));
+            transactions += counted;
+        } while (counted == settings.getChunkSize());
+        Result result = snapshotTransaction.execute(status -> checkBalances());
+        result = new Result(transactions, result.accounts(), result.adopted(), result.drifting(), result.drifts());
+        driftingAccounts.set(result.drifting());
+        if (result.drifting() > 0) {
+            log.error("reconciliation.drift accounts={} checked={}", result.drifting(), result.accounts());
+        }
+        log.info("reconciliation.completed transactions={} accounts={} adopted={} drifting={} took_ms={}",
+                transactions, result.accounts(), result.adopted(), result.drifting(),
+                (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /** Adds the next chunk of transactions created before {@code before} to the totals. */
+    private int addChunk(LocalDateTime before) {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT_ID)
+                .orElseGet(() -> ReconciliationCheckpoint.builder()
+                        .id(CHECKPOINT_ID)
+                        .lastCreatedAt(BEGINNING_OF_TIME)
+                        .lastTransactionId(0L)
+                        .segment(0L)
+                        .build());
+        boolean statements = settings.getStatements() != BankingProperties.StatementFormat.NONE;
+        Map<String, Money> nets = new HashMap<>();
+        int count = 0;
+        try (StatementWriter statementWriter = statements ? new StatementWriter(settings.getStatementDirectory(),
+                settings.getStatements(), checkpoint.getSegment() + 1) : null;
+             Stream<Transaction> settled = transactionRepository.streamAfter(Transaction.TransactionStatus.COMPLETED,
+                     checkpoint.getLastCreatedAt(), checkpoint.getLastTransactionId(), before)) {
+            Iterator<Transaction> rows = settled.iterator();
+            Transaction last = null;
+            while (count < settings.getChunkSize() && rows.hasNext()) {
+                Transaction transaction = rows.next();
+                nets.merge(transaction.getFromAccountId(), transaction.getAmount().negate(), Money::plus);
+                nets.merge(transaction.getToAccountId(), transaction.credit(), Money::plus);
+                if (statementWriter != null) {
+                    statementWriter.append(transaction);
+                }
+                entityManager.detach(transaction);
+                last = transaction;
+                count++;
+            }
+            if (last == null) {
+                return 0;
+            }
+            addToTotals(nets);
+            checkpoint.setLastCreatedAt(last.getCreatedAt());
+            checkpoint.setLastTransactionId(last.getId());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            if (statementWriter != null) {
+                checkpoint.setSegment(checkpoint.getSegment() + 1);
+                // A failing commit below runs the chunk again, which replaces the segment
+                statementWriter.commit();
+            }
+            checkpointRepository.save(checkpoint);
+        }
+        reconciledTransactions.increment(count);
+        return count;
+    }
+
+    private void addToTotals(Map<String, Money> nets) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> accountIds = new ArrayList<>(nets.keySet());
+        for (int from = 0; from < accountIds.size(); from += WRITE_BATCH_SIZE) {
+            List<String> chunk = accountIds.subList(from, Math.min(accountIds.size(), from + WRITE_BATCH_SIZE));
+            Map<String, AccountTotal> totals = new HashMap<>();
+            for (AccountTotal total : accountTotalRepository.findAllById(chunk)) {
+                totals.put(total.getAccountId(), total);
+            }
+            for (String accountId : chunk) {
+                AccountTotal total = totals.computeIfAbsent(accountId, id -> AccountTotal.builder()
+                        .accountId(id)
+                        .net(Money.ofMinor(0, 0))
+                        .build());
+                total.setNet(total.getNet().plus(nets.get(accountId)));
+                total.setUpdatedAt(now);
+            }
+            accountTotalRepository.saveAll(totals.values());
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private Result checkBalances() {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_ID).orElse(null);
+        // Settled after the checkpoint: already in the balances, not yet in the totals
+        Map<String, Money> pending = new HashMap<>();
+        try (Stream<Transaction> settled = transactionRepository.streamAfter(Transaction.TransactionStatus.COMPLETED,
+                checkpoint == null ? BEGINNING_OF_TIME : checkpoint.getLastCreatedAt(),
+                checkpoint == null ? 0 : checkpoint.getLastTransactionId(), END_OF_TIME)) {
+            settled.forEach(transaction -> {
+                pending.merge(transaction.getFromAccountId(), transaction.getAmount().negate(), Money::plus);
+                pending.merge(transaction.getToAccountId(), transaction.credit(), Money::plus);
+                entityManager.detach(transaction);
+            });
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long[] counts = new long[3];
+        List<Drift> drifts = new ArrayList<>();
+        List<Object[]> openings = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        jdbcTemplate.query("""
+                select b.account_id,
+                       b.amount + coalesce((select sum(s.amount) from balance_shards s where s.account_id = b.account_id), 0),
+                       t.account_id, t.opening, t.net
+                from balances b left join account_totals t on t.account_id = b.account_id""", resultSet -> {
+            String accountId = resultSet.getString(1);
+            Money balance = Money.of(resultSet.getBigDecimal(2));
+            Money settledSince = pending.getOrDefault(accountId, Money.ofMinor(0, 0));
+            BigDecimal opening = resultSet.getBigDecimal(4);
+            Money net = resultSet.getString(3) == null ? Money.ofMinor(0, 0) : Money.of(resultSet.getBigDecimal(5));
+            counts[0]++;
+            if (opening == null) {
+                Money adopted = balance.minus(net).minus(settledSince);
+                if (resultSet.getString(3) == null) {
+                    inserts.add(new Object[]{accountId, adopted.toBigDecimal(), net.toBigDecimal(), now});
+                } else {
+                    openings.add(new Object[]{adopted.toBigDecimal(), now, accountId});
+                }
+                counts[1]++;
+                if (openings.size() + inserts.size() >= WRITE_BATCH_SIZE) {
+                    adopt(openings, inserts);
+                }
+                return;
+            }
+            Money expected = Money.of(opening).plus(net).plus(settledSince);
+            if (balance.compareTo(expected) != 0) {
+                counts[2]++;
+                if (drifts.size() < MAX_REPORTED) {
+                    drifts.add(new Drift(accountId, balance, expected));
+                    log.warn("reconciliation.account_drift account={} balance={} expected={} difference={}",
+                            accountId, balance, expected, balance.minus(expected));
+                }
+            }
+        });
+        adopt(openings, inserts);
+        return new Result(0, counts[0], counts[1], counts[2], drifts);
+    }
+
+    private void adopt(List<Object[]> openings, List<Object[]> inserts) {
+        jdbcTemplate.batchUpdate("update account_totals set opening = ?, updated_at = ? where account_id = ?", openings);
+        jdbcTemplate.batchUpdate("insert into account_totals (account_id, opening, net, updated_at) values (?, ?, ?, ?)",
+                inserts);
+        openings.clear();
+        inserts.clear();
+    }
+
+    /**
+     * Outcome of a run.
+     *
+     * @param transactions transactions added to the totals
+     * @param accounts     balances checked
+     * @param adopted      accounts whose opening balance was set by this run
+     * @param drifting     balances that differ from their totals
+     * @param drifts       the first {@value #MAX_REPORTED} of them
+     */
+    public record Result(long transactions, long accounts, long adopted, long drifting, List<Drift> drifts) {
+    }
+
+    public record Drift(String accountId, Money balance, Money expected) {
+    }
+}
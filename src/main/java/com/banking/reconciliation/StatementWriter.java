@@ -0,0 +1,159 @@
+package com.banking.reconciliation;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the movements of one reconciliation chunk as statement segment
+ * {@code <directory>/segment-NNNNNN/<account>.csv} (or {@code .ndjson}): one line per COMPLETED
+ * transaction touching the account, debits negative, in {@code (createdAt, id)} order, in the
+ * account's currency.
+ * Concatenating an account's files over the segments in order gives its full statement.
+ * <p>
+ * Lines are buffered per account up to {@value #BUFFER_LIMIT} characters in total, then appended
+ * to their files through {@link FileChannel}s, so memory does not grow with the chunk. The segment
+ * is written under a temporary name and renamed by {@link #commit}; a chunk that is rolled back and
+ * run again replaces it.
+ */
+class StatementWriter implements AutoCloseable {
+
+    static final String CSV_HEADER = "id,external_id,created_at,counterparty,amount,currency";
+
+    private static final int BUFFER_LIMIT = 8 << 20;
+    private static final ObjectMapper JSON = JacksonUtils.enhancedObjectMapper();
+
+    private final BankingProperties.StatementFormat format;
+    private final Path target;
+    private final Path temporary;
+    private final Map<String, StringBuilder> buffers = new HashMap<>();
+    private final Set<String> started = new HashSet<>();
+    private int buffered;
+    private boolean committed;
+
+    StatementWriter(Path directory, BankingProperties.StatementFormat format, long segment) {
+        this.format = format;
+        this.target = directory.resolve("segment-%06d".formatted(segment));
+        this.temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            FileSystemUtils.deleteRecursively(temporary);
+            Files.createDirectories(temporary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(Transaction transaction) {
+        line(transaction.getFromAccountId(), transaction, transaction.getToAccountId(), transaction.getAmount().negate(),
+                transaction.getCurrency());
+        line(transaction.getToAccountId(), transaction, transaction.getFromAccountId(), transaction.credit(),
+                transaction.creditCurrency());
+        if (buffered > BUFFER_LIMIT) {
+            flush(false);
+        }
+    }
+
+    /** Writes the remaining lines, forces them to disk and publishes the segment under its final name. */
+    void commit() {
+        flush(true);
+        try {
+            FileSystemUtils.deleteRecursively(target);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        committed = true;
+    }
+
+    @Override
+    public void close() {
+        if (!committed) {
+            try {
+                FileSystemUtils.deleteRecursively(temporary);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void line(String accountId, Transaction transaction, String counterparty, Money amount, String currency) {
+        StringBuilder buffer = buffers.computeIfAbsent(accountId, id -> new StringBuilder(256));
+        int before = buffer.length();
+        if (format == BankingProperties.StatementFormat.CSV) {
+            if (started.add(accountId)) {
+                buffer.append(CSV_HEADER).append("\r\n");
+            }
+            buffer.append(transaction.getId()).append(',');
+            field(transaction.getExternalId(), buffer);
+            buffer.append(',').append(transaction.getCreatedAt()).append(',');
+            field(counterparty, buffer);
+            buffer.append(',');
+            amount.appendTo(buffer);
+            buffer.append(',');
+            field(currency, buffer);
+            buffer.append("\r\n");
+        } else {
+            try {
+                buffer.append(JSON.writeValueAsString(new Line(transaction.getId(), transaction.getExternalId(),
+                        transaction.getCreatedAt(), counterparty, amount, currency))).append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        buffered += buffer.length() - before;
+    }
+
+    private void flush(boolean force) {
+        String extension = format == BankingProperties.StatementFormat.CSV ? ".csv" : ".ndjson";
+        for (Map.Entry<String, StringBuilder> entry : buffers.entrySet()) {
+            Path file = temporary.resolve(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + extension);
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(entry.getValue().toString());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (force) {
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffers.clear();
+        buffered = 0;
+    }
+
+    private static void field(String value, StringBuilder out) {
+        boolean quoted = value.isEmpty() || value.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n');
+        if (!quoted) {
+            out.append(value);
+            return;
+        }
+        out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    record Line(long id, String externalId, LocalDateTime createdAt, String counterparty, Money amount,
+                String currency) {
+    }
+}
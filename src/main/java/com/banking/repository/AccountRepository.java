@@ -2,8 +2,22 @@ package com.banking.repository;
 
 import com.banking.domain.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, String> {
+
+    @Query("select a.id as id, a.currency as currency from Account a where a.id in :ids")
+    List<AccountCurrency> findCurrencies(@Param("ids") Collection<String> ids);
+
+    interface AccountCurrency {
+        String getId();
+
+        String getCurrency();
+    }
 }
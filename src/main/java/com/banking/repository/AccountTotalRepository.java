@@ -0,0 +1,9 @@
+package com.banking.repository;
+
+import com.banking.domain.AccountTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountTotalRepository extends JpaRepository<AccountTotal, String> {
+}
@@ -2,8 +2,128 @@ package com.banking.repository;
 
 import com.banking.domain.Balance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @Repository
 public interface BalanceRepository extends JpaRepository<Balance, String> {
+
+    /** Decimals the account's balance holds (PostgreSQL); a converted credit is rounded to them. */
+    @Query(nativeQuery = true, value = "select scale(amount) from balances where account_id = :accountId")
+    Optional<Integer> findScale(@Param("accountId") String accountId);
+
+    /**
+     * Settles a transfer in one statement and round trip (PostgreSQL, {@code banking.ledger.mode=native}):
+     * locks both balances in account order, checks them like {@code BankingService.processPayment}
+     * does, debits the source under an {@code amount >= :amount} guard, credits the target and inserts
+     * the COMPLETED or FAILED transaction row. Balances keep their JPA version counter.
+     * <p>
+     * The row locks are taken in a fixed order, so opposite transfers between two accounts wait for
+     * each other instead of deadlocking, and a concurrent debit is re-checked against the committed
+     * amount instead of failing an optimistic lock. A self-transfer changes no balance.
+     * The id comes straight from {@code transactions_seq}, which spends a pooled block per row.
+     * <p>
+     * The target is credited {@code :creditAmount}, the amount converted by the caller when the
+     * accounts are in different currencies ({@code :fxRate} and {@code :creditedCurrency} are null
+     * otherwise). A {@code :rejection} found by the caller's currency checks fails the transfer
+     * once both accounts are known to exist.
+     * <p>
+     * With a {@code :toShard}, the target is a hot account: its balance row is read without a lock
+     * and the credit goes to that {@code balance_shards} row instead, or to the balance row if the
+     * shard does not exist. Debits from a hot account are prepared by
+     * {@link BalanceShardRepository#sweep} in the same transaction.
+     */
+    @Query(nativeQuery = true, value = """
+            with locked as (
+                select account_id, amount from balances
+                where account_id = :fromAccountId or (account_id = :toAccountId and cast(:toShard as integer) is null)
+                order by account_id
+                for update
+            ), known as (
+                select account_id, amount from locked
+                union all
+                select account_id, amount from balances
+                where account_id = :toAccountId and account_id <> :fromAccountId and cast(:toShard as integer) is not null
+            ), verdict as (
+                select case
+                    when not exists (select 1 from known where account_id = :fromAccountId)
+                        then 'Source account not found: ' || :fromAccountId
+                    when not exists (select 1 from known where account_id = :toAccountId)
+                        then 'Target account not found: ' || :toAccountId
+                    when cast(:rejection as varchar) is not null
+                        then cast(:rejection as varchar)
+                    when round(:amount, (select scale(amount) from known where account_id = :fromAccountId)) <> :amount
+                        then 'Invalid amount ' || :amountText || ' for account: ' || :fromAccountId
+                    when round(:creditAmount, (select scale(amount) from known where account_id = :toAccountId)) <> :creditAmount
+                        then 'Invalid amount ' || :creditText || ' for account: ' || :toAccountId
+                    when (select amount from known where account_id = :fromAccountId) < :amount
+                        then 'Insufficient funds in account: ' || :fromAccountId
+                end as failure_reason
+            ), debit as (
+                update balances set amount = amount - :amount, version = version + 1
+                where account_id = :fromAccountId and amount >= :amount and :fromAccountId <> :toAccountId
+                  and (select failure_reason from verdict) is null
+                returning amount, version
+            ), credit as (
+                update balances set amount = amount + :creditAmount, version = version + 1
+                where account_id = :toAccountId and exists (select 1 from debit)
+                  and (cast(:toShard as integer) is null or not exists (
+                      select 1 from balance_shards where account_id = :toAccountId and shard = cast(:toShard as integer)))
+                returning amount, version
+            ), shard_credit as (
+                update balance_shards set amount = amount + :creditAmount, version = version + 1
+                where account_id = :toAccountId and shard = cast(:toShard as integer)
+                  and exists (select 1 from debit)
+                returning amount
+            ), settled as (
+                insert into transactions (id, external_id, from_account_id, to_account_id, amount, currency, status,
+                                          failure_reason, fx_rate, credited_amount, credited_currency, created_at,
+                                          processed_at)
+                select nextval('transactions_seq'), :externalId, :fromAccountId, :toAccountId, :amount, :currency,
+                       case when failure_reason is null then 'COMPLETED' else 'FAILED' end, failure_reason,
+                       case when failure_reason is null then cast(:fxRate as numeric) end,
+                       case when failure_reason is null and cast(:fxRate as numeric) is not null then :creditAmount end,
+                       case when failure_reason is null then cast(:creditedCurrency as varchar) end,
+                       :now, :now
+                from verdict
+                returning id, status, failure_reason
+            )
+            select s.id as id, s.status as status, s.failure_reason as failureReason,
+                   d.amount as fromAmount, d.version as fromVersion, c.amount as toAmount, c.version as toVersion
+            from settled s left join debit d on true left join credit c on true""")
+    TransferOutcome transfer(@Param("externalId") String externalId,
+                             @Param("fromAccountId") String fromAccountId,
+                             @Param("toAccountId") String toAccountId,
+                             @Param("amount") BigDecimal amount,
+                             @Param("amountText") String amountText,
+                             @Param("currency") String currency,
+                             @Param("creditAmount") BigDecimal creditAmount,
+                             @Param("creditText") String creditText,
+                             @Param("fxRate") BigDecimal fxRate,
+                             @Param("creditedCurrency") String creditedCurrency,
+                             @Param("toShard") Integer toShard,
+                             @Param("rejection") String rejection,
+                             @Param("now") LocalDateTime now);
+
+    /** Result of {@link #transfer}; the balance columns are null unless both balance rows changed. */
+    interface TransferOutcome {
+        Long getId();
+
+        String getStatus();
+
+        String getFailureReason();
+
+        BigDecimal getFromAmount();
+
+        Long getFromVersion();
+
+        BigDecimal getToAmount();
+
+        Long getToVersion();
+    }
 }
@@ -0,0 +1,82 @@
+package com.banking.repository;
+
+import com.banking.domain.BalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BalanceShardRepository extends JpaRepository<BalanceShard, BalanceShard.Key> {
+
+    List<BalanceShard> findByAccountIdOrderByShard(String accountId);
+
+    List<BalanceShard> findByAccountIdInOrderByShard(Collection<String> accountIds);
+
+    @Query("select distinct s.accountId from BalanceShard s")
+    List<String> findAccountIds();
+
+    /**
+     * Credits one sub-balance in place. Concurrent credits to the same shard wait for each other's
+     * row lock instead of failing on its version; a debit that swept the shard in the meantime
+     * does fail on it and is retried.
+     *
+     * @return 0 if the shard does not exist
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update balance_shards set amount = amount + :amount, version = version + 1
+            where account_id = :accountId and shard = :shard""")
+    int credit(@Param("accountId") String accountId, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    /** Adds the sub-balances of the accounts to their {@code balances} rows; they still hold them afterwards. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            update balances
+            set amount = amount + (select sum(s.amount) from balance_shards s where s.account_id = balances.account_id),
+                version = version + 1
+            where account_id in (:accountIds)
+              and exists (select 1 from balance_shards s where s.account_id = balances.account_id and s.amount <> 0)""")
+    int addToBalances(@Param("accountIds") Collection<String> accountIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from balance_shards where account_id in (:accountIds)")
+    int deleteByAccountIds(@Param("accountIds") Collection<String> accountIds);
+
+    /**
+     * {@code banking.ledger.mode=native}: locks both {@code balances} rows in account order and, if
+     * the source's own row holds less than {@code :amount}, moves all of its sub-balances into it,
+     * so the following {@link BalanceRepository#transfer} sees the whole balance (PostgreSQL). The
+     * balance rows are locked before any shard, as every transfer does, so sweeps and sharded
+     * credits cannot deadlock. {@code returning} yields the zeroed row, so the amounts moved are
+     * read from the locked shards before the update.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            with locked as (
+                select account_id, amount from balances
+                where account_id in (:fromAccountId, :toAccountId)
+                order by account_id
+                for update
+            ), shards as (
+                select shard, amount from balance_shards
+                where account_id = :fromAccountId and amount <> 0
+                  and (select amount from locked where account_id = :fromAccountId) < :amount
+                for update
+            ), swept as (
+                update balance_shards s set amount = 0, version = s.version + 1
+                from shards
+                where s.account_id = :fromAccountId and s.shard = shards.shard
+                returning shards.amount
+            )
+            update balances set amount = amount + (select sum(amount) from swept), version = version + 1
+            where account_id = :fromAccountId and exists (select 1 from swept)""")
+    int sweep(@Param("fromAccountId") String fromAccountId,
+              @Param("toAccountId") String toAccountId,
+              @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,9 @@
+package com.banking.repository;
+
+import com.banking.domain.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, String> {
+}
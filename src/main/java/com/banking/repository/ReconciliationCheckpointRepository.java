@@ -0,0 +1,20 @@
+package com.banking.repository;
+
+import com.banking.domain.ReconciliationCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+
+    /** Locks the checkpoint row, so instances reconciling at the same time take turns per chunk. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ReconciliationCheckpoint c where c.id = :id")
+    Optional<ReconciliationCheckpoint> findForUpdate(@Param("id") String id);
+}
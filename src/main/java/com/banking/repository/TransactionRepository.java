@@ -1,11 +1,77 @@
 package com.banking.repository;
 
 import com.banking.domain.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByExternalId(String externalId);
+
+    List<Transaction> findByExternalIdIn(Collection<String> externalIds);
+
+    /**
+     * Status of the transaction with this idempotency key created at or after {@code since}.
+     * The lower bound lets a partitioned table skip the months before it.
+     */
+    @Query("select t.status from Transaction t where t.externalId = :externalId and t.createdAt >= :since")
+    Optional<Transaction.TransactionStatus> findStatusSince(@Param("externalId") String externalId,
+                                                            @Param("since") LocalDateTime since);
+
+    /**
+     * Returns the subset of the given idempotency keys that already have a transaction row
+     * created at or after {@code since}, so a whole batch can be deduplicated with a single query.
+     */
+    @Query("select t.externalId from Transaction t where t.externalId in :externalIds and t.createdAt >= :since")
+    List<String> findExistingExternalIds(@Param("externalIds") Collection<String> externalIds,
+                                         @Param("since") LocalDateTime since);
+
+    /**
+     * Streams every idempotency key created at or after {@code since} with a large fetch size.
+     * Must be consumed inside a (read-only) transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select t.externalId from Transaction t where t.createdAt >= :since")
+    Stream<String> streamExternalIds(@Param("since") LocalDateTime since);
+
+    /**
+     * Streams the transactions with {@code status} after the position {@code (afterCreatedAt, afterId)}
+     * and created before {@code before}, in {@code (createdAt, id)} order, with a large fetch size.
+     * Entities are read-only; detach them once used. Must be consumed inside a transaction and closed
+     * afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from Transaction t
+            where t.status = :status and t.createdAt < :before
+              and (t.createdAt > :afterCreatedAt or (t.createdAt = :afterCreatedAt and t.id > :afterId))
+            order by t.createdAt, t.id""")
+    Stream<Transaction> streamAfter(@Param("status") Transaction.TransactionStatus status,
+                                    @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                    @Param("afterId") long afterId,
+                                    @Param("before") LocalDateTime before);
+
+    @Query("select t.externalId as externalId, t.status as status from Transaction t order by t.id desc")
+    List<ExternalIdStatus> findRecentStatuses(Pageable pageable);
+
+    interface ExternalIdStatus {
+        String getExternalId();
+
+        Transaction.TransactionStatus getStatus();
+    }
 }
@@ -0,0 +1,204 @@
+package com.banking.serialization;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact binary form of {@link PaymentEvent}, version {@value #VERSION_1}:
+ * <pre>
+ * version    1 byte   (JSON payloads start with '{', so both can share a topic)
+ * presence   1 byte   bit per field, absent (null) fields are not written
+ * strings    varint UTF-8 length + bytes    transactionId, fromAccountId, toAccountId, currency
+ * amount     1 byte scale + zigzag varlong minor units
+ * timestamp  zigzag varlong epoch seconds (wall clock read as UTC) + varint nanos
+ * </pre>
+ * Fields are written in declaration order. New fields go behind the existing ones under a new
+ * version byte.
+ */
+public final class PaymentEventCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    private static final int TRANSACTION_ID = 1;
+    private static final int FROM_ACCOUNT_ID = 1 << 1;
+    private static final int TO_ACCOUNT_ID = 1 << 2;
+    private static final int AMOUNT = 1 << 3;
+    private static final int CURRENCY = 1 << 4;
+    private static final int TIMESTAMP = 1 << 5;
+
+    private PaymentEventCodec() {
+    }
+
+    /** Whether the payload starts with a binary version byte (as opposed to JSON). */
+    public static boolean isBinary(ByteBuffer payload) {
+        return payload.remaining() > 0 && payload.get(payload.position()) == VERSION_1;
+    }
+
+    public static byte[] encode(PaymentEvent event) {
+        Writer out = new Writer(96);
+        out.writeByte(VERSION_1);
+        int presence = (event.getTransactionId() != null ? TRANSACTION_ID : 0)
+                | (event.getFromAccountId() != null ? FROM_ACCOUNT_ID : 0)
+                | (event.getToAccountId() != null ? TO_ACCOUNT_ID : 0)
+                | (event.getAmount() != null ? AMOUNT : 0)
+                | (event.getCurrency() != null ? CURRENCY : 0)
+                | (event.getTimestamp() != null ? TIMESTAMP : 0);
+        out.writeByte(presence);
+        if (event.getTransactionId() != null) {
+            out.writeString(event.getTransactionId());
+        }
+        if (event.getFromAccountId() != null) {
+            out.writeString(event.getFromAccountId());
+        }
+        if (event.getToAccountId() != null) {
+            out.writeString(event.getToAccountId());
+        }
+        if (event.getAmount() != null) {
+            out.writeByte(event.getAmount().scale());
+            out.writeVarLong(zigzag(event.getAmount().minorUnits()));
+        }
+        if (event.getCurrency() != null) {
+            out.writeString(event.getCurrency());
+        }
+        if (event.getTimestamp() != null) {
+            out.writeVarLong(zigzag(event.getTimestamp().toEpochSecond(ZoneOffset.UTC)));
+            out.writeVarLong(event.getTimestamp().getNano());
+        }
+        return out.toByteArray();
+    }
+
+    /** Decodes from the buffer's position, which is advanced past the event. */
+    public static PaymentEvent decode(ByteBuffer in) {
+        try {
+            byte version = in.get();
+            if (version != VERSION_1) {
+                throw new SerializationException("Unsupported PaymentEvent format version " + version);
+            }
+            int presence = in.get();
+            PaymentEvent event = new PaymentEvent();
+            if ((presence & TRANSACTION_ID) != 0) {
+                event.setTransactionId(readString(in));
+            }
+            if ((presence & FROM_ACCOUNT_ID) != 0) {
+                event.setFromAccountId(readString(in));
+            }
+            if ((presence & TO_ACCOUNT_ID) != 0) {
+                event.setToAccountId(readString(in));
+            }
+            if ((presence & AMOUNT) != 0) {
+                int scale = in.get();
+                event.setAmount(Money.ofMinor(unzigzag(readVarLong(in)), scale));
+            }
+            if ((presence & CURRENCY) != 0) {
+                event.setCurrency(readString(in));
+            }
+            if ((presence & TIMESTAMP) != 0) {
+                long epochSecond = unzigzag(readVarLong(in));
+                int nanos = (int) readVarLong(in);
+                event.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+            }
+            return event;
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            throw new SerializationException("Malformed binary PaymentEvent", e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Growable byte array; strings are written without an intermediate byte[] when ASCII. */
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(utf8.length);
+                    ensure(utf8.length);
+                    System.arraycopy(utf8, 0, buffer, size, utf8.length);
+                    size += utf8.length;
+                    return;
+                }
+            }
+            writeVarLong(length);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buffer[size++] = (byte) value.charAt(i);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+}
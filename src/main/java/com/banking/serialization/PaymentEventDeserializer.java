@@ -0,0 +1,53 @@
+package com.banking.serialization;
+
+import com.banking.dto.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka value deserializer for {@link PaymentEvent}s that reads both the
+ * {@link PaymentEventCodec} binary format and the JSON written by Spring's {@code JsonSerializer},
+ * told apart by the first byte, so producers can be switched over while records of both kinds are
+ * still on the topic. Binary payloads are decoded in place from the buffer the consumer hands over.
+ */
+public class PaymentEventDeserializer implements Deserializer<PaymentEvent> {
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    @Override
+    public PaymentEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : deserialize(topic, null, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public PaymentEvent deserialize(String topic, Headers headers, byte[] data) {
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public PaymentEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        if (PaymentEventCodec.isBinary(data)) {
+            return PaymentEventCodec.decode(data);
+        }
+        try {
+            if (data.hasArray()) {
+                return objectMapper.readValue(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                        PaymentEvent.class);
+            }
+            byte[] json = new byte[data.remaining()];
+            data.get(data.position(), json);
+            return objectMapper.readValue(json, PaymentEvent.class);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize PaymentEvent from JSON", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.banking.serialization;
+
+import com.banking.dto.PaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka value serializer for {@link PaymentEvent}s, writing what Spring's {@link JsonSerializer}
+ * writes, type headers included, so consumers configured with a plain {@code JsonDeserializer} can
+ * read it. With {@value #FORMAT_CONFIG}{@code =binary} it writes the {@link PaymentEventCodec}
+ * binary format instead, which only this version's {@link PaymentEventDeserializer} reads: switch
+ * once every consumer runs it.
+ * {@code byte[]} values, i.e. the original payload of records that failed deserialization and
+ * are republished to the dead letter topic, are passed through unchanged.
+ */
+public class PaymentEventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "banking.payment-event.format";
+
+    public enum Format {
+        BINARY, JSON
+    }
+
+    private static final Header TYPE_HEADER = new RecordHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+            PaymentEvent.class.getName().getBytes(StandardCharsets.UTF_8));
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>(JacksonUtils.enhancedObjectMapper());
+    private Format format = Format.JSON;
+
+    public PaymentEventSerializer() {
+    }
+
+    public PaymentEventSerializer(Format format) {
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(FORMAT_CONFIG);
+        if (configured != null) {
+            format = Format.valueOf(configured.toString().trim().toUpperCase());
+        }
+        json.configure(configs, isKey);
+    }
+
+    /** The payload alone; the type headers of the JSON format are left to {@link #typeHeaders}. */
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (!(data instanceof PaymentEvent event)) {
+            throw new SerializationException("Cannot serialize " + data.getClass().getName() + " as PaymentEvent");
+        }
+        if (format == Format.BINARY) {
+            return PaymentEventCodec.encode(event);
+        }
+        return json.serialize(topic, headers, event);
+    }
+
+    /**
+     * Adds the type header {@link #serialize(String, Headers, Object)} would have added to a
+     * payload serialized earlier without headers, e.g. by the outbox; none for a binary payload.
+     */
+    public static Headers typeHeaders(Headers headers, byte[] payload) {
+        if (payload != null && !PaymentEventCodec.isBinary(ByteBuffer.wrap(payload))) {
+            headers.remove(TYPE_HEADER.key());
+            headers.add(TYPE_HEADER);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,68 @@
+package com.banking.service;
+
+import com.banking.config.BankingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of lock stripes keyed by account id.
+ * All stripes needed by an operation are taken in ascending stripe order, so two transfers
+ * touching the same accounts in opposite directions can never deadlock.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks(BankingProperties properties) {
+        int size = Integer.highestOneBit(Math.max(1, properties.getConcurrency().getStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public <T> T withLocks(Collection<String> accountIds, Supplier<T> action) {
+        int[] indexes = stripeIndexes(accountIds);
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int[] stripeIndexes(Collection<String> accountIds) {
+        int[] indexes = new int[accountIds.size()];
+        int n = 0;
+        for (String accountId : accountIds) {
+            indexes[n++] = stripeOf(accountId);
+        }
+        Arrays.sort(indexes);
+        // Several accounts may share a stripe; take each stripe once
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || indexes[distinct - 1] != indexes[i]) {
+                indexes[distinct++] = indexes[i];
+            }
+        }
+        return Arrays.copyOf(indexes, distinct);
+    }
+
+    private int stripeOf(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,104 @@
+package com.banking.service;
+
+import com.banking.cache.ReadCache;
+import com.banking.config.ReplicaRoutingDataSource;
+import com.banking.domain.Balance;
+import com.banking.domain.Transaction;
+import com.banking.dto.BalanceView;
+import com.banking.dto.TransactionView;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.HotAccounts;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads behind the REST API: answered from the {@link ReadCache} when it holds a recent enough
+ * entry, otherwise from the database, refreshing the cache on the way. Database reads go to the
+ * read replica when one is configured. Hot accounts ({@link HotAccounts}) are always summed from
+ * their sub-balances in the database; settlement does not know their whole balance to cache it.
+ */
+@Service
+public class AccountQueryService {
+
+    private final ReadCache readCache;
+    private final BalanceRepository balanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final HotAccounts hotAccounts;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AccountQueryService(ReadCache readCache,
+                               BalanceRepository balanceRepository,
+                               TransactionRepository transactionRepository,
+                               HotAccounts hotAccounts,
+                               PlatformTransactionManager transactionManager) {
+        this.readCache = readCache;
+        this.balanceRepository = balanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.hotAccounts = hotAccounts;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The committed balance of the account. With {@code minVersion} a cached balance older than
+     * that is not trusted and the database is read instead; the result can still be older if the
+     * version has not been committed yet.
+     *
+     * @return empty if the account does not exist
+     */
+    public Optional<BalanceView> balance(String accountId, Long minVersion) {
+        if (hotAccounts.isHot(accountId)) {
+            return ReplicaRoutingDataSource.onReplica(() -> hotAccounts.load(accountId));
+        }
+        Optional<BalanceView> cached = readCache.balance(accountId);
+        if (cached.isPresent() && (minVersion == null || cached.get().getVersion() >= minVersion)) {
+            return cached;
+        }
+        Optional<BalanceView> loaded = ReplicaRoutingDataSource.onReplica(
+                () -> balanceRepository.findById(accountId).map(ReadCache::view));
+        loaded.ifPresent(readCache::put);
+        return loaded;
+    }
+
+    /**
+     * The transaction with the given idempotency key. Completed transactions read from the
+     * database carry the current versions of both balances, which already include the transfer;
+     * a hot account gets none, its versions are not comparable with those settlement records.
+     *
+     * @return empty if the transaction has not been settled (yet)
+     */
+    public Optional<TransactionView> transaction(String externalId) {
+        Optional<TransactionView> cached = readCache.transaction(externalId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<TransactionView> loaded = ReplicaRoutingDataSource.onReplica(
+                () -> readOnlyTransaction.execute(status -> load(externalId)));
+        loaded.ifPresent(readCache::put);
+        return loaded;
+    }
+
+    private Optional<TransactionView> load(String externalId) {
+        return transactionRepository.findByExternalId(externalId).map(transaction -> {
+            if (transaction.getStatus() != Transaction.TransactionStatus.COMPLETED) {
+                return ReadCache.view(transaction, null, null);
+            }
+            Map<String, Long> versions = new HashMap<>();
+            for (Balance balance : balanceRepository.findAllById(
+                    List.of(transaction.getFromAccountId(), transaction.getToAccountId()))) {
+                if (!hotAccounts.isHot(balance.getAccountId())) {
+                    versions.put(balance.getAccountId(), ReadCache.view(balance).getVersion());
+                }
+            }
+            return ReadCache.view(transaction,
+                    versions.get(transaction.getFromAccountId()), versions.get(transaction.getToAccountId()));
+        });
+    }
+}
@@ -1,19 +1,42 @@
 package com.banking.service;
 
+import com.banking.cache.ReadCache;
 import com.banking.domain.Account;
 import com.banking.domain.Balance;
+import com.banking.domain.BalanceShard;
+import com.banking.domain.Money;
 import com.banking.domain.Transaction;
 import com.banking.dto.PaymentEvent;
+import com.banking.exception.AccountNotFoundException;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.exception.InvalidAmountException;
+import com.banking.exception.PaymentRejectedException;
+import com.banking.fx.Conversion;
+import com.banking.fx.CurrencyExchange;
+import com.banking.idempotency.IdempotencyGuard;
+import com.banking.metrics.SettlementMetrics;
 import com.banking.repository.AccountRepository;
 import com.banking.repository.BalanceRepository;
+import com.banking.repository.BalanceShardRepository;
 import com.banking.repository.TransactionRepository;
+import com.banking.sharding.HotAccounts;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -23,20 +46,29 @@ public class BankingService {
     private final AccountRepository accountRepository;
     private final BalanceRepository balanceRepository;
     private final TransactionRepository transactionRepository;
+    private final IdempotencyGuard idempotencyGuard;
+    private final SettlementMetrics settlementMetrics;
+    private final ReadCache readCache;
+    private final CurrencyExchange currencyExchange;
+    private final BalanceShardRepository balanceShardRepository;
+    private final HotAccounts hotAccounts;
 
     /**
      * Processes a payment event.
      * This method is idempotent: if called multiple times with the same transactionId,
      * it will only process the payment once.
+     *
+     * @return the transaction written by this call, empty for a duplicate
      */
     @Transactional
-    public void processPayment(PaymentEvent event) {
+    public Optional<Transaction> processPayment(PaymentEvent event) {
+        settlementMetrics.timeCommit();
         // 1. Idempotency Check: Check if transaction was already processed
-        Optional<Transaction> existingTransaction = transactionRepository.findByExternalId(event.getTransactionId());
-        if (existingTransaction.isPresent()) {
+        Optional<Transaction.TransactionStatus> existingStatus = idempotencyGuard.findProcessed(event.getTransactionId());
+        if (existingStatus.isPresent()) {
             log.info("Transaction {} already processed with status {}. Skipping.", 
-                    event.getTransactionId(), existingTransaction.get().getStatus());
-            return;
+                    event.getTransactionId(), existingStatus.get());
+            return Optional.empty();
         }
 
         // 2. Persist initial transaction record as PENDING
@@ -51,22 +83,42 @@ public class BankingService {
                 .build();
         transaction = transactionRepository.save(transaction);
 
+        List<Balance> loaded = List.of();
         try {
             // 3. Business Validation & Balance Updates
-            Balance fromBalance = balanceRepository.findById(event.getFromAccountId())
-                    .orElseThrow(() -> new RuntimeException("Source account not found: " + event.getFromAccountId()));
+            long loadStarted = System.nanoTime();
+            Optional<Balance> source = balanceRepository.findById(event.getFromAccountId());
+            Optional<Balance> target = balanceRepository.findById(event.getToAccountId());
+            List<BalanceShard> sourceShards = hotAccounts.isHot(event.getFromAccountId())
+                    ? balanceShardRepository.findByAccountIdOrderByShard(event.getFromAccountId()) : List.of();
+            settlementMetrics.record(SettlementMetrics.Stage.BALANCE_LOAD, loadStarted,
+                    source.isPresent() && target.isPresent() ? "found" : "missing");
+            loaded = Stream.concat(source.stream(), target.stream()).filter(this::cacheable).toList();
+
+            Balance fromBalance = source
+                    .orElseThrow(() -> new AccountNotFoundException("Source", event.getFromAccountId()));
             
-            Balance toBalance = balanceRepository.findById(event.getToAccountId())
-                    .orElseThrow(() -> new RuntimeException("Target account not found: " + event.getToAccountId()));
+            Balance toBalance = target
+                    .orElseThrow(() -> new AccountNotFoundException("Target", event.getToAccountId()));
 
-            if (fromBalance.getAmount().compareTo(event.getAmount()) < 0) {
-                throw new RuntimeException("Insufficient funds in account: " + event.getFromAccountId());
+            Money debit = amountIn(fromBalance, event.getAmount());
+            Conversion conversion = currencyExchange.credit(event, debit, () -> toBalance.getAmount().scale());
+            Money credit = amountIn(toBalance, conversion.converted() ? conversion.amount() : event.getAmount());
+            if (HotAccounts.available(fromBalance, sourceShards).isLessThan(debit)) {
+                throw new InsufficientFundsException(event.getFromAccountId());
             }
+            recordConversion(transaction, conversion, credit);
 
-            // Update balances (Optimistic locking via @Version in Balance entity)
-            fromBalance.setAmount(fromBalance.getAmount().subtract(event.getAmount()));
-            toBalance.setAmount(toBalance.getAmount().add(event.getAmount()));
+            // Update balances (Optimistic locking via @Version in Balance and BalanceShard)
+            hotAccounts.debit(fromBalance, sourceShards, debit);
+            // A hot account's balance row is only read; the credit is added to one of its shards in place
+            if (!hotAccounts.isHot(event.getToAccountId()) || event.getToAccountId().equals(event.getFromAccountId())
+                    || balanceShardRepository.credit(event.getToAccountId(),
+                    hotAccounts.shardOf(event.getTransactionId()), credit.toBigDecimal()) == 0) {
+                toBalance.setAmount(toBalance.getAmount().plus(credit));
+            }
 
+            long saveStarted = System.nanoTime();
             balanceRepository.save(fromBalance);
             balanceRepository.save(toBalance);
 
@@ -74,20 +126,277 @@ public class BankingService {
             transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
             transaction.setProcessedAt(LocalDateTime.now());
             transactionRepository.save(transaction);
+            settlementMetrics.record(SettlementMetrics.Stage.BALANCE_SAVE, saveStarted, "completed");
 
-        } catch (Exception e) {
+        } catch (PaymentRejectedException e) {
             log.error("Payment processing failed for {}: {}", event.getTransactionId(), e.getMessage());
-            
-            // 5. Update transaction status to FAILED
+
+            // 5. Business rejection: nothing was changed but the transaction row, which commits as
+            // FAILED so the payment is acknowledged instead of retried. Technical errors propagate
+            // and roll everything back for a retry.
             transaction.setStatus(Transaction.TransactionStatus.FAILED);
             transaction.setFailureReason(e.getMessage());
             transaction.setProcessedAt(LocalDateTime.now());
             transactionRepository.save(transaction);
-            
-            // We rethrow if it's a transient issue that might benefit from Kafka retry.
-            // For business failures (like insufficient funds), we might want to NOT retry.
-            // In a real system, we'd distinguish between BusinessException and TechnicalException.
-            throw e; 
+        }
+        idempotencyGuard.recordAfterCommit(List.of(transaction));
+        readCache.recordAfterCommit(loaded, List.of(transaction));
+        return Optional.of(transaction);
+    }
+
+    /**
+     * Settles a batch of payment events in a single database transaction.
+     * The batch is deduplicated through the {@link IdempotencyGuard} (at most one query), every
+     * balance it touches is loaded with one query and transfers are applied in memory in the
+     * given order. Business rejections are recorded as FAILED rows; any other failure rolls back
+     * the whole batch so the caller can split it.
+     *
+     * @return the transactions written by this call, duplicates excluded
+     */
+    @Transactional
+    public List<Transaction> processBatch(List<PaymentEvent> events) {
+        settlementMetrics.timeCommit();
+        Set<String> externalIds = events.stream()
+                .map(PaymentEvent::getTransactionId)
+                .collect(Collectors.toSet());
+        Set<String> processed = new HashSet<>(idempotencyGuard.findProcessed(externalIds));
+
+        Set<String> accountIds = new HashSet<>();
+        for (PaymentEvent event : events) {
+            accountIds.add(event.getFromAccountId());
+            accountIds.add(event.getToAccountId());
+        }
+        currencyExchange.preload(accountIds);
+        long loadStarted = System.nanoTime();
+        Map<String, Balance> balances = balanceRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(Balance::getAccountId, Function.identity()));
+        List<String> hot = accountIds.stream().filter(hotAccounts::isHot).toList();
+        Map<String, List<BalanceShard>> shards = hot.isEmpty() ? Map.of()
+                : balanceShardRepository.findByAccountIdInOrderByShard(hot).stream()
+                .collect(Collectors.groupingBy(BalanceShard::getAccountId));
+        settlementMetrics.record(SettlementMetrics.Stage.BALANCE_LOAD, loadStarted,
+                balances.size() == accountIds.size() ? "found" : "missing");
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> settled = new ArrayList<>(events.size());
+        for (PaymentEvent event : events) {
+            // Set.add also filters duplicates delivered within the same batch
+            if (!processed.add(event.getTransactionId())) {
+                log.info("Transaction {} already processed. Skipping.", event.getTransactionId());
+                continue;
+            }
+
+            Transaction transaction = Transaction.builder()
+                    .externalId(event.getTransactionId())
+                    .fromAccountId(event.getFromAccountId())
+                    .toAccountId(event.getToAccountId())
+                    .amount(event.getAmount())
+                    .currency(event.getCurrency())
+                    .createdAt(now)
+                    .processedAt(now)
+                    .build();
+
+            Balance fromBalance = balances.get(event.getFromAccountId());
+            Balance toBalance = balances.get(event.getToAccountId());
+            String failureReason = null;
+            Money debit = null;
+            Money credit = null;
+            try {
+                if (fromBalance == null) {
+                    throw new AccountNotFoundException("Source", event.getFromAccountId());
+                }
+                if (toBalance == null) {
+                    throw new AccountNotFoundException("Target", event.getToAccountId());
+                }
+                debit = amountIn(fromBalance, event.getAmount());
+                Conversion conversion = currencyExchange.credit(event, debit, () -> toBalance.getAmount().scale());
+                credit = amountIn(toBalance, conversion.converted() ? conversion.amount() : event.getAmount());
+                if (HotAccounts.available(fromBalance, shards.getOrDefault(event.getFromAccountId(), List.of()))
+                        .isLessThan(debit)) {
+                    throw new InsufficientFundsException(event.getFromAccountId());
+                }
+                recordConversion(transaction, conversion, credit);
+            } catch (PaymentRejectedException e) {
+                failureReason = e.getMessage();
+            }
+
+            if (failureReason == null) {
+                // Dirty entities are flushed once at commit, one versioned UPDATE per touched balance or
+                // shard: a batch adds up its credits to a hot account per shard instead of one UPDATE each
+                hotAccounts.debit(fromBalance, shards.getOrDefault(event.getFromAccountId(), List.of()), debit);
+                BalanceShard targetShard = targetShard(shards, event);
+                if (targetShard != null) {
+                    targetShard.setAmount(targetShard.getAmount().plus(credit));
+                } else {
+                    toBalance.setAmount(toBalance.getAmount().plus(credit));
+                }
+                transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            } else {
+                log.error("Payment processing failed for {}: {}", event.getTransactionId(), failureReason);
+                transaction.setStatus(Transaction.TransactionStatus.FAILED);
+                transaction.setFailureReason(failureReason);
+            }
+            settled.add(transaction);
+        }
+
+        long saveStarted = System.nanoTime();
+        List<Transaction> saved = transactionRepository.saveAll(settled);
+        settlementMetrics.record(SettlementMetrics.Stage.BALANCE_SAVE, saveStarted, "batch");
+        idempotencyGuard.recordAfterCommit(saved);
+        // Untouched balances are recorded as well, they were read in this transaction
+        readCache.recordAfterCommit(balances.values().stream().filter(this::cacheable).toList(), saved);
+        return saved;
+    }
+
+    /**
+     * {@code banking.ledger.mode=native}: the settlement of {@link #processPayment} as the single
+     * statement {@link BalanceRepository#transfer} (PostgreSQL) instead of loading, checking and
+     * dirtying two {@link Balance} entities. Business rejections are written as FAILED rows the same
+     * way; nothing is held in the persistence context.
+     *
+     * @return the transaction written by this call, empty for a duplicate
+     */
+    @Transactional
+    public Optional<Transaction> transfer(PaymentEvent event) {
+        settlementMetrics.timeCommit();
+        Optional<Transaction.TransactionStatus> existingStatus = idempotencyGuard.findProcessed(event.getTransactionId());
+        if (existingStatus.isPresent()) {
+            log.info("Transaction {} already processed with status {}. Skipping.",
+                    event.getTransactionId(), existingStatus.get());
+            return Optional.empty();
+        }
+        List<Balance> written = new ArrayList<>(2);
+        Transaction transaction = transfer(event, LocalDateTime.now(), written);
+        idempotencyGuard.recordAfterCommit(List.of(transaction));
+        readCache.recordAfterCommit(written, List.of(transaction));
+        return Optional.of(transaction);
+    }
+
+    /**
+     * {@link #processBatch} for {@code banking.ledger.mode=native}: one {@link BalanceRepository#transfer}
+     * statement per payment, in order, all in one database transaction.
+     *
+     * @return the transactions written by this call, duplicates excluded
+     */
+    @Transactional
+    public List<Transaction> transferBatch(List<PaymentEvent> events) {
+        settlementMetrics.timeCommit();
+        Set<String> processed = new HashSet<>(idempotencyGuard.findProcessed(
+                events.stream().map(PaymentEvent::getTransactionId).collect(Collectors.toSet())));
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Balance> written = new HashMap<>();
+        List<Transaction> settled = new ArrayList<>(events.size());
+        for (PaymentEvent event : events) {
+            if (!processed.add(event.getTransactionId())) {
+                log.info("Transaction {} already processed. Skipping.", event.getTransactionId());
+                continue;
+            }
+            List<Balance> balances = new ArrayList<>(2);
+            settled.add(transfer(event, now, balances));
+            // Later transfers of the batch carry the newer versions
+            balances.forEach(balance -> written.put(balance.getAccountId(), balance));
+        }
+        idempotencyGuard.recordAfterCommit(settled);
+        readCache.recordAfterCommit(written.values(), settled);
+        return settled;
+    }
+
+    private Transaction transfer(PaymentEvent event, LocalDateTime now, List<Balance> written) {
+        long started = System.nanoTime();
+        if (hotAccounts.isHot(event.getFromAccountId()) && balanceShardRepository.sweep(event.getFromAccountId(),
+                event.getToAccountId(), event.getAmount().toBigDecimal()) > 0) {
+            hotAccounts.recordSweep();
+        }
+        Conversion conversion;
+        String rejection = null;
+        try {
+            conversion = currencyExchange.credit(event, event.getAmount(), () -> balanceRepository
+                    .findScale(event.getToAccountId())
+                    .orElseThrow(() -> new AccountNotFoundException("Target", event.getToAccountId())));
+        } catch (PaymentRejectedException e) {
+            conversion = new Conversion(event.getAmount(), event.getCurrency(), null);
+            rejection = e.getMessage();
+        }
+        BalanceRepository.TransferOutcome outcome = balanceRepository.transfer(event.getTransactionId(),
+                event.getFromAccountId(), event.getToAccountId(), event.getAmount().toBigDecimal(),
+                event.getAmount().toString(), event.getCurrency(), conversion.amount().toBigDecimal(),
+                conversion.amount().toString(), conversion.rate(),
+                conversion.converted() ? conversion.currency() : null,
+                hotAccounts.isHot(event.getToAccountId()) ? hotAccounts.shardOf(event.getTransactionId()) : null,
+                rejection, now);
+        Transaction transaction = Transaction.builder()
+                .id(outcome.getId())
+                .externalId(event.getTransactionId())
+                .fromAccountId(event.getFromAccountId())
+                .toAccountId(event.getToAccountId())
+                .amount(event.getAmount())
+                .currency(event.getCurrency())
+                .status(Transaction.TransactionStatus.valueOf(outcome.getStatus()))
+                .failureReason(outcome.getFailureReason())
+                .createdAt(now)
+                .processedAt(now)
+                .build();
+        if (transaction.getStatus() == Transaction.TransactionStatus.COMPLETED) {
+            recordConversion(transaction, conversion, conversion.amount());
+        }
+        settlementMetrics.record(SettlementMetrics.Stage.BALANCE_SAVE, started,
+                transaction.getStatus() == Transaction.TransactionStatus.COMPLETED ? "completed" : "failed");
+        if (outcome.getFailureReason() != null) {
+            log.error("Payment processing failed for {}: {}", event.getTransactionId(), outcome.getFailureReason());
+        }
+        if (outcome.getFromVersion() != null && cacheable(event.getFromAccountId())) {
+            written.add(detachedBalance(event.getFromAccountId(), outcome.getFromAmount(), outcome.getFromVersion()));
+        }
+        if (outcome.getToVersion() != null && cacheable(event.getToAccountId())) {
+            written.add(detachedBalance(event.getToAccountId(), outcome.getToAmount(), outcome.getToVersion()));
+        }
+        return transaction;
+    }
+
+    private static Balance detachedBalance(String accountId, BigDecimal amount, long version) {
+        return Balance.builder()
+                .accountId(accountId)
+                .amount(Money.of(amount))
+                .version(version)
+                .build();
+    }
+
+    /** The shard a payment into a hot account is credited to; null if the target is not sharded (yet). */
+    private BalanceShard targetShard(Map<String, List<BalanceShard>> shards, PaymentEvent event) {
+        List<BalanceShard> targetShards = shards.get(event.getToAccountId());
+        if (targetShards == null) {
+            return null;
+        }
+        int shard = hotAccounts.shardOf(event.getTransactionId());
+        return targetShards.stream().filter(candidate -> candidate.getShard() == shard).findFirst().orElse(null);
+    }
+
+    /** A hot account's balance row is only part of its balance, the read cache must not hold it. */
+    private boolean cacheable(Balance balance) {
+        return cacheable(balance.getAccountId());
+    }
+
+    private boolean cacheable(String accountId) {
+        return !hotAccounts.isHot(accountId);
+    }
+
+    /**
+     * The amount expressed at the scale of the balance it is debited from or credited to.
+     * Throws {@link InvalidAmountException} if the amount has more decimals than the account supports.
+     */
+    private static Money amountIn(Balance balance, Money amount) {
+        try {
+            return amount.withScale(balance.getAmount().scale());
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException("Invalid amount " + amount + " for account: " + balance.getAccountId());
+        }
+    }
+
+    private static void recordConversion(Transaction transaction, Conversion conversion, Money credit) {
+        if (conversion.converted()) {
+            transaction.setFxRate(conversion.rate());
+            transaction.setCreditedAmount(credit);
+            transaction.setCreditedCurrency(conversion.currency());
         }
     }
 }
@@ -0,0 +1,104 @@
+package com.banking.service;
+
+import com.banking.config.BankingProperties;
+import com.banking.dto.PaymentAccepted;
+import com.banking.dto.PaymentEvent;
+import com.banking.dto.PaymentRequest;
+import com.banking.exception.ProducerSaturatedException;
+import com.banking.producer.PaymentProducer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns submitted payments into {@link PaymentEvent}s and publishes them directly through
+ * {@link PaymentProducer#trySendPayment}, without waiting for settlement. The HTTP request has no
+ * database transaction for the outbox to join; a payment counts as accepted once the broker has
+ * acknowledged it.
+ */
+@Service
+@Slf4j
+public class PaymentIngestionService {
+
+    private final PaymentProducer paymentProducer;
+    private final Duration ackTimeout;
+    private final Meter.MeterProvider<Counter> payments;
+
+    public PaymentIngestionService(PaymentProducer paymentProducer, BankingProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.paymentProducer = paymentProducer;
+        this.ackTimeout = properties.getIngestion().getAckTimeout();
+        this.payments = Counter.builder("banking.ingestion.payments")
+                .description("Payments submitted over HTTP")
+                .withRegistry(meterRegistry);
+    }
+
+    /** A payment handed to the producer, not yet acknowledged. */
+    public record Submission(String transactionId, CompletableFuture<?> acknowledged) {
+    }
+
+    /**
+     * @param maxWait how long to wait for the producer to admit the payment
+     * @throws ProducerSaturatedException if it was not admitted; nothing was sent
+     */
+    public Submission submit(PaymentRequest request, Duration maxWait) {
+        PaymentEvent event = PaymentEvent.builder()
+                .transactionId(request.getTransactionId() != null ? request.getTransactionId() : UUID.randomUUID().toString())
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .timestamp(LocalDateTime.now())
+                .build();
+        try {
+            return new Submission(event.getTransactionId(), paymentProducer.trySendPayment(event, maxWait));
+        } catch (ProducerSaturatedException e) {
+            payments.withTags("outcome", "throttled").increment();
+            throw e;
+        }
+    }
+
+    /** Waits up to {@code banking.ingestion.ack-timeout} for the broker acknowledgement. */
+    public PaymentAccepted await(Submission submission, Integer line) {
+        PaymentAccepted.PaymentAcceptedBuilder result = PaymentAccepted.builder()
+                .line(line)
+                .transactionId(submission.transactionId());
+        try {
+            submission.acknowledged().get(ackTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            payments.withTags("outcome", "accepted").increment();
+            return result.status(PaymentAccepted.Status.ACCEPTED).build();
+        } catch (ExecutionException e) {
+            return failed(result, e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            return failed(result, "Not acknowledged within " + ackTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(result, "Interrupted");
+        }
+    }
+
+    public PaymentAccepted invalid(List<String> errors, Integer line) {
+        payments.withTags("outcome", "invalid").increment();
+        return PaymentAccepted.builder()
+                .line(line)
+                .status(PaymentAccepted.Status.INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    private PaymentAccepted failed(PaymentAccepted.PaymentAcceptedBuilder result, String error) {
+        payments.withTags("outcome", "failed").increment();
+        return result.status(PaymentAccepted.Status.FAILED).error(error).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.banking.service;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.idempotency.IdempotencyGuard;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.SettlementMetrics;
+import com.banking.sharding.HotAccounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Entry point of the listeners into {@link BankingService}.
+ * In {@code striped} mode the accounts of a transfer are locked (in deterministic order) around
+ * the whole database transaction, so transfers hitting the same account inside this JVM queue up
+ * instead of racing on {@code Balance.version}; payments into a hot account lock only the
+ * sub-balance they credit (see {@link HotAccounts}). Conflicts that still happen (other instances) are
+ * retried in-process a few times before being handed to the Kafka error handler.
+ * In {@code optimistic} mode calls go straight through; conflicts are only counted.
+ * When the in-memory {@link LedgerEngine} is enabled it owns all balances and settles every
+ * transfer itself, so neither locking nor retries apply. In {@code native} ledger mode every
+ * transfer is one statement that locks its balance rows, so conflicts queue in the database.
+ * <p>
+ * A unique-index violation on insert means the {@link IdempotencyGuard} let a duplicate through
+ * (written by another instance, or forgotten by the filter); the ids are then marked as seen and
+ * the settlement is retried once, this time deduplicated against the database.
+ */
+@Service
+@Slf4j
+public class SettlementExecutor {
+
+    private final BankingService bankingService;
+    private final AccountLocks accountLocks;
+    private final LedgerEngine ledgerEngine;
+    private final IdempotencyGuard idempotencyGuard;
+    private final HotAccounts hotAccounts;
+    private final boolean striped;
+    private final boolean nativeTransfers;
+    private final int maxRetries;
+    private final SettlementMetrics settlementMetrics;
+    private final Meter.MeterProvider<Counter> conflicts;
+    private final Meter.MeterProvider<Counter> retries;
+    private final Timer lockWait;
+
+    public SettlementExecutor(BankingService bankingService,
+                              AccountLocks accountLocks,
+                              ObjectProvider<LedgerEngine> ledgerEngine,
+                              IdempotencyGuard idempotencyGuard,
+                              HotAccounts hotAccounts,
+                              BankingProperties properties,
+                              SettlementMetrics settlementMetrics,
+                              MeterRegistry meterRegistry) {
+        this.bankingService = bankingService;
+        this.accountLocks = accountLocks;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+        this.idempotencyGuard = idempotencyGuard;
+        this.hotAccounts = hotAccounts;
+        this.settlementMetrics = settlementMetrics;
+        this.nativeTransfers = properties.getLedger().getMode() == BankingProperties.LedgerMode.NATIVE;
+        BankingProperties.Concurrency concurrency = properties.getConcurrency();
+        this.striped = concurrency.getMode() == BankingProperties.ConcurrencyMode.STRIPED;
+        this.maxRetries = striped ? concurrency.getMaxRetries() : 0;
+
+        String mode = concurrency.getMode().name().toLowerCase();
+        this.conflicts = Counter.builder("banking.settlement.conflicts")
+                .description("Optimistic lock conflicts on balances")
+                .tag("mode", mode)
+                .withRegistry(meterRegistry);
+        this.retries = Counter.builder("banking.settlement.retries")
+                .description("In-process retries after an optimistic lock conflict")
+                .tag("mode", mode)
+                .withRegistry(meterRegistry);
+        this.lockWait = Timer.builder("banking.settlement.lock.wait")
+                .description("Time spent waiting for account lock stripes")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /** @return the transaction written for the event, none for a duplicate */
+    public List<Transaction> process(PaymentEvent event) {
+        try (SettlementMetrics.InFlight ignored = settlementMetrics.inFlight()) {
+            return settle(event);
+        }
+    }
+
+    public List<Transaction> processBatch(List<PaymentEvent> events) {
+        try (SettlementMetrics.InFlight ignored = settlementMetrics.inFlight()) {
+            return settleBatch(events);
+        }
+    }
+
+    private List<Transaction> settle(PaymentEvent event) {
+        if (ledgerEngine != null) {
+            return ledgerEngine.settle(List.of(event));
+        }
+        return execute(hotAccounts.lockKeys(List.of(event)), () -> deduplicated(List.of(event),
+                () -> (nativeTransfers ? bankingService.transfer(event) : bankingService.processPayment(event))
+                        .map(List::of).orElseGet(List::of)));
+    }
+
+    private List<Transaction> settleBatch(List<PaymentEvent> events) {
+        if (ledgerEngine != null) {
+            return ledgerEngine.settle(events);
+        }
+        return execute(hotAccounts.lockKeys(events), () -> deduplicated(events,
+                () -> nativeTransfers ? bankingService.transferBatch(events) : bankingService.processBatch(events)));
+    }
+
+    private <T> T deduplicated(List<PaymentEvent> events, Supplier<T> settlement) {
+        try {
+            return settlement.get();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Duplicate insert rejected by the database, retrying {} events against the database: {}",
+                    events.size(), e.getMostSpecificCause().getMessage());
+            idempotencyGuard.markSeen(events.stream().map(PaymentEvent::getTransactionId).toList());
+            return settlement.get();
+        }
+    }
+
+    private <T> T execute(Set<String> accountIds, Supplier<T> settlement) {
+        if (!striped) {
+            return attempt(settlement);
+        }
+        long waitStart = System.nanoTime();
+        return accountLocks.withLocks(accountIds, () -> {
+            lockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return attempt(settlement);
+                } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                    if (attempt >= maxRetries) {
+                        throw e;
+                    }
+                    retries.withTags(SettlementMetrics.tags("retried")).increment();
+                    log.warn("Optimistic lock conflict on accounts {}, retry {}/{}", accountIds, attempt + 1, maxRetries);
+                }
+            }
+        });
+    }
+
+    private <T> T attempt(Supplier<T> settlement) {
+        try {
+            return settlement.get();
+        } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            conflicts.withTags(SettlementMetrics.tags("conflict")).increment();
+            throw e;
+        }
+    }
+}
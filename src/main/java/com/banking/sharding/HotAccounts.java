@@ -0,0 +1,232 @@
+package com.banking.sharding;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Balance;
+import com.banking.domain.BalanceShard;
+import com.banking.domain.Money;
+import com.banking.dto.BalanceView;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.BalanceShardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Accounts whose balance is split into sub-balances ({@code banking.hot-accounts}). Every update
+ * of a {@link Balance} bumps its version, so one account receiving a large share of all payments
+ * serializes them on one row. A hot account keeps its {@code balances} row and gets
+ * {@code shards} {@link BalanceShard}s next to it:
+ * <ul>
+ *     <li>a credit is added in place to the shard picked by hashing the transaction id, without
+ *     touching the balance row, so concurrent credits only wait for each other when they pick the
+ *     same shard (a batch adds up its credits per shard and updates it with the version check);</li>
+ *     <li>a debit is taken from the balance row; if that holds less than the amount, shards are
+ *     moved into it in ascending shard order until it suffices;</li>
+ *     <li>the account's balance is the balance row plus all shards, its version the sum of their
+ *     versions.</li>
+ * </ul>
+ * Before the listeners start, shards of accounts that are no longer hot are folded back into their
+ * balance rows and missing shards of hot accounts are created. A hot account without shards (e.g.
+ * created after startup) is credited on its balance row until the next start.
+ */
+@Component
+@Slf4j
+public class HotAccounts implements SmartLifecycle {
+
+    private final BalanceShardRepository shardRepository;
+    private final BalanceRepository balanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> accounts;
+    private final int shards;
+    private final Counter sweeps;
+    private volatile boolean running;
+
+    public HotAccounts(BalanceShardRepository shardRepository,
+                       BalanceRepository balanceRepository,
+                       TransactionTemplate transactionTemplate,
+                       BankingProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.shardRepository = shardRepository;
+        this.balanceRepository = balanceRepository;
+        this.transactionTemplate = transactionTemplate;
+        BankingProperties.HotAccounts settings = properties.getHotAccounts();
+        // The in-memory ledger has no row contention to spread
+        this.accounts = properties.getLedger().getMode() == BankingProperties.LedgerMode.IN_MEMORY
+                ? Set.of() : Set.copyOf(settings.getAccounts());
+        if (settings.getShards() < 1) {
+            throw new IllegalArgumentException("banking.hot-accounts.shards must be at least 1");
+        }
+        this.shards = settings.getShards();
+        this.sweeps = Counter.builder("banking.settlement.shard.sweeps")
+                .description("Debits from hot accounts that drew on their sub-balances")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(String accountId) {
+        return !accounts.isEmpty() && accounts.contains(accountId);
+    }
+
+    /** The shard a payment into a hot account is credited to. */
+    public int shardOf(String transactionId) {
+        int h = transactionId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards);
+    }
+
+    /**
+     * Keys for {@code AccountLocks} covering the rows the events may write: a hot target only by
+     * its credited shard, a hot source by its balance row and every shard a debit may draw on.
+     */
+    public Set<String> lockKeys(Collection<PaymentEvent> events) {
+        Set<String> keys = new HashSet<>();
+        for (PaymentEvent event : events) {
+            keys.add(event.getFromAccountId());
+            if (isHot(event.getFromAccountId())) {
+                for (int shard = 0; shard < shards; shard++) {
+                    keys.add(event.getFromAccountId() + '#' + shard);
+                }
+            }
+            keys.add(isHot(event.getToAccountId())
+                    ? event.getToAccountId() + '#' + shardOf(event.getTransactionId())
+                    : event.getToAccountId());
+        }
+        return keys;
+    }
+
+    /** @param shards the account's shards in ascending shard order */
+    public static Money available(Balance balance, List<BalanceShard> shards) {
+        Money available = balance.getAmount();
+        for (BalanceShard shard : shards) {
+            available = available.plus(shard.getAmount());
+        }
+        return available;
+    }
+
+    /**
+     * Takes the amount from the balance row, first moving shards into it in ascending shard order
+     * while it holds less. The caller has checked {@link #available}.
+     *
+     * @param shards the account's shards in ascending shard order
+     */
+    public void debit(Balance balance, List<BalanceShard> shards, Money amount) {
+        boolean swept = false;
+        for (BalanceShard shard : shards) {
+            if (!balance.getAmount().isLessThan(amount)) {
+                break;
+            }
+            if (!shard.getAmount().isZero()) {
+                balance.setAmount(balance.getAmount().plus(shard.getAmount()));
+                shard.setAmount(Money.ofMinor(0, shard.getAmount().scale()));
+                swept = true;
+            }
+        }
+        balance.setAmount(balance.getAmount().minus(amount));
+        if (swept) {
+            sweeps.increment();
+        }
+    }
+
+    /** Counts a sweep done in SQL ({@code banking.ledger.mode=native}). */
+    public void recordSweep() {
+        sweeps.increment();
+    }
+
+    /** The account's balance: its balance row plus its shards, versioned by the sum of their versions. */
+    public static BalanceView view(Balance balance, List<BalanceShard> shards) {
+        Money amount = balance.getAmount();
+        long version = balance.getVersion() != null ? balance.getVersion() : 0;
+        for (BalanceShard shard : shards) {
+            amount = amount.plus(shard.getAmount());
+            version += shard.getVersion() != null ? shard.getVersion() : 0;
+        }
+        return BalanceView.builder()
+                .accountId(balance.getAccountId())
+                .amount(amount)
+                .version(version)
+                .build();
+    }
+
+    /** {@link #view} read from the database; empty if the account does not exist. */
+    public Optional<BalanceView> load(String accountId) {
+        return transactionTemplate.execute(status -> balanceRepository.findById(accountId)
+                .map(balance -> view(balance, shardRepository.findByAccountIdOrderByShard(accountId))));
+    }
+
+    /**
+     * Folds the shards of accounts that are not hot (any more) into their balance rows and deletes
+     * them, then creates the missing shards of the hot accounts. Safe to run on several instances
+     * at once: an instance losing the race leaves the shards to the other one.
+     */
+    public void prepareShards() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> retired = new ArrayList<>(shardRepository.findAccountIds());
+                retired.removeAll(accounts);
+                if (!retired.isEmpty()) {
+                    shardRepository.addToBalances(retired);
+                    shardRepository.deleteByAccountIds(retired);
+                    log.info("Folded the sub-balances of {} accounts back into their balances", retired.size());
+                }
+                List<BalanceShard> created = new ArrayList<>();
+                for (String accountId : accounts) {
+                    Optional<Balance> balance = balanceRepository.findById(accountId);
+                    if (balance.isEmpty()) {
+                        log.warn("Hot account {} does not exist, it is not sharded", accountId);
+                        continue;
+                    }
+                    Set<Integer> existing = new HashSet<>();
+                    shardRepository.findByAccountIdOrderByShard(accountId).forEach(shard -> existing.add(shard.getShard()));
+                    for (int shard = 0; shard < shards; shard++) {
+                        if (!existing.contains(shard)) {
+                            created.add(BalanceShard.builder()
+                                    .accountId(accountId)
+                                    .shard(shard)
+                                    .amount(Money.ofMinor(0, balance.get().getAmount().scale()))
+                                    .build());
+                        }
+                    }
+                }
+                shardRepository.saveAll(created);
+                if (!created.isEmpty()) {
+                    log.info("Created {} sub-balances for {} hot accounts", created.size(), accounts.size());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Sub-balances are being prepared by another instance: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        prepareShards();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Before the listener containers, which start in {@link AbstractMessageListenerContainer#DEFAULT_PHASE}. */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+}
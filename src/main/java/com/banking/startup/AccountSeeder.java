@@ -0,0 +1,148 @@
+package com.banking.startup;
+
+import com.banking.domain.Money;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Inserts accounts with their balances in bulk, bypassing the persistence context: {@code COPY}
+ * when the pool hands out PostgreSQL connections, batched INSERTs otherwise. Seeding goes in
+ * chunks of {@value #CHUNK_SIZE} accounts, each copied into {@code accounts} and then
+ * {@code balances}, all in one transaction: a failed seed leaves the tables empty.
+ */
+@Component
+public class AccountSeeder {
+
+    static final String CSV_HEADER = "id,owner_name,currency,balance";
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public AccountSeeder(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record Seed(String id, String ownerName, String currency, Money balance) {
+    }
+
+    /** @return the number of accounts inserted */
+    public long seed(Iterable<Seed> seeds) {
+        Long seeded = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            long count = 0;
+            List<Seed> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (Iterator<Seed> iterator = seeds.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    insert(connection, chunk, now);
+                    count += chunk.size();
+                    chunk.clear();
+                }
+            }
+            return count;
+        });
+        return seeded == null ? 0 : seeded;
+    }
+
+    /** Seeds the accounts of a {@value #CSV_HEADER} file, header included. */
+    public long seed(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String header = in.readLine();
+            if (header == null || !header.strip().equalsIgnoreCase(CSV_HEADER)) {
+                throw new IllegalArgumentException(file + ": expected header " + CSV_HEADER + " but was " + header);
+            }
+            return seed(() -> in.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(AccountSeeder::parse)
+                    .iterator());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void insert(Connection connection, List<Seed> chunk, LocalDateTime now) {
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), chunk, now);
+                return;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot seed " + chunk.size() + " accounts", e);
+        }
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("insert into accounts (id, owner_name, currency, created_at) values (?, ?, ?, ?)",
+                chunk, chunk.size(), (statement, seed) -> {
+                    statement.setString(1, seed.id());
+                    statement.setString(2, seed.ownerName());
+                    statement.setString(3, seed.currency());
+                    statement.setTimestamp(4, createdAt);
+                });
+        jdbcTemplate.batchUpdate("insert into balances (account_id, amount, version) values (?, ?, 0)",
+                chunk, chunk.size(), (statement, seed) -> {
+                    statement.setString(1, seed.id());
+                    statement.setBigDecimal(2, seed.balance().toBigDecimal());
+                });
+    }
+
+    private static void copy(PGConnection connection, List<Seed> chunk, LocalDateTime now) throws SQLException {
+        StringBuilder accounts = new StringBuilder(chunk.size() * 64);
+        StringBuilder balances = new StringBuilder(chunk.size() * 32);
+        for (Seed seed : chunk) {
+            field(seed.id(), accounts).append(',');
+            field(seed.ownerName(), accounts).append(',');
+            field(seed.currency(), accounts).append(',').append(now).append('\n');
+            field(seed.id(), balances).append(',');
+            seed.balance().appendTo(balances);
+            balances.append(",0\n");
+        }
+        try {
+            connection.getCopyAPI().copyIn("copy accounts (id, owner_name, currency, created_at) from stdin (format csv)",
+                    new StringReader(accounts.toString()));
+            connection.getCopyAPI().copyIn("copy balances (account_id, amount, version) from stdin (format csv)",
+                    new StringReader(balances.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StringBuilder field(String value, StringBuilder out) {
+        return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /** Splits {@code id,owner_name,currency,balance}; the owner name may contain commas, the other fields may not. */
+    private static Seed parse(String line) {
+        int first = line.indexOf(',');
+        int last = line.lastIndexOf(',');
+        int currency = line.lastIndexOf(',', last - 1);
+        if (first < 0 || currency <= first) {
+            throw new IllegalArgumentException("Expected " + CSV_HEADER + " but was " + line);
+        }
+        return new Seed(line.substring(0, first).strip(), line.substring(first + 1, currency).strip(),
+                line.substring(currency + 1, last).strip(), Money.parse(line.substring(last + 1).strip()));
+    }
+}
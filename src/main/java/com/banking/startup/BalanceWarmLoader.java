@@ -0,0 +1,101 @@
+package com.banking.startup;
+
+import com.banking.cache.ReadCache;
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.dto.BalanceView;
+import com.banking.fx.CurrencyExchange;
+import com.banking.sharding.HotAccounts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * {@code banking.startup.warm-load}: before the Kafka listeners start, loads the balances of the
+ * accounts that sent or received a payment within {@code warm-load-window} into the
+ * {@link ReadCache} and their currencies into the {@link CurrencyExchange}, with one streamed
+ * query over {@code idx_transaction_created_at}. The same query brings the hot balance rows into
+ * the database's buffer cache. Hot accounts ({@link HotAccounts}) are never cached. A failed warm-load is logged and the instance starts cold.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "banking.startup.warm-load", havingValue = "true")
+public class BalanceWarmLoader implements SmartLifecycle {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadCache readCache;
+    private final CurrencyExchange currencyExchange;
+    private final HotAccounts hotAccounts;
+    private final BankingProperties.Startup settings;
+    private volatile boolean running;
+
+    public BalanceWarmLoader(DataSource dataSource, ReadCache readCache, CurrencyExchange currencyExchange,
+                             HotAccounts hotAccounts, BankingProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readCache = readCache;
+        this.currencyExchange = currencyExchange;
+        this.hotAccounts = hotAccounts;
+        this.settings = properties.getStartup();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        long started = System.nanoTime();
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(settings.getWarmLoadWindow()));
+        long[] loaded = {0};
+        try {
+            jdbcTemplate.query("""
+                    select b.account_id, b.amount, b.version, a.currency
+                    from (select from_account_id as account_id from transactions where created_at >= ?
+                          union
+                          select to_account_id from transactions where created_at >= ?) active
+                    join balances b on b.account_id = active.account_id
+                    join accounts a on a.id = b.account_id
+                    fetch first ? rows only""",
+                    resultSet -> {
+                        String accountId = resultSet.getString(1);
+                        if (!hotAccounts.isHot(accountId)) {
+                            readCache.put(BalanceView.builder()
+                                    .accountId(accountId)
+                                    .amount(Money.of(resultSet.getBigDecimal(2)))
+                                    .version(resultSet.getLong(3))
+                                    .build());
+                        }
+                        currencyExchange.remember(accountId, resultSet.getString(4));
+                        loaded[0]++;
+                    },
+                    since, since, settings.getWarmLoadLimit());
+            log.info("Warm-loaded {} balances active since {} in {} ms", loaded[0], since,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Warm-load stopped after {} balances, starting with cold caches: {}", loaded[0], e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Before the listener containers, which start in {@link AbstractMessageListenerContainer#DEFAULT_PHASE}. */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+}
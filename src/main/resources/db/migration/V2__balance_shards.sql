@@ -0,0 +1,8 @@
+-- Sub-balances of hot accounts (banking.hot-accounts), see BalanceShard
+create table balance_shards (
+    account_id varchar(255) not null,
+    shard integer not null,
+    amount numeric(38, 2) not null,
+    version bigint,
+    primary key (account_id, shard)
+);
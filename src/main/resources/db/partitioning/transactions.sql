@@ -0,0 +1,121 @@
+-- Range-partitioned layout of the transactions table, PostgreSQL 14 or later.
+--
+-- Run once with psql while the application is stopped, then start it with
+-- banking.partitioning.enabled=true (see README, "Transaction Partitioning"). Running it again is
+-- harmless. An existing unpartitioned table is renamed to transactions_unpartitioned and its rows
+-- are copied over; drop it by hand once the copy has been checked.
+--
+-- Primary keys and unique indexes of a partitioned table must contain the partition key, so the
+-- idempotency key can no longer be unique on its own. Instead a BEFORE INSERT trigger claims every
+-- external_id in transaction_keys; a duplicate fails with the same unique violation (23505) the
+-- old index raised. The application trims keys older than banking.idempotency.dedupe-horizon.
+
+do $$
+begin
+    if exists (select 1 from pg_class
+               where oid = to_regclass('transactions') and relkind = 'r') then
+        alter table transactions rename to transactions_unpartitioned;
+        alter table transactions_unpartitioned rename constraint transactions_pkey to transactions_unpartitioned_pkey;
+        alter index idx_transaction_external_id rename to idx_transaction_unpartitioned_external_id;
+        alter index if exists idx_transaction_created_at rename to idx_transaction_unpartitioned_created_at;
+    end if;
+end $$;
+
+-- Pooled by Hibernate, the increment must match Transaction.ID_ALLOCATION_SIZE
+create sequence if not exists transactions_seq increment by 500;
+alter sequence transactions_seq increment by 500;
+
+create table if not exists transactions (
+    id bigint not null default nextval('transactions_seq'),
+    external_id varchar(255) not null,
+    from_account_id varchar(255) not null,
+    to_account_id varchar(255) not null,
+    amount numeric(38, 2) not null,
+    currency varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING', 'COMPLETED', 'FAILED')),
+    failure_reason varchar(255),
+    fx_rate numeric(24, 10),
+    credited_amount numeric(38, 2),
+    credited_currency varchar(255),
+    created_at timestamp(6) not null,
+    processed_at timestamp(6),
+    primary key (id, created_at)
+) partition by range (created_at);
+
+-- Same name as the index Hibernate declares, so schema updates leave it alone
+create index if not exists idx_transaction_external_id on transactions (external_id);
+create index if not exists idx_transaction_created_at on transactions (created_at, id);
+
+-- Months past banking.partitioning.retention end up here when banking.partitioning.archive=partition
+create table if not exists transactions_archive (
+    like transactions including defaults including constraints,
+    primary key (id, created_at)
+) partition by range (created_at);
+
+create index if not exists idx_transaction_archive_external_id on transactions_archive (external_id);
+
+-- Columns added after the first release of this script, for tables it created before
+alter table transactions add column if not exists fx_rate numeric(24, 10);
+alter table transactions add column if not exists credited_amount numeric(38, 2);
+alter table transactions add column if not exists credited_currency varchar(255);
+alter table transactions_archive add column if not exists fx_rate numeric(24, 10);
+alter table transactions_archive add column if not exists credited_amount numeric(38, 2);
+alter table transactions_archive add column if not exists credited_currency varchar(255);
+
+create table if not exists transaction_keys (
+    external_id varchar(255) primary key,
+    created_at timestamp(6) not null
+);
+
+create index if not exists idx_transaction_keys_created_at on transaction_keys (created_at);
+
+create or replace function transactions_claim_key() returns trigger language plpgsql as $$
+begin
+    insert into transaction_keys (external_id, created_at) values (new.external_id, new.created_at);
+    return new;
+end $$;
+
+create or replace trigger transactions_claim_key
+    before insert on transactions
+    for each row execute function transactions_claim_key();
+
+-- Monthly partition transactions_pYYYY_MM holding [month, month + 1); also called by the
+-- application to create partitions ahead of time.
+create or replace function transactions_ensure_partition(month date) returns text language plpgsql as $$
+declare
+    lower_bound date := date_trunc('month', month);
+    partition_name text := 'transactions_p' || to_char(lower_bound, 'YYYY_MM');
+begin
+    execute format('create table if not exists %I partition of transactions for values from (%L) to (%L)',
+                   partition_name, lower_bound, lower_bound + interval '1 month');
+    return partition_name;
+end $$;
+
+do $$
+declare
+    first_month date := date_trunc('month', localtimestamp);
+begin
+    if to_regclass('transactions_unpartitioned') is not null then
+        select coalesce(date_trunc('month', min(created_at)), first_month) into first_month
+        from transactions_unpartitioned;
+    end if;
+    for offset_months in 0 .. (extract(year from age(date_trunc('month', localtimestamp), first_month)) * 12
+                               + extract(month from age(date_trunc('month', localtimestamp), first_month)) + 3)::int loop
+        perform transactions_ensure_partition((first_month + make_interval(months => offset_months))::date);
+    end loop;
+end $$;
+
+do $$
+begin
+    if to_regclass('transactions_unpartitioned') is not null
+            and not exists (select 1 from transactions) then
+        insert into transactions (id, external_id, from_account_id, to_account_id, amount, currency, status,
+                                  failure_reason, fx_rate, credited_amount, credited_currency, created_at,
+                                  processed_at)
+        select id, external_id, from_account_id, to_account_id, amount, currency, status,
+               failure_reason, fx_rate, credited_amount, credited_currency,
+               coalesce(created_at, processed_at, localtimestamp), processed_at
+        from transactions_unpartitioned;
+        perform setval('transactions_seq', greatest((select max(id) from transactions), 1));
+    end if;
+end $$;
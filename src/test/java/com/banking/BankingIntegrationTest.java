@@ -3,6 +3,7 @@ package com.banking;
 import com.banking.config.KafkaConfig;
 import com.banking.domain.Account;
 import com.banking.domain.Balance;
+import com.banking.domain.Money;
 import com.banking.domain.Transaction;
 import com.banking.dto.PaymentEvent;
 import com.banking.producer.PaymentProducer;
@@ -22,9 +23,9 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -67,25 +68,23 @@ public class BankingIntegrationTest {
         balanceRepository.deleteAll();
         accountRepository.deleteAll();
 
-        createAccount("ACC1", "User 1", new BigDecimal("1000.00"));
-        createAccount("ACC2", "User 2", new BigDecimal("500.00"));
+        createAccount("ACC1", "User 1", Money.parse("1000.00"));
+        createAccount("ACC2", "User 2", Money.parse("500.00"));
     }
 
-    private void createAccount(String id, String owner, BigDecimal amount) {
+    private void createAccount(String id, String owner, Money amount) {
         Account account = Account.builder()
                 .id(id)
                 .ownerName(owner)
                 .currency("EUR")
                 .createdAt(LocalDateTime.now())
                 .build();
-        accountRepository.save(account);
-
-        Balance balance = Balance.builder()
+        account.setBalance(Balance.builder()
                 .accountId(id)
                 .account(account)
                 .amount(amount)
-                .build();
-        balanceRepository.save(balance);
+                .build());
+        accountRepository.save(account);
     }
 
     @Test
@@ -95,7 +94,7 @@ public class BankingIntegrationTest {
                 .transactionId(txId)
                 .fromAccountId("ACC1")
                 .toAccountId("ACC2")
-                .amount(new BigDecimal("100.00"))
+                .amount(Money.parse("100.00"))
                 .currency("EUR")
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -109,8 +108,8 @@ public class BankingIntegrationTest {
 
             Balance fromBalance = balanceRepository.findById("ACC1").get();
             Balance toBalance = balanceRepository.findById("ACC2").get();
-            assertThat(fromBalance.getAmount()).isEqualByComparingTo("900.00");
-            assertThat(toBalance.getAmount()).isEqualByComparingTo("600.00");
+            assertThat(fromBalance.getAmount()).isEqualByComparingTo(Money.parse("900.00"));
+            assertThat(toBalance.getAmount()).isEqualByComparingTo(Money.parse("600.00"));
         });
     }
 
@@ -121,7 +120,7 @@ public class BankingIntegrationTest {
                 .transactionId(txId)
                 .fromAccountId("ACC1")
                 .toAccountId("ACC2")
-                .amount(new BigDecimal("100.00"))
+                .amount(Money.parse("100.00"))
                 .currency("EUR")
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -137,7 +136,7 @@ public class BankingIntegrationTest {
             assertThat(count).isEqualTo(1);
 
             Balance fromBalance = balanceRepository.findById("ACC1").get();
-            assertThat(fromBalance.getAmount()).isEqualByComparingTo("900.00");
+            assertThat(fromBalance.getAmount()).isEqualByComparingTo(Money.parse("900.00"));
         });
     }
 
@@ -148,7 +147,7 @@ public class BankingIntegrationTest {
                 .transactionId(txId)
                 .fromAccountId("ACC1")
                 .toAccountId("ACC2")
-                .amount(new BigDecimal("2000.00")) // More than balance
+                .amount(Money.parse("2000.00")) // More than balance
                 .currency("EUR")
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -162,7 +161,7 @@ public class BankingIntegrationTest {
             assertThat(tx.get().getFailureReason()).contains("Insufficient funds");
 
             Balance fromBalance = balanceRepository.findById("ACC1").get();
-            assertThat(fromBalance.getAmount()).isEqualByComparingTo("1000.00");
+            assertThat(fromBalance.getAmount()).isEqualByComparingTo(Money.parse("1000.00"));
         });
     }
 }
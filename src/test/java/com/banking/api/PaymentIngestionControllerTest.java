@@ -0,0 +1,107 @@
+package com.banking.api;
+
+import com.banking.config.KafkaConfig;
+import com.banking.dto.PaymentAccepted;
+import com.banking.dto.PaymentEvent;
+import com.banking.serialization.PaymentEventDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false"
+})
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class PaymentIngestionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Test
+    void shouldPublishValidPaymentsAndReportEveryBulkLine() throws Exception {
+        PaymentAccepted single = objectMapper.readValue(mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromAccountId":"ACC001","toAccountId":"ACC002","amount":"10.50","currency":"EUR"}"""))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString(), PaymentAccepted.class);
+        assertThat(single.getStatus()).isEqualTo(PaymentAccepted.Status.ACCEPTED);
+        assertThat(single.getTransactionId()).isNotBlank();
+
+        PaymentAccepted invalid = objectMapper.readValue(mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromAccountId":"ACC001","toAccountId":"ACC001","amount":"-1","currency":"euro"}"""))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString(), PaymentAccepted.class);
+        assertThat(invalid.getErrors()).hasSize(3).anyMatch(error -> error.startsWith("currency"));
+
+        String bulk = """
+                {"transactionId":"BULK-1","fromAccountId":"ACC001","toAccountId":"ACC002","amount":"1.00","currency":"EUR"}
+                {"fromAccountId":"ACC001",
+
+                {"transactionId":"BULK-3","fromAccountId":"ACC001","toAccountId":"ACC002","currency":"EUR"}
+                {"transactionId":"BULK-4","fromAccountId":"ACC003","toAccountId":"ACC001","amount":"2.00","currency":"EUR"}
+                """;
+        List<PaymentAccepted> lines = Arrays.stream(mockMvc.perform(post("/payments/bulk")
+                                .contentType(PaymentIngestionController.NDJSON)
+                                .content(bulk))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString().split("\n"))
+                .map(this::read)
+                .toList();
+        assertThat(lines).extracting(PaymentAccepted::getLine).containsExactly(1, 2, 4, 5);
+        assertThat(lines).extracting(PaymentAccepted::getStatus).containsExactly(
+                PaymentAccepted.Status.ACCEPTED, PaymentAccepted.Status.INVALID,
+                PaymentAccepted.Status.INVALID, PaymentAccepted.Status.ACCEPTED);
+        assertThat(lines.get(2).getErrors()).containsExactly("amount: must not be null");
+
+        try (Consumer<String, PaymentEvent> consumer = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps("ingestion-test", "false", broker),
+                new StringDeserializer(), new PaymentEventDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, KafkaConfig.PAYMENTS_TOPIC);
+            List<String> published = StreamSupport.stream(KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10), 3)
+                            .records(KafkaConfig.PAYMENTS_TOPIC).spliterator(), false)
+                    .map(record -> record.value().getTransactionId())
+                    .toList();
+            assertThat(published).containsExactlyInAnyOrder(single.getTransactionId(), "BULK-1", "BULK-4");
+        }
+    }
+
+    private PaymentAccepted read(String line) {
+        try {
+            return objectMapper.readValue(line, PaymentAccepted.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.api;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.service.BankingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false"
+})
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class QueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldServeCommittedWritesFromTheCacheAndHonourMinVersion() throws Exception {
+        account("READ-A", "100.00");
+        account("READ-B", "0.00");
+        long initialVersion = read("/accounts/READ-A/balance", status().isOk()).get("version").asLong();
+
+        PaymentEvent payment = PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId("READ-A")
+                .toAccountId("READ-B")
+                .amount(Money.parse("30.00"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+        bankingService.processPayment(payment);
+
+        JsonNode transaction = read("/transactions/" + payment.getTransactionId(), status().isOk());
+        assertThat(transaction.get("status").asText()).isEqualTo("COMPLETED");
+        long settledVersion = transaction.get("fromBalanceVersion").asLong();
+        assertThat(settledVersion).isGreaterThan(initialVersion);
+        assertThat(read("/accounts/READ-A/balance?minVersion=" + settledVersion, status().isOk())
+                .get("amount").decimalValue()).isEqualByComparingTo("70.00");
+
+        // A change the cache has not seen (another instance) is only read once minVersion asks for it
+        jdbcTemplate.update("UPDATE balances SET amount = 50.00, version = version + 1 WHERE account_id = 'READ-A'");
+        assertThat(read("/accounts/READ-A/balance", status().isOk()).get("amount").decimalValue()).isEqualByComparingTo("70.00");
+        assertThat(read("/accounts/READ-A/balance?minVersion=" + (settledVersion + 1), status().isOk())
+                .get("amount").decimalValue()).isEqualByComparingTo("50.00");
+
+        assertThat(read("/accounts/READ-A/balance?minVersion=" + (settledVersion + 2), status().isConflict())
+                .get("version").asLong()).isEqualTo(settledVersion + 1);
+        read("/accounts/UNKNOWN/balance", status().isNotFound());
+        read("/transactions/" + UUID.randomUUID(), status().isNotFound());
+    }
+
+    private JsonNode read(String uri, ResultMatcher expectedStatus) throws Exception {
+        String body = mockMvc.perform(get(uri))
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString();
+        return body.isEmpty() ? null : objectMapper.readTree(body);
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
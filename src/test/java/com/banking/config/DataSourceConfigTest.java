@@ -0,0 +1,64 @@
+package com.banking.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceConfigTest {
+
+    private final EmbeddedDatabase primary = database("primary");
+    private final EmbeddedDatabase replica = database("replica");
+
+    @AfterEach
+    void shutdown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void shouldCountEverySettlingThread() {
+        BankingProperties properties = new BankingProperties();
+        assertThat(DataSourceConfig.settlingThreads(properties)).isEqualTo(2);
+
+        properties.getConsumer().getRetry().setNonBlocking(true);
+        assertThat(DataSourceConfig.settlingThreads(properties)).isEqualTo(8); // 2 threads on payments and 3 retry topics
+
+        properties.getExactlyOnce().setEnabled(true);
+        assertThat(DataSourceConfig.settlingThreads(properties)).isEqualTo(2);
+
+        properties.getConsumer().setMode(BankingProperties.ConsumerMode.BATCH);
+        assertThat(DataSourceConfig.settlingThreads(properties)).isEqualTo(2);
+
+        properties.getConsumer().setMode(BankingProperties.ConsumerMode.PARALLEL);
+        assertThat(DataSourceConfig.settlingThreads(properties)).isEqualTo(32);
+    }
+
+    @Test
+    void shouldOnlyRouteTheReplicaScope() {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource();
+        dataSource.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        dataSource.afterPropertiesSet();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        assertThat(jdbcTemplate.queryForObject("select name from origin", String.class)).isEqualTo("primary");
+        assertThat(ReplicaRoutingDataSource.onReplica(() -> ReplicaRoutingDataSource.onReplica(
+                () -> jdbcTemplate.queryForObject("select name from origin", String.class)))).isEqualTo("replica");
+        assertThat(jdbcTemplate.queryForObject("select name from origin", String.class)).isEqualTo("primary");
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true).build();
+        new JdbcTemplate(database).execute("create table origin as select '" + name + "' as name");
+        return database;
+    }
+}
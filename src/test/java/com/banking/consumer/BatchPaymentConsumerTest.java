@@ -0,0 +1,141 @@
+package com.banking.consumer;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.exception.InvalidAmountException;
+import com.banking.producer.PaymentProducer;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.SettlementExecutor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        // Started once all payments are on the partition, so they arrive in one poll
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.consumer.mode=batch"
+})
+@EmbeddedKafka(partitions = 1, topics = {KafkaConfig.PAYMENTS_TOPIC, KafkaConfig.PAYMENTS_DLT})
+@ActiveProfiles({"test", "embedded"})
+class BatchPaymentConsumerTest {
+
+    @Autowired
+    private PaymentProducer producer;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @SpyBean
+    private SettlementExecutor settlementExecutor;
+
+    @Test
+    void shouldBisectToThePoisonRecordAndCommitTheRecordsBeforeItOnce() {
+        account("BISECT-A", "100.00");
+        account("BISECT-B", "0.00");
+        List<PaymentEvent> payments = IntStream.range(0, 5)
+                .mapToObj(i -> payment("BISECT-A", "BISECT-B", (i + 1) + ".00"))
+                .toList();
+        PaymentEvent poison = payments.get(2);
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            List<PaymentEvent> events = invocation.getArgument(0);
+            batches.add(events.stream().map(PaymentEvent::getTransactionId).toList());
+            if (events.contains(poison)) {
+                // A rejection that escaped: not retryable, so it goes straight to the dead letter topic
+                throw new InvalidAmountException("Invalid amount " + poison.getAmount());
+            }
+            return invocation.callRealMethod();
+        }).when(settlementExecutor).processBatch(anyList());
+
+        producer.sendPayments(payments).join();
+        registry.getListenerContainers().forEach(container -> container.start());
+
+        await().atMost(Duration.ofSeconds(30)).until(() ->
+                transactionRepository.findByExternalId(payments.get(4).getTransactionId()).isPresent());
+        List<String> ids = payments.stream().map(PaymentEvent::getTransactionId).toList();
+        // [0, 5) fails, [0, 2) commits, [2, 5) fails, [2, 3) is isolated and handed to the error
+        // handler with its index; [3, 5) is redelivered, not settled in the first poll
+        assertThat(batches).startsWith(ids, ids.subList(0, 2), ids.subList(2, 5), ids.subList(2, 3));
+        assertThat(batches).filteredOn(batch -> batch.contains(ids.get(0))).hasSize(2);
+        assertThat(batches.get(batches.size() - 1)).isEqualTo(ids.subList(3, 5));
+        assertThat(transactionRepository.findByExternalId(poison.getTransactionId())).isEmpty();
+        assertThat(balanceRepository.findById("BISECT-A").orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("88.00"));
+
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps("bisect-test", "false", broker),
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, KafkaConfig.PAYMENTS_DLT);
+            ConsumerRecord<String, byte[]> deadLettered =
+                    KafkaTestUtils.getSingleRecord(consumer, KafkaConfig.PAYMENTS_DLT, Duration.ofSeconds(30));
+            assertThat(new String(deadLettered.value())).contains(poison.getTransactionId());
+        }
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
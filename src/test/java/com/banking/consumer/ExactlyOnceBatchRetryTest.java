@@ -0,0 +1,130 @@
+package com.banking.consumer;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.producer.PaymentProducer;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import com.banking.service.SettlementExecutor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "banking.exactly-once.enabled=true",
+        "banking.consumer.mode=batch",
+        "banking.outbox.relay-enabled=false",
+        "banking.consumer.retry.initial-interval=100ms"
+})
+@EmbeddedKafka(partitions = 2, topics = {
+        KafkaConfig.PAYMENTS_TOPIC, KafkaConfig.PAYMENTS_SETTLED_TOPIC, KafkaConfig.PAYMENTS_REJECTED_TOPIC, KafkaConfig.PAYMENTS_DLT
+}, brokerProperties = {
+        "transaction.state.log.replication.factor=1",
+        "transaction.state.log.min.isr=1"
+})
+@ActiveProfiles({"test", "embedded"})
+class ExactlyOnceBatchRetryTest {
+
+    @Autowired
+    private PaymentProducer producer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @SpyBean
+    private SettlementExecutor settlementExecutor;
+
+    @Test
+    void shouldDeadLetterAPaymentThatKeepsFailingAndSettleTheRestOfThePoll() {
+        account("EOS-RETRY-A", "100.00");
+        account("EOS-RETRY-B", "0.00");
+        PaymentEvent first = payment("EOS-RETRY-A", "EOS-RETRY-B", "10.00");
+        PaymentEvent failing = payment("EOS-RETRY-A", "EOS-RETRY-B", "20.00");
+        PaymentEvent third = payment("EOS-RETRY-A", "EOS-RETRY-B", "30.00");
+        doAnswer(invocation -> {
+            List<PaymentEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getTransactionId().equals(failing.getTransactionId()))) {
+                throw new TransientDataAccessResourceException("Connection reset");
+            }
+            return invocation.callRealMethod();
+        }).when(settlementExecutor).processBatch(anyList());
+
+        producer.sendPayments(List.of(first, failing, third)).join();
+
+        Map<String, Object> props = KafkaTestUtils.consumerProps("eos-retry-test", "false", broker);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromEmbeddedTopics(consumer, KafkaConfig.PAYMENTS_SETTLED_TOPIC, KafkaConfig.PAYMENTS_DLT);
+            Map<String, List<String>> byTopic = StreamSupport.stream(
+                            KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), 3).spliterator(), false)
+                    .collect(Collectors.groupingBy(ConsumerRecord::topic,
+                            Collectors.mapping(ConsumerRecord::value, Collectors.toList())));
+
+            assertThat(byTopic.get(KafkaConfig.PAYMENTS_SETTLED_TOPIC)).hasSize(2)
+                    .anySatisfy(value -> assertThat(value).contains(first.getTransactionId()))
+                    .anySatisfy(value -> assertThat(value).contains(third.getTransactionId()));
+            assertThat(byTopic.get(KafkaConfig.PAYMENTS_DLT)).singleElement()
+                    .satisfies(value -> assertThat(value).contains(failing.getTransactionId()));
+        }
+        assertThat(balanceRepository.findById("EOS-RETRY-A").orElseThrow().getAmount()).isEqualTo(Money.parse("60.00"));
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
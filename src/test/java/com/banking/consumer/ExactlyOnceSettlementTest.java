@@ -0,0 +1,126 @@
+package com.banking.consumer;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.producer.PaymentProducer;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "banking.exactly-once.enabled=true",
+        "banking.consumer.mode=batch",
+        "banking.outbox.relay-enabled=false"
+})
+@EmbeddedKafka(partitions = 2, topics = {
+        KafkaConfig.PAYMENTS_TOPIC, KafkaConfig.PAYMENTS_SETTLED_TOPIC, KafkaConfig.PAYMENTS_REJECTED_TOPIC, KafkaConfig.PAYMENTS_DLT
+}, brokerProperties = {
+        "transaction.state.log.replication.factor=1",
+        "transaction.state.log.min.isr=1"
+})
+@ActiveProfiles({"test", "embedded"})
+class ExactlyOnceSettlementTest {
+
+    @Autowired
+    private PaymentProducer producer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Test
+    void shouldPublishOneResultPerPaymentAndDeadLetterPoisonRecordsInTheTransaction() {
+        account("EOS-A", "100.00");
+        account("EOS-B", "0.00");
+        PaymentEvent first = payment("EOS-A", "EOS-B", "60.00");
+        PaymentEvent second = payment("EOS-A", "EOS-B", "60.00"); // insufficient funds after the first
+        PaymentEvent third = payment("EOS-B", "EOS-A", "10.00");
+
+        producer.sendPayments(List.of(first, second)).join();
+        try (KafkaProducer<String, byte[]> raw = new KafkaProducer<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new ByteArraySerializer())) {
+            raw.send(new ProducerRecord<>(KafkaConfig.PAYMENTS_TOPIC, "EOS-A", "not a payment".getBytes(StandardCharsets.UTF_8)));
+        }
+        producer.sendPayments(List.of(third)).join();
+
+        Map<String, Object> props = KafkaTestUtils.consumerProps("eos-test", "false", broker);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromEmbeddedTopics(consumer, KafkaConfig.PAYMENTS_SETTLED_TOPIC,
+                    KafkaConfig.PAYMENTS_REJECTED_TOPIC, KafkaConfig.PAYMENTS_DLT);
+            Map<String, List<String>> byTopic = StreamSupport.stream(
+                            KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), 4).spliterator(), false)
+                    .collect(Collectors.groupingBy(ConsumerRecord::topic,
+                            Collectors.mapping(ConsumerRecord::value, Collectors.toList())));
+
+            assertThat(byTopic.get(KafkaConfig.PAYMENTS_SETTLED_TOPIC)).hasSize(2)
+                    .anySatisfy(value -> assertThat(value).contains(first.getTransactionId()))
+                    .anySatisfy(value -> assertThat(value).contains(third.getTransactionId()));
+            assertThat(byTopic.get(KafkaConfig.PAYMENTS_REJECTED_TOPIC)).singleElement()
+                    .satisfies(value -> assertThat(value).contains(second.getTransactionId(), "Insufficient funds"));
+            assertThat(byTopic.get(KafkaConfig.PAYMENTS_DLT)).containsExactly("not a payment");
+        }
+        assertThat(balanceRepository.findById("EOS-A").orElseThrow().getAmount()).isEqualTo(Money.parse("50.00"));
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
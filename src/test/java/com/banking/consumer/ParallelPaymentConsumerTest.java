@@ -0,0 +1,213 @@
+package com.banking.consumer;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import com.banking.service.SettlementExecutor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Calls the listener directly with hand-made polls, so the offsets it commits and the index it
+ * hands to the error handler can be checked exactly.
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.consumer.mode=parallel"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class ParallelPaymentConsumerTest {
+
+    @Autowired
+    private ParallelPaymentConsumer parallelPaymentConsumer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private SettlementExecutor settlementExecutor;
+
+    @Test
+    void shouldCommitTheCompletedPrefixAndSkipRedeliveredDuplicates() {
+        account("PAR-A", "100.00");
+        account("PAR-B", "100.00");
+        account("PAR-C", "100.00");
+        account("PAR-D", "100.00");
+        // Every source account pays into its own target: the groups do not conflict
+        account("PAR-A-TO", "0.00");
+        account("PAR-B-TO", "0.00");
+        account("PAR-C-TO", "0.00");
+        account("PAR-D-TO", "0.00");
+        PaymentEvent failing = payment("PAR-B", "PAR-B-TO", "2.00");
+        PaymentEvent afterGap = payment("PAR-C", "PAR-C-TO", "3.00");
+        PaymentEvent otherPartition = payment("PAR-D", "PAR-D-TO", "5.00");
+        List<ConsumerRecord<String, PaymentEvent>> poll = List.of(
+                record(0, 10, payment("PAR-A", "PAR-A-TO", "1.00")),
+                record(0, 11, failing),
+                record(0, 12, afterGap),
+                record(0, 13, payment("PAR-B", "PAR-B-TO", "4.00")),
+                record(1, 20, otherPartition));
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            PaymentEvent event = invocation.getArgument(0);
+            if (event == failing && failed.compareAndSet(false, true)) {
+                throw new TransientDataAccessResourceException("Connection reset");
+            }
+            return invocation.callRealMethod();
+        }).when(settlementExecutor).process(any());
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        BatchListenerFailedException thrown = catchThrowableOfType(
+                () -> parallelPaymentConsumer.consume(poll, consumer, ack), BatchListenerFailedException.class);
+
+        assertThat(thrown.getIndex()).isEqualTo(1);
+        // Partition 0 stops at the failed record although offset 12 completed, partition 1 is done
+        verify(consumer).commitSync(Map.of(
+                new TopicPartition(KafkaConfig.PAYMENTS_TOPIC, 0), new OffsetAndMetadata(11),
+                new TopicPartition(KafkaConfig.PAYMENTS_TOPIC, 1), new OffsetAndMetadata(21)));
+        verify(ack, never()).acknowledge();
+        assertThat(rows(afterGap)).isEqualTo(1);
+        assertThat(rows(failing)).isZero();
+
+        // The error handler seeks back to the failed record, everything after it comes again
+        parallelPaymentConsumer.consume(poll.subList(1, poll.size()), consumer, ack);
+
+        verify(ack).acknowledge();
+        verify(settlementExecutor, times(2)).process(afterGap);
+        verify(settlementExecutor, times(2)).process(otherPartition);
+        assertThat(rows(afterGap)).isEqualTo(1);
+        assertThat(rows(otherPartition)).isEqualTo(1);
+        assertThat(rows(failing)).isEqualTo(1);
+        assertThat(balanceRepository.findById("PAR-B-TO").orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("6.00"));
+        assertThat(balanceRepository.findById("PAR-B").orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("94.00"));
+    }
+
+    @Test
+    void shouldSettleEachSourceAccountInOrderAcrossVirtualThreads() {
+        int accounts = 6;
+        int perAccount = 20;
+        List<ConsumerRecord<String, PaymentEvent>> poll = new ArrayList<>();
+        Map<String, List<String>> sent = new ConcurrentHashMap<>();
+        for (int a = 0; a < accounts; a++) {
+            account("ORD-FROM-" + a, "1000.00");
+            account("ORD-TO-" + a, "0.00");
+        }
+        // Accounts interleaved within the poll, as they arrive from the partitions
+        for (int i = 0; i < perAccount; i++) {
+            for (int a = 0; a < accounts; a++) {
+                PaymentEvent event = payment("ORD-FROM-" + a, "ORD-TO-" + a, "1.00");
+                sent.computeIfAbsent(event.getFromAccountId(), key -> new ArrayList<>()).add(event.getTransactionId());
+                poll.add(record(a % 2, poll.size(), event));
+            }
+        }
+        Map<String, List<String>> settled = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            PaymentEvent event = invocation.getArgument(0);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+                settled.computeIfAbsent(event.getFromAccountId(), key -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(event.getTransactionId());
+                return invocation.callRealMethod();
+            } finally {
+                running.decrementAndGet();
+            }
+        }).when(settlementExecutor).process(any());
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        parallelPaymentConsumer.consume(poll, consumer, ack);
+
+        verify(ack).acknowledge();
+        verify(consumer, never()).commitSync(any(Map.class));
+        assertThat(maxRunning.get()).isGreaterThan(1);
+        assertThat(settled).isEqualTo(sent);
+        for (int a = 0; a < accounts; a++) {
+            assertThat(balanceRepository.findById("ORD-FROM-" + a).orElseThrow().getAmount())
+                    .isEqualByComparingTo(Money.parse("980.00"));
+        }
+    }
+
+    private int rows(PaymentEvent event) {
+        return jdbcTemplate.queryForObject("select count(*) from transactions where external_id = ?",
+                Integer.class, event.getTransactionId());
+    }
+
+    private static ConsumerRecord<String, PaymentEvent> record(int partition, long offset, PaymentEvent event) {
+        return new ConsumerRecord<>(KafkaConfig.PAYMENTS_TOPIC, partition, offset, event.getFromAccountId(), event);
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,116 @@
+package com.banking.consumer;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.producer.PaymentProducer;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "banking.outbox.relay-enabled=false",
+        "banking.consumer.retry.non-blocking=true",
+        "banking.consumer.retry.attempts=3",
+        "banking.consumer.retry.initial-interval=200ms"
+})
+@EmbeddedKafka(partitions = 2, topics = {KafkaConfig.PAYMENTS_TOPIC, KafkaConfig.PAYMENTS_DLT})
+@ActiveProfiles({"test", "embedded"})
+class RetryClassificationTest {
+
+    @Autowired
+    private PaymentProducer producer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Test
+    void shouldRecordRejectionsAtOnceAndRetryTechnicalFailuresOffThePartition() {
+        account("RETRY-A", "100.00");
+        account("RETRY-B", "0.00");
+        PaymentEvent rejected = payment("RETRY-A", "500.00");
+        // No amount: fails with a NullPointerException, which is not a rejection
+        PaymentEvent broken = payment("RETRY-A", null);
+        PaymentEvent healthy = payment("RETRY-A", "40.00");
+
+        producer.sendPayments(List.of(rejected, broken, healthy)).join();
+
+        // The healthy payment behind the broken one (same key, same partition) is not held up by its retries
+        await().atMost(Duration.ofSeconds(20)).until(() ->
+                transactionRepository.findByExternalId(healthy.getTransactionId()).isPresent());
+        assertThat(transactionRepository.findByExternalId(rejected.getTransactionId())).get()
+                .satisfies(tx -> {
+                    assertThat(tx.getStatus()).isEqualTo(Transaction.TransactionStatus.FAILED);
+                    assertThat(tx.getFailureReason()).contains("Insufficient funds");
+                });
+        assertThat(transactionRepository.findByExternalId(broken.getTransactionId())).isEmpty();
+
+        try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps("retry-test", "false", broker),
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, KafkaConfig.PAYMENTS_DLT);
+            ConsumerRecord<String, byte[]> deadLettered =
+                    KafkaTestUtils.getSingleRecord(consumer, KafkaConfig.PAYMENTS_DLT, Duration.ofSeconds(30));
+            assertThat(new String(deadLettered.value())).contains(broken.getTransactionId());
+        }
+        assertThat(meterRegistry.find("banking.kafka.partition.stall").timers()).isNotEmpty();
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+
+    private static PaymentEvent payment(String from, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId("RETRY-B")
+                .amount(amount != null ? Money.parse(amount) : null)
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.banking.domain;
+
+import com.banking.dto.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void shouldParseAndFormatPlainDecimals() {
+        assertThat(Money.parse("1234.50")).isEqualTo(Money.ofMinor(123450, 2));
+        assertThat(Money.parse("-0.05")).isEqualTo(Money.ofMinor(-5, 2));
+        assertThat(Money.parse("100")).isEqualTo(Money.ofMinor(100, 0));
+        assertThat(Money.parse("1E+2")).isEqualTo(Money.ofMinor(100, 0));
+        assertThat(Money.ofMinor(-5, 2)).hasToString("-0.05");
+        assertThat(Money.ofMinor(123450, 2)).hasToString("1234.50");
+    }
+
+    @Test
+    void shouldRejectAmountsWithoutDigits() {
+        for (String text : new String[]{"", "-", ".", "-.", "+.", "1.2.3", "1,5"}) {
+            assertThatThrownBy(() -> Money.parse(text)).as(text).isInstanceOf(NumberFormatException.class);
+        }
+        assertThat(Money.parse("5.")).isEqualTo(Money.ofMinor(5, 0));
+        assertThat(Money.parse(".5")).isEqualTo(Money.ofMinor(5, 1));
+    }
+
+    @Test
+    void shouldKeepArithmeticExact() {
+        Money balance = Money.parse("1000.00");
+
+        assertThat(balance.minus(Money.parse("0.1"))).isEqualTo(Money.parse("999.90"));
+        assertThat(balance.plus(Money.parse("0.005"))).isEqualTo(Money.parse("1000.005"));
+        assertThat(Money.parse("900.00")).isEqualByComparingTo(Money.parse("900"));
+        assertThat(Money.parse("10.5").withScale(2)).isEqualTo(Money.parse("10.50"));
+        assertThat(Money.parse("10.005").withScale(2, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("10.00"));
+        assertThatThrownBy(() -> Money.parse("10.005").withScale(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE, 2).plus(Money.ofMinor(1, 2)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldUseCurrencyScale() {
+        assertThat(Money.of(new BigDecimal("5"), "JPY")).isEqualTo(Money.ofMinor(5, 0));
+        assertThat(Money.of(new BigDecimal("5"), "KWD")).isEqualTo(Money.ofMinor(5000, 3));
+        assertThatThrownBy(() -> Money.of(new BigDecimal("5.5"), "JPY")).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldRoundTripThroughJsonAsNumber() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        PaymentEvent event = PaymentEvent.builder().transactionId("tx-1").amount(Money.parse("100.50")).build();
+
+        String json = mapper.writeValueAsString(event);
+
+        assertThat(json).contains("\"amount\":100.50");
+        assertThat(mapper.readValue(json, PaymentEvent.class).getAmount()).isEqualTo(Money.parse("100.50"));
+        assertThat(mapper.readValue("{\"amount\":\"7.25\"}", PaymentEvent.class).getAmount()).isEqualTo(Money.parse("7.25"));
+        // More than 18 decimals
+        assertThatThrownBy(() -> mapper.readValue("{\"amount\":0.0000000000000000001}", PaymentEvent.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> mapper.readValue("{\"amount\":\"0.0000000000000000001\"}", PaymentEvent.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+}
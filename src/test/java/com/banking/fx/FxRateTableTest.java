@@ -0,0 +1,78 @@
+package com.banking.fx;
+
+import com.banking.config.BankingProperties;
+import com.banking.domain.Money;
+import com.banking.exception.UnsupportedCurrencyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FxRateTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldConvertWithQuotedAndDerivedRates() throws IOException {
+        FxRateTable table = table(Files.writeString(directory.resolve("rates.csv"), """
+                pair,rate
+                # mid rates
+                EUR/USD,1.0850
+                EUR/JPY,162.5
+                JPY/EUR,0.0061
+                """));
+
+        assertThat(table.convert(Money.parse("10.00"), "EUR", "USD", 2))
+                .isEqualTo(new Conversion(Money.parse("10.85"), "USD", new BigDecimal("1.0850000000")));
+        // 1 / 1.085 = 0.9216589862, 10.00 USD -> 9.216589862 EUR, half-even to cents
+        assertThat(table.convert(Money.parse("10.00"), "USD", "EUR", 2).amount()).isEqualTo(Money.parse("9.22"));
+        // JPY has no minor unit: 0.01 * 162.5 = 1.625 -> 2
+        assertThat(table.convert(Money.parse("0.01"), "EUR", "JPY", 2).amount()).isEqualTo(Money.parse("2"));
+        // The quoted inverse wins over the derived one
+        assertThat(table.current().rate("JPY", "EUR")).isEqualByComparingTo("0.0061");
+        assertThat(table.current().size()).isEqualTo(4);
+        assertThatThrownBy(() -> table.convert(Money.parse("1.00"), "USD", "JPY", 2))
+                .isInstanceOf(UnsupportedCurrencyException.class)
+                .hasMessage("No FX rate for USD/JPY");
+    }
+
+    @Test
+    void shouldKeepRatesWhenRefreshFailsAndRefuseStaleRates() throws IOException {
+        Path file = Files.writeString(directory.resolve("rates.csv"), "EUR/USD,1.0850\n");
+        FxRateTable table = table(file);
+        FxRates loaded = table.current();
+
+        Files.writeString(file, "EUR/USD,-1\n");
+        Files.setLastModifiedTime(file, FileTime.from(loaded.asOf().plusSeconds(1)));
+        table.refresh();
+        assertThat(table.current()).isSameAs(loaded);
+
+        Files.writeString(file, "EUR/USD,1.0900\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        table.refresh();
+        assertThat(table.current().rate("EUR", "USD")).isEqualByComparingTo("1.09");
+        assertThatThrownBy(() -> table.convert(Money.parse("1.00"), "EUR", "USD", 2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("older than");
+    }
+
+    private static FxRateTable table(Path file) {
+        BankingProperties properties = new BankingProperties();
+        properties.getFx().setSource(BankingProperties.FxSource.FILE);
+        properties.getFx().setRateFile(file);
+        FxRateTable table = new FxRateTable(null, properties, new SimpleMeterRegistry());
+        table.load();
+        return table;
+    }
+}
@@ -0,0 +1,41 @@
+package com.banking.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void growsWithoutFalseNegativesAndKeepsTheErrorRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_024, 0.01, 16);
+        int keys = 50_000;
+        for (int i = 0; i < keys; i++) {
+            filter.add("TX-" + i);
+        }
+
+        assertThat(filter.sliceCount()).isGreaterThan(1);
+        for (int i = 0; i < keys; i++) {
+            assertThat(filter.mightContain("TX-" + i)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("OTHER-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.01);
+    }
+
+    @Test
+    void forgetsTheOldestSliceBeyondTheLimit() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_024, 0.01, 2);
+        for (int i = 0; i < 1_024 + 2_048 + 1; i++) {
+            filter.add("TX-" + i);
+        }
+
+        assertThat(filter.sliceCount()).isEqualTo(2);
+        assertThat(filter.hasDroppedSlices()).isTrue();
+        assertThat(filter.mightContain("TX-" + (1_024 + 2_048))).isTrue();
+    }
+}
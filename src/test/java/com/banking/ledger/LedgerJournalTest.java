@@ -0,0 +1,73 @@
+package com.banking.ledger;
+
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayEntriesAfterCheckpointAndDropTornTail() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, false)) {
+            journal.append(entry(1, Transaction.TransactionStatus.COMPLETED, null));
+            journal.append(entry(2, Transaction.TransactionStatus.FAILED, "Insufficient funds in account: ACC1"));
+            journal.roll();
+            journal.append(new JournalEntry(3, "tx-3", "ACC1", "ACC3", 10_000L, 2, "EUR",
+                    Transaction.TransactionStatus.COMPLETED, null, LocalDateTime.now(),
+                    Money.parse("108.50"), "USD", new BigDecimal("1.0850000000")));
+        }
+        // Simulate a crash in the middle of the next append
+        Path lastSegment;
+        try (var files = Files.list(directory)) {
+            lastSegment = files.sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        Files.write(lastSegment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        long last = new LedgerJournal(directory, false).replay(1, replayed::add);
+
+        assertThat(last).isEqualTo(3);
+        assertThat(replayed).extracting(JournalEntry::sequence).containsExactly(2L, 3L);
+        assertThat(replayed.get(0).failureReason()).contains("Insufficient funds");
+        assertThat(replayed.get(0).fxRate()).isNull();
+        assertThat(replayed.get(1).amountMinor()).isEqualTo(10_000L);
+        assertThat(replayed.get(1).creditedAmount()).isEqualTo(Money.parse("108.50"));
+        assertThat(replayed.get(1).creditedCurrency()).isEqualTo("USD");
+        assertThat(replayed.get(1).fxRate()).isEqualTo("1.0850000000");
+    }
+
+    @Test
+    void shouldDeleteSegmentsCoveredByCheckpoint() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, false)) {
+            journal.append(entry(1, Transaction.TransactionStatus.COMPLETED, null));
+            journal.roll();
+            journal.append(entry(2, Transaction.TransactionStatus.COMPLETED, null));
+            journal.deleteClosedSegments(1);
+        }
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        new LedgerJournal(directory, false).replay(0, replayed::add);
+
+        assertThat(replayed).extracting(JournalEntry::sequence).containsExactly(2L);
+    }
+
+    private static JournalEntry entry(long sequence, Transaction.TransactionStatus status, String failureReason) {
+        return new JournalEntry(sequence, "tx-" + sequence, "ACC1", "ACC2", 10_000L, 2, "EUR",
+                status, failureReason, LocalDateTime.now(), null, null, null);
+    }
+}
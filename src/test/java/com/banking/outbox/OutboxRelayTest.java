@@ -0,0 +1,91 @@
+package com.banking.outbox;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.OutboxEventRepository;
+import com.banking.serialization.PaymentEventDeserializer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.batch-size=8"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class OutboxRelayTest {
+
+    @Autowired
+    private PaymentOutbox paymentOutbox;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Test
+    void shouldPublishCommittedEventsAndRollBackWithTheCaller() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<PaymentEvent> committed = IntStream.range(0, 20).mapToObj(i -> payment("ACC00" + (i % 3))).toList();
+        PaymentEvent rolledBack = payment("ACC009");
+
+        transaction.executeWithoutResult(status -> paymentOutbox.enqueueAll(committed));
+        transaction.executeWithoutResult(status -> {
+            paymentOutbox.enqueue(rolledBack);
+            status.setRollbackOnly();
+        });
+
+        try (Consumer<String, PaymentEvent> consumer = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps("outbox-test", "false", broker),
+                new StringDeserializer(), new PaymentEventDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, KafkaConfig.PAYMENTS_TOPIC);
+            List<ConsumerRecord<String, PaymentEvent>> records = StreamSupport.stream(
+                    KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(20), committed.size()).spliterator(), false)
+                    .toList();
+
+            assertThat(records).extracting(ConsumerRecord::value).containsExactlyInAnyOrderElementsOf(committed);
+            assertThat(records).allSatisfy(record -> assertThat(record.key()).isEqualTo(record.value().getFromAccountId()));
+            // Per-account order is the enqueue order
+            assertThat(records.stream().filter(record -> record.key().equals("ACC000")).map(ConsumerRecord::value))
+                    .containsExactlyElementsOf(committed.stream().filter(event -> event.getFromAccountId().equals("ACC000")).toList());
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() -> outboxEventRepository.count() == 0);
+    }
+
+    private static PaymentEvent payment(String fromAccountId) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(fromAccountId)
+                .toAccountId("ACC100")
+                .amount(Money.parse("10.00"))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now().withNano(0))
+                .build();
+    }
+}
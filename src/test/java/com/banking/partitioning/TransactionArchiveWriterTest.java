@@ -0,0 +1,80 @@
+package com.banking.partitioning;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionArchiveWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDatabase database;
+    private TransactionArchiveWriter writer;
+
+    @BeforeEach
+    void createPartition() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("""
+                create table transactions_p2025_01 (
+                    id bigint primary key, external_id varchar(255), from_account_id varchar(255),
+                    to_account_id varchar(255), amount numeric(38, 2), currency varchar(255), status varchar(255),
+                    failure_reason varchar(255), created_at timestamp(6), processed_at timestamp(6),
+                    fx_rate numeric(24, 10), credited_amount numeric(38, 2), credited_currency varchar(255))""");
+        jdbcTemplate.update("""
+                insert into transactions_p2025_01 values
+                (2, 'TX-2', 'ACC1', 'ACC2', 5.00, 'EUR', 'FAILED', 'Insufficient funds: "ACC1", needs 5.00', '2025-01-31 23:59:59', null, null, null, null),
+                (1, 'TX-1', 'ACC1', 'ACC2', 12.50, 'EUR', 'COMPLETED', '', '2025-01-01 00:00:00', '2025-01-01 00:00:01', 1.0850000000, 13.56, 'USD')""");
+        writer = new TransactionArchiveWriter(database, new DataSourceTransactionManager(database), directory);
+    }
+
+    @AfterEach
+    void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    void shouldExportRowsInIdOrderAsQuotedCsv() throws IOException {
+        long rows = writer.export("transactions_p2025_01");
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(directory.resolve("transactions_p2025_01.csv.gz.tmp")).doesNotExist();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                Files.newInputStream(directory.resolve("transactions_p2025_01.csv.gz"))), StandardCharsets.UTF_8))) {
+            List<String> lines = in.lines().toList();
+            assertThat(lines).hasSize(3);
+            assertThat(lines.get(0)).isEqualTo(TransactionArchiveWriter.COLUMNS);
+            assertThat(lines.get(1)).startsWith("1,TX-1,ACC1,ACC2,12.50,EUR,COMPLETED,\"\",2025-01-01 00:00:00")
+                    .endsWith(",1.0850000000,13.56,USD");
+            assertThat(lines.get(2))
+                    .startsWith("2,TX-2,ACC1,ACC2,5.00,EUR,FAILED,\"Insufficient funds: \"\"ACC1\"\", needs 5.00\",")
+                    .endsWith(",");
+        }
+    }
+
+    @Test
+    void shouldOnlyRecognizeMonthlyPartitionNames() {
+        assertThat(TransactionPartitionMaintenance.month("transactions_p2025_01")).contains(YearMonth.of(2025, 1));
+        assertThat(TransactionPartitionMaintenance.month("transactions_archive")).isEmpty();
+        assertThat(TransactionPartitionMaintenance.month("transactions_p2025_13")).isEmpty();
+    }
+}
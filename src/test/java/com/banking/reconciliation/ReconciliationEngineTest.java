@@ -0,0 +1,148 @@
+package com.banking.reconciliation;
+
+import com.banking.config.BankingProperties;
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.service.BankingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.reconciliation.enabled=true",
+        "banking.reconciliation.settle-window=0s",
+        "banking.reconciliation.chunk-size=3",
+        "banking.reconciliation.statements=csv"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class ReconciliationEngineTest {
+
+    @TempDir
+    static Path statements;
+
+    @DynamicPropertySource
+    static void statementDirectory(DynamicPropertyRegistry registry) {
+        registry.add("banking.reconciliation.statement-directory", statements::toString);
+    }
+
+    @Autowired
+    private ReconciliationEngine reconciliationEngine;
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldReconcileIncrementallyAndFlagDrift() throws IOException {
+        account("REC-A", "100.00");
+        account("REC-B", "100.00");
+        account("REC-C", "0.00");
+        settle("REC-A", "REC-B", "10.00");
+        settle("REC-B", "REC-C", "5.00");
+        settle("REC-A", "REC-C", "1.50");
+        settle("REC-C", "REC-A", "2.00");
+        settle("REC-A", "REC-B", "1000.00"); // FAILED, not counted
+
+        ReconciliationEngine.Result first = reconciliationEngine.run();
+
+        assertThat(first.transactions()).isEqualTo(4);
+        assertThat(first.adopted()).isEqualTo(first.accounts());
+        assertThat(first.drifting()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select opening from account_totals where account_id = 'REC-A'",
+                BigDecimal.class)).isEqualByComparingTo("100.00");
+
+        settle("REC-B", "REC-A", "3.00");
+        jdbcTemplate.update("update balances set amount = amount + 1 where account_id = 'REC-B'");
+
+        ReconciliationEngine.Result second = reconciliationEngine.run();
+
+        assertThat(second.transactions()).isEqualTo(1);
+        assertThat(second.adopted()).isZero();
+        assertThat(second.drifts()).singleElement().satisfies(drift -> {
+            assertThat(drift.accountId()).isEqualTo("REC-B");
+            assertThat(drift.balance()).isEqualByComparingTo(Money.parse("103.00"));
+            assertThat(drift.expected()).isEqualByComparingTo(Money.parse("102.00"));
+        });
+
+        // Chunks of 3: the first run wrote segments 1 and 2, the second one segment 3
+        assertThat(statements.resolve("segment-000003")).isDirectory();
+        List<String> lines = new ArrayList<>();
+        for (String segment : List.of("segment-000001", "segment-000002", "segment-000003")) {
+            Path file = statements.resolve(segment).resolve("REC-A.csv");
+            if (Files.exists(file)) {
+                List<String> segmentLines = Files.readAllLines(file);
+                assertThat(segmentLines.get(0)).isEqualTo(StatementWriter.CSV_HEADER);
+                lines.addAll(segmentLines.subList(1, segmentLines.size()));
+            }
+        }
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).contains(",REC-B,-10.00,EUR");
+        assertThat(lines.get(3)).contains(",REC-B,3.00,EUR");
+    }
+
+    @Test
+    void shouldRefuseTheInMemoryLedger() {
+        BankingProperties properties = new BankingProperties();
+        properties.getLedger().setMode(BankingProperties.LedgerMode.IN_MEMORY);
+
+        assertThatThrownBy(() -> new ReconciliationEngine(null, null, null, null, null, null, properties, null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in-memory ledger");
+    }
+
+    private void settle(String from, String to, String amount) {
+        bankingService.processPayment(PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,94 @@
+package com.banking.serialization;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentEventCodecTest {
+
+    private final PaymentEventSerializer serializer = new PaymentEventSerializer(PaymentEventSerializer.Format.BINARY);
+    private final PaymentEventDeserializer deserializer = new PaymentEventDeserializer();
+
+    private final PaymentEvent event = PaymentEvent.builder()
+            .transactionId("9b2f1c8e-0d7a-4a55-b1f3-3f0d2c6a7e41")
+            .fromAccountId("DE123456789")
+            .toAccountId("Zürich-42")
+            .amount(Money.parse("-125.40"))
+            .currency("EUR")
+            .timestamp(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789))
+            .build();
+
+    @Test
+    void shouldRoundTripBinaryFromHeapAndDirectBuffers() {
+        byte[] payload = serializer.serialize("payments", event);
+
+        assertThat(payload[0]).isEqualTo(PaymentEventCodec.VERSION_1);
+        assertThat(deserializer.deserialize("payments", payload)).isEqualTo(event);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(payload.length + 4);
+        direct.position(4);
+        direct.put(payload).position(4);
+        assertThat(deserializer.deserialize("payments", null, direct)).isEqualTo(event);
+    }
+
+    @Test
+    void shouldRoundTripAbsentFields() {
+        PaymentEvent sparse = PaymentEvent.builder().transactionId("TX-1").build();
+
+        assertThat(deserializer.deserialize("payments", serializer.serialize("payments", sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    void shouldReadJsonWrittenBySpringJsonSerializer() {
+        try (JsonSerializer<PaymentEvent> json = new JsonSerializer<>()) {
+            byte[] payload = json.serialize("payments", event);
+
+            assertThat(deserializer.deserialize("payments", payload)).isEqualTo(event);
+            assertThat(serializer.serialize("payments", event)).hasSizeLessThan(payload.length / 2);
+        }
+    }
+
+    @Test
+    void shouldWriteJsonThatThePreviousConsumersRead() {
+        PaymentEventSerializer jsonSerializer = new PaymentEventSerializer();
+        jsonSerializer.configure(Map.of(PaymentEventSerializer.FORMAT_CONFIG, "json"), false);
+        Headers headers = new RecordHeaders();
+        byte[] payload = jsonSerializer.serialize("payments", headers, event);
+        byte[] stored = jsonSerializer.serialize("payments", event); // as written to the outbox
+
+        // Configured like the consumers before the binary format: trusted packages, no default type
+        try (JsonDeserializer<Object> previous = new JsonDeserializer<>()) {
+            previous.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.banking.dto"), false);
+
+            assertThat(previous.deserialize("payments", headers, payload)).isEqualTo(event);
+            assertThat(previous.deserialize("payments",
+                    PaymentEventSerializer.typeHeaders(new RecordHeaders(), stored), stored)).isEqualTo(event);
+        }
+        assertThat(PaymentEventSerializer.typeHeaders(new RecordHeaders(), serializer.serialize("payments", event)))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldRejectUnknownVersionsAndTruncatedPayloads() {
+        byte[] payload = serializer.serialize("payments", event);
+
+        assertThatThrownBy(() -> deserializer.deserialize("payments", Arrays.copyOf(payload, payload.length - 3)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> PaymentEventCodec.decode(ByteBuffer.wrap(new byte[]{2, 0})))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version 2");
+    }
+}
@@ -0,0 +1,93 @@
+package com.banking.service;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class BatchSettlementStatementsTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int PAYMENTS = 200;
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldFlushABatchAsOneStatementPerTable() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            account("STMT-" + i, "1000.00");
+        }
+        List<PaymentEvent> events = new ArrayList<>(PAYMENTS);
+        for (int i = 0; i < PAYMENTS; i++) {
+            events.add(PaymentEvent.builder()
+                    .transactionId(UUID.randomUUID().toString())
+                    .fromAccountId("STMT-" + i % ACCOUNTS)
+                    .toAccountId("STMT-" + (i + 1) % ACCOUNTS)
+                    // Uneven amounts, so no balance ends the batch where it started
+                    .amount(Money.parse((1 + i % ACCOUNTS) + ".00"))
+                    .currency("EUR")
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Transaction> settled = bankingService.processBatch(events);
+
+        assertThat(settled).hasSize(PAYMENTS)
+                .allSatisfy(transaction -> assertThat(transaction.getId()).isNotNull());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(PAYMENTS);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(ACCOUNTS);
+        // Idempotency check (unless the Bloom filter is ready), balance load, nextval (twice on the
+        // first allocation), the INSERT batch and the UPDATE batch. IDENTITY keys would prepare one
+        // INSERT per payment, an eager Balance.account one SELECT per balance.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
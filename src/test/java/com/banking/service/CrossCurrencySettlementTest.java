@@ -0,0 +1,146 @@
+package com.banking.service;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.fx.source=file"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class CrossCurrencySettlementTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void rateFile(DynamicPropertyRegistry registry) {
+        registry.add("banking.fx.rate-file", () -> {
+            try {
+                return Files.writeString(directory.resolve("fx-rates.csv"), "EUR/USD,1.0850\nEUR/KWD,0.3345\n").toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Test
+    void shouldConvertCreditsIntoTheTargetCurrency() {
+        account("FX-EUR", "EUR", "100.00");
+        account("FX-USD", "USD", "0.00");
+        account("FX-GBP", "GBP", "0.00");
+
+        Transaction converted = bankingService.processPayment(event("FX-EUR", "FX-USD", "10.00", "EUR")).orElseThrow();
+        Transaction mismatched = bankingService.processPayment(event("FX-EUR", "FX-USD", "10.00", "USD")).orElseThrow();
+
+        assertThat(converted.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(converted.getFxRate()).isEqualByComparingTo("1.085");
+        assertThat(converted.getCreditedAmount()).isEqualTo(Money.parse("10.85"));
+        assertThat(converted.getCreditedCurrency()).isEqualTo("USD");
+        assertThat(mismatched.getStatus()).isEqualTo(Transaction.TransactionStatus.FAILED);
+        assertThat(mismatched.getFailureReason()).isEqualTo("Currency USD does not match source account: FX-EUR");
+        assertThat(balance("FX-EUR")).isEqualByComparingTo(Money.parse("90.00"));
+        assertThat(balance("FX-USD")).isEqualByComparingTo(Money.parse("10.85"));
+
+        List<Transaction> batch = bankingService.processBatch(List.of(
+                event("FX-USD", "FX-EUR", "1.00", "USD"),
+                event("FX-EUR", "FX-GBP", "1.00", "EUR"),
+                event("FX-EUR", "FX-EUR", "1.00", "EUR")));
+
+        assertThat(batch).extracting(Transaction::getStatus).containsExactly(
+                Transaction.TransactionStatus.COMPLETED,
+                Transaction.TransactionStatus.FAILED,
+                Transaction.TransactionStatus.COMPLETED);
+        // 1 / 1.085 = 0.9216589862
+        assertThat(batch.get(0).getCreditedAmount()).isEqualTo(Money.parse("0.92"));
+        assertThat(batch.get(1).getFailureReason()).isEqualTo("No FX rate for EUR/GBP");
+        assertThat(batch.get(2).getFxRate()).isNull();
+        assertThat(balance("FX-EUR")).isEqualByComparingTo(Money.parse("90.92"));
+        assertThat(balance("FX-USD")).isEqualByComparingTo(Money.parse("9.85"));
+        assertThat(balance("FX-GBP")).isEqualByComparingTo(Money.parse("0.00"));
+    }
+
+    @Test
+    void shouldRoundCreditsIntoAThreeDecimalCurrencyToTheBalanceScale() {
+        account("FX-EUR-2", "EUR", "100.00");
+        account("FX-KWD", "KWD", "0.00");
+
+        // 10.00 * 0.3345 = 3.345 KWD, half-even to the 2 decimals of the balance
+        Transaction single = bankingService.processPayment(event("FX-EUR-2", "FX-KWD", "10.00", "EUR")).orElseThrow();
+        List<Transaction> batch = bankingService.processBatch(List.of(event("FX-EUR-2", "FX-KWD", "10.00", "EUR")));
+
+        assertThat(single.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(single.getCreditedAmount()).isEqualByComparingTo(Money.parse("3.34"));
+        assertThat(batch).singleElement().satisfies(transaction -> {
+            assertThat(transaction.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+            assertThat(transaction.getCreditedAmount()).isEqualByComparingTo(Money.parse("3.34"));
+        });
+        assertThat(balance("FX-EUR-2")).isEqualByComparingTo(Money.parse("80.00"));
+        assertThat(balance("FX-KWD")).isEqualByComparingTo(Money.parse("6.68"));
+    }
+
+    private Money balance(String accountId) {
+        return balanceRepository.findById(accountId).orElseThrow().getAmount();
+    }
+
+    private static PaymentEvent event(String from, String to, String amount, String currency) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency(currency)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void account(String id, String currency, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency(currency)
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,119 @@
+package com.banking.service;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.BalanceShard;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.BalanceShardRepository;
+import com.banking.sharding.HotAccounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.hot-accounts.accounts=HOT-MERCHANT",
+        "banking.hot-accounts.shards=4"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class HotAccountSettlementTest {
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Autowired
+    private AccountQueryService accountQueryService;
+
+    @Autowired
+    private HotAccounts hotAccounts;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private BalanceShardRepository balanceShardRepository;
+
+    @Test
+    void shouldCreditShardsAndDebitThroughTheBalanceRow() {
+        account("HOT-MERCHANT", "0.00");
+        account("HOT-PAYER", "100.00");
+        hotAccounts.prepareShards();
+
+        IntStream.range(0, 6).forEach(i ->
+                bankingService.processPayment(event("HOT-CREDIT-" + i, "HOT-PAYER", "HOT-MERCHANT", "1.00")));
+        bankingService.processBatch(List.of(
+                event("HOT-CREDIT-6", "HOT-PAYER", "HOT-MERCHANT", "1.00"),
+                event("HOT-CREDIT-7", "HOT-PAYER", "HOT-MERCHANT", "1.00")));
+
+        Balance merchant = balanceRepository.findById("HOT-MERCHANT").orElseThrow();
+        List<BalanceShard> shards = balanceShardRepository.findByAccountIdOrderByShard("HOT-MERCHANT");
+        assertThat(merchant.getAmount()).isEqualByComparingTo(Money.parse("0.00"));
+        assertThat(merchant.getVersion()).isZero();
+        assertThat(shards).hasSize(4);
+        assertThat(shards).filteredOn(shard -> !shard.getAmount().isZero()).hasSizeGreaterThan(1);
+        assertThat(accountQueryService.balance("HOT-MERCHANT", null).orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("8.00"));
+
+        Transaction payout = bankingService.processPayment(event("HOT-DEBIT-1", "HOT-MERCHANT", "HOT-PAYER", "5.00"))
+                .orElseThrow();
+        Transaction overdraft = bankingService.processPayment(event("HOT-DEBIT-2", "HOT-MERCHANT", "HOT-PAYER", "3.01"))
+                .orElseThrow();
+
+        assertThat(payout.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(overdraft.getStatus()).isEqualTo(Transaction.TransactionStatus.FAILED);
+        assertThat(accountQueryService.balance("HOT-MERCHANT", null).orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("3.00"));
+        assertThat(accountQueryService.balance("HOT-PAYER", null).orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("97.00"));
+        // Shards were moved into the balance row in ascending order until it covered the payout
+        List<BalanceShard> swept = balanceShardRepository.findByAccountIdOrderByShard("HOT-MERCHANT");
+        int lastSwept = IntStream.range(0, 4).filter(i -> !shards.get(i).getAmount().isZero()
+                && swept.get(i).getAmount().isZero()).max().orElseThrow();
+        assertThat(swept.subList(lastSwept + 1, 4)).extracting(BalanceShard::getAmount)
+                .isEqualTo(shards.subList(lastSwept + 1, 4).stream().map(BalanceShard::getAmount).toList());
+    }
+
+    private static PaymentEvent event(String transactionId, String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(transactionId)
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
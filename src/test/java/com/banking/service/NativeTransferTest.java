@@ -0,0 +1,156 @@
+package com.banking.service;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.sharding.HotAccounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "banking.outbox.relay-enabled=false",
+        "banking.ledger.mode=native",
+        "banking.hot-accounts.accounts=NATIVE-HOT",
+        "banking.hot-accounts.shards=4"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles("test")
+class NativeTransferTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private SettlementExecutor settlementExecutor;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountQueryService accountQueryService;
+
+    @Autowired
+    private HotAccounts hotAccounts;
+
+    @Test
+    void shouldSettleRejectAndDeduplicateInOneStatement() {
+        account("NATIVE-A", "100.00");
+        account("NATIVE-B", "0.00");
+
+        PaymentEvent payment = payment("NATIVE-A", "NATIVE-B", "60.00");
+        List<Transaction> settled = settlementExecutor.process(payment);
+
+        assertThat(settled).singleElement().satisfies(transaction -> {
+            assertThat(transaction.getId()).isNotNull();
+            assertThat(transaction.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        });
+        assertThat(balanceRepository.findById("NATIVE-A")).get().satisfies(balance -> {
+            assertThat(balance.getAmount()).isEqualTo(Money.parse("40.00"));
+            assertThat(balance.getVersion()).isEqualTo(1L);
+        });
+        assertThat(balanceRepository.findById("NATIVE-B").orElseThrow().getAmount()).isEqualTo(Money.parse("60.00"));
+        assertThat(settlementExecutor.process(payment)).isEmpty();
+
+        PaymentEvent overdraft = payment("NATIVE-A", "NATIVE-B", "40.01");
+        assertThat(settlementExecutor.process(overdraft)).singleElement()
+                .extracting(Transaction::getFailureReason)
+                .isEqualTo("Insufficient funds in account: NATIVE-A");
+        PaymentEvent unknownTarget = payment("NATIVE-A", "NATIVE-MISSING", "1.00");
+        assertThat(settlementExecutor.processBatch(List.of(unknownTarget, payment("NATIVE-B", "NATIVE-A", "10.00"))))
+                .extracting(Transaction::getStatus)
+                .containsExactly(Transaction.TransactionStatus.FAILED, Transaction.TransactionStatus.COMPLETED);
+        assertThat(transactionRepository.findByExternalId(unknownTarget.getTransactionId())).get()
+                .extracting(Transaction::getFailureReason)
+                .isEqualTo("Target account not found: NATIVE-MISSING");
+
+        assertThat(balanceRepository.findById("NATIVE-A").orElseThrow().getAmount()).isEqualTo(Money.parse("50.00"));
+        assertThat(balanceRepository.findById("NATIVE-B").orElseThrow().getAmount()).isEqualTo(Money.parse("50.00"));
+    }
+
+    @Test
+    void shouldSweepTheShardsIntoTheBalanceRowForADebit() {
+        account("NATIVE-HOT", "0.00");
+        account("NATIVE-PAYER", "100.00");
+        hotAccounts.prepareShards();
+        IntStream.range(0, 8).forEach(i -> settlementExecutor.process(payment("NATIVE-PAYER", "NATIVE-HOT", "2.50")));
+        assertThat(balanceRepository.findById("NATIVE-HOT").orElseThrow().getAmount()).isEqualTo(Money.parse("0.00"));
+
+        PaymentEvent payout = payment("NATIVE-HOT", "NATIVE-PAYER", "12.00");
+        assertThat(settlementExecutor.process(payout)).singleElement()
+                .extracting(Transaction::getStatus)
+                .isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        PaymentEvent overdraft = payment("NATIVE-HOT", "NATIVE-PAYER", "8.01");
+        assertThat(settlementExecutor.process(overdraft)).singleElement()
+                .extracting(Transaction::getStatus)
+                .isEqualTo(Transaction.TransactionStatus.FAILED);
+
+        // The swept shards ended up in the balance row, nothing was lost on the way
+        assertThat(accountQueryService.balance("NATIVE-HOT", null).orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("8.00"));
+        assertThat(accountQueryService.balance("NATIVE-PAYER", null).orElseThrow().getAmount())
+                .isEqualByComparingTo(Money.parse("92.00"));
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
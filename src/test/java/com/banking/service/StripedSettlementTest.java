@@ -0,0 +1,126 @@
+package com.banking.service;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Account;
+import com.banking.domain.Balance;
+import com.banking.domain.Money;
+import com.banking.domain.Transaction;
+import com.banking.dto.PaymentEvent;
+import com.banking.repository.AccountRepository;
+import com.banking.repository.BalanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "banking.outbox.relay-enabled=false",
+        "banking.concurrency.mode=striped",
+        "banking.concurrency.max-retries=3"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class StripedSettlementTest {
+
+    @Autowired
+    private SettlementExecutor settlementExecutor;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceRepository balanceRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private BankingService bankingService;
+
+    @Test
+    void shouldSettleOppositeTransfersWithoutDeadlockAndRetryConflictsInProcess() throws Exception {
+        account("STRIPE-A", "100.00");
+        account("STRIPE-B", "100.00");
+        // Conflicts with another instance, which the stripes cannot prevent
+        AtomicInteger conflicts = new AtomicInteger(3);
+        doAnswer(invocation -> {
+            if (conflicts.getAndDecrement() > 0) {
+                throw new ObjectOptimisticLockingFailureException(Balance.class, "STRIPE-A");
+            }
+            return invocation.callRealMethod();
+        }).when(bankingService).processPayment(any());
+        double retriesBefore = retries();
+
+        List<Future<List<Transaction>>> settled = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 50; i++) {
+                settled.add(executor.submit(() -> settlementExecutor.process(payment("STRIPE-A", "STRIPE-B", "3.00"))));
+                settled.add(executor.submit(() -> settlementExecutor.process(payment("STRIPE-B", "STRIPE-A", "2.00"))));
+            }
+            for (Future<List<Transaction>> future : settled) {
+                // A deadlock would hang here
+                assertThat(future.get(30, TimeUnit.SECONDS)).singleElement()
+                        .extracting(Transaction::getStatus)
+                        .isEqualTo(Transaction.TransactionStatus.COMPLETED);
+            }
+        }
+
+        Money a = balanceRepository.findById("STRIPE-A").orElseThrow().getAmount();
+        Money b = balanceRepository.findById("STRIPE-B").orElseThrow().getAmount();
+        assertThat(a).isEqualByComparingTo(Money.parse("50.00"));
+        assertThat(a.plus(b)).isEqualByComparingTo(Money.parse("200.00"));
+        assertThat(retries() - retriesBefore).isEqualTo(3);
+    }
+
+    private double retries() {
+        return meterRegistry.find("banking.settlement.retries").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static PaymentEvent payment(String from, String to, String amount) {
+        return PaymentEvent.builder()
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(Money.parse(amount))
+                .currency("EUR")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private void account(String id, String balance) {
+        Account account = Account.builder()
+                .id(id)
+                .ownerName(id)
+                .currency("EUR")
+                .createdAt(LocalDateTime.now())
+                .build();
+        account.setBalance(Balance.builder()
+                .accountId(id)
+                .account(account)
+                .amount(Money.parse(balance))
+                .build());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.soak;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Outcome of a {@link SoakTest} run, written as JSON ({@code soak.report}, by default
+ * {@code target/soak-report.json}) so runs can be compared over time.
+ *
+ * @param settings         the application settings the run was made with, e.g. the consumer mode
+ * @param throughput       unique payments settled per second, from the first send to the last settlement
+ * @param latencyMillis    from sending a payment to its settlement ({@code processedAt})
+ * @param invariants       by name; the run failed if any did not hold
+ */
+record SoakReport(SoakWorkload workload, Map<String, String> settings, Counts counts, long elapsedMillis,
+                  double throughput, Latency latencyMillis, Map<String, Invariant> invariants) {
+
+    boolean invariantsHold() {
+        return invariants.values().stream().allMatch(Invariant::held);
+    }
+
+    record Counts(int sent, int redeliveries, int unique, long completed, long failed) {
+    }
+
+    record Latency(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+
+        /** @param micros latencies in microseconds */
+        static Latency of(Histogram micros) {
+            return new Latency(micros.getTotalCount(),
+                    micros.getMean() / 1_000,
+                    micros.getValueAtPercentile(50) / 1_000.0,
+                    micros.getValueAtPercentile(90) / 1_000.0,
+                    micros.getValueAtPercentile(99) / 1_000.0,
+                    micros.getValueAtPercentile(99.9) / 1_000.0,
+                    micros.getMaxValue() / 1_000.0);
+        }
+    }
+
+    record Invariant(boolean held, String detail) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.banking.soak;
+
+import com.banking.config.KafkaConfig;
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+import com.banking.producer.PaymentProducer;
+import com.banking.sharding.HotAccounts;
+import com.banking.startup.AccountSeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Drives a {@link SoakWorkload} through {@link PaymentProducer}, the embedded broker and the
+ * payment listener into H2, fully offline, then checks the ledger and writes a {@link SoakReport}.
+ * The default workload is small enough for every build; a soak run scales it up and may switch the
+ * application settings, which are read from system properties as well, e.g.
+ * <pre>
+ * mvn test -Dtest=SoakTest -Dsoak.payments=500000 -Dsoak.rate=100 -Dsoak.timeout=PT2H -Dbanking.consumer.mode=batch
+ * </pre>
+ * The payments are generated deterministically; how they interleave over the partitions is not.
+ */
+@SpringBootTest(properties = {
+        // Straight to the broker: the outbox would add the relay's poll interval to every latency
+        "banking.outbox.enabled=false",
+        "banking.outbox.relay-enabled=false"
+})
+@EmbeddedKafka(partitions = 2, topics = KafkaConfig.PAYMENTS_TOPIC)
+@ActiveProfiles({"test", "embedded"})
+class SoakTest {
+
+    @Autowired
+    private PaymentProducer producer;
+
+    @Autowired
+    private AccountSeeder accountSeeder;
+
+    @Autowired
+    private HotAccounts hotAccounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private record Settled(String externalId, String from, String to, Money amount, String status,
+                           LocalDateTime processedAt) {
+    }
+
+    @Test
+    void shouldSettleTheWorkloadWithoutBreakingTheLedger() throws IOException {
+        SoakWorkload workload = SoakWorkload.fromSystemProperties();
+        accountSeeder.seed(workload.accountIds().stream()
+                .map(id -> new AccountSeeder.Seed(id, id, "EUR", workload.initialBalance()))
+                .toList());
+        // Hot accounts configured for the run exist only now
+        hotAccounts.prepareShards();
+        SoakWorkload.Load load = workload.generate();
+        long consumedBefore = consumed();
+
+        LocalDateTime started = LocalDateTime.now();
+        long startedNanos = System.nanoTime();
+        long intervalNanos = workload.rate() > 0 ? (long) (1_000_000_000 / workload.rate()) : 0;
+        AtomicLong scheduled = new AtomicLong();
+        PaymentProducer.BulkSendResult sent = producer.sendPayments(load.events().stream().map(event -> {
+            long due = scheduled.getAndIncrement() * intervalNanos;
+            for (long wait = due - (System.nanoTime() - startedNanos); wait > 0;
+                 wait = due - (System.nanoTime() - startedNanos)) {
+                LockSupport.parkNanos(wait);
+            }
+            if (event.getTimestamp() == null) {
+                // Stamped when it was due, so a send held up by the producer counts against latency
+                event.setTimestamp(intervalNanos > 0 ? started.plusNanos(due) : LocalDateTime.now());
+            }
+            return event;
+        })).join();
+        assertThat(sent.isComplete()).isTrue();
+        await().atMost(Duration.parse(System.getProperty("soak.timeout", "PT5M")))
+                .pollInterval(Duration.ofMillis(200))
+                .until(() -> consumed() - consumedBefore >= load.events().size());
+
+        List<Settled> settled = jdbcTemplate.query("""
+                        select external_id, from_account_id, to_account_id, amount, status, processed_at
+                        from transactions where external_id like 'SOAK-%'""",
+                (row, i) -> new Settled(row.getString(1), row.getString(2), row.getString(3),
+                        Money.of(row.getBigDecimal(4)), row.getString(5),
+                        row.getTimestamp(6).toLocalDateTime()));
+        Map<String, LocalDateTime> sentAt = load.events().stream()
+                .collect(Collectors.toMap(PaymentEvent::getTransactionId, PaymentEvent::getTimestamp, (a, b) -> a));
+        Histogram latency = new Histogram(3);
+        LocalDateTime last = started;
+        for (Settled transaction : settled) {
+            latency.recordValue(Math.max(0, Duration.between(sentAt.get(transaction.externalId()),
+                    transaction.processedAt()).toNanos() / 1_000));
+            last = transaction.processedAt().isAfter(last) ? transaction.processedAt() : last;
+        }
+        long elapsedMillis = Math.max(1, Duration.between(started, last).toMillis());
+
+        SoakReport report = new SoakReport(workload, settings(),
+                new SoakReport.Counts(load.events().size(), load.redeliveries(), load.unique(),
+                        settled.stream().filter(transaction -> transaction.status().equals("COMPLETED")).count(),
+                        settled.stream().filter(transaction -> transaction.status().equals("FAILED")).count()),
+                elapsedMillis, load.unique() * 1_000.0 / elapsedMillis, SoakReport.Latency.of(latency),
+                invariants(workload, load, settled));
+        Path path = Path.of(System.getProperty("soak.report", "target/soak-report.json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+
+        assertThat(report.invariants()).allSatisfy((name, invariant) ->
+                assertThat(invariant.held()).as("%s: %s", name, invariant.detail()).isTrue());
+    }
+
+    /** Records the listener has finished with, whatever the outcome but a retried failure. */
+    private long consumed() {
+        return meterRegistry.find("banking.payment.lag").timers().stream()
+                .filter(timer -> !"failed".equals(timer.getId().getTag("outcome")))
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private Map<String, String> settings() {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String key : List.of("banking.consumer.mode", "banking.concurrency.mode", "banking.ledger.mode",
+                "banking.hot-accounts.accounts")) {
+            settings.put(key, environment.getProperty(key, "default"));
+        }
+        return settings;
+    }
+
+    private Map<String, SoakReport.Invariant> invariants(SoakWorkload workload, SoakWorkload.Load load,
+                                                         List<Settled> settled) {
+        Map<String, Money> balances = new HashMap<>();
+        jdbcTemplate.query("""
+                        select b.account_id, b.amount + coalesce((select sum(s.amount) from balance_shards s
+                            where s.account_id = b.account_id), 0)
+                        from balances b where b.account_id like 'SOAK%'""",
+                row -> {
+                    balances.put(row.getString(1), Money.of(row.getBigDecimal(2)));
+                });
+        Map<String, Money> expected = new HashMap<>();
+        workload.accountIds().forEach(id -> expected.put(id, workload.initialBalance()));
+        for (Settled transaction : settled) {
+            if (transaction.status().equals("COMPLETED")) {
+                expected.merge(transaction.from(), transaction.amount().negate(), Money::plus);
+                expected.merge(transaction.to(), transaction.amount(), Money::plus);
+            }
+        }
+
+        Map<String, SoakReport.Invariant> invariants = new LinkedHashMap<>();
+        Money total = balances.values().stream().reduce(Money.ofMinor(0, 2), Money::plus);
+        invariants.put("moneyConserved", new SoakReport.Invariant(total.compareTo(workload.totalBalance()) == 0,
+                "seeded " + workload.totalBalance() + ", now " + total));
+        Map<String, Long> rowsPerPayment = settled.stream()
+                .collect(Collectors.groupingBy(Settled::externalId, Collectors.counting()));
+        long doubled = rowsPerPayment.values().stream().filter(rows -> rows > 1).count();
+        invariants.put("noDoubleAppliedExternalId", new SoakReport.Invariant(doubled == 0,
+                doubled + " transaction ids with more than one row"));
+        invariants.put("everyPaymentRecorded", new SoakReport.Invariant(rowsPerPayment.size() == load.unique(),
+                rowsPerPayment.size() + " of " + load.unique() + " payments have a row"));
+        long terminal = settled.stream()
+                .filter(transaction -> transaction.status().equals("COMPLETED") || transaction.status().equals("FAILED"))
+                .count();
+        invariants.put("everyPaymentSettled", new SoakReport.Invariant(terminal == settled.size(),
+                (settled.size() - terminal) + " rows neither COMPLETED nor FAILED"));
+        long overdrawn = balances.values().stream().filter(Money::isNegative).count();
+        invariants.put("noNegativeBalance", new SoakReport.Invariant(overdrawn == 0,
+                overdrawn + " accounts below zero"));
+        long mismatched = expected.entrySet().stream()
+                .filter(entry -> balances.get(entry.getKey()) == null
+                        || balances.get(entry.getKey()).compareTo(entry.getValue()) != 0)
+                .count();
+        invariants.put("balancesMatchTransactions", new SoakReport.Invariant(mismatched == 0,
+                mismatched + " accounts differ from their seed plus their completed transactions"));
+        long accepted = settled.stream()
+                .filter(transaction -> load.overdrafts().contains(transaction.externalId()))
+                .filter(transaction -> !transaction.status().equals("FAILED"))
+                .count();
+        invariants.put("overdraftsRejected", new SoakReport.Invariant(accepted == 0,
+                accepted + " of " + load.overdrafts().size() + " overdrafts not rejected"));
+        return invariants;
+    }
+}
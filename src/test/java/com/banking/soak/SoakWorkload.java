@@ -0,0 +1,124 @@
+package com.banking.soak;
+
+import com.banking.domain.Money;
+import com.banking.dto.PaymentEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * A reproducible stream of EUR payments between {@code accounts} accounts holding
+ * {@code initialBalance} each: the same settings give the same payments in the same order.
+ * <ul>
+ *     <li>payer and payee are drawn from a Zipfian distribution over the accounts with exponent
+ *     {@code skew}, so a few accounts take most of the traffic and run dry;</li>
+ *     <li>a share {@code overdraftRate} asks for more than all accounts hold together and must be
+ *     rejected for insufficient funds;</li>
+ *     <li>a share {@code redeliveryRate} repeats an earlier payment with its transaction id, as a
+ *     producer retry or a consumer rebalance would, and must not be applied twice.</li>
+ * </ul>
+ * With {@code rate} above 0 the payments are sent on a fixed schedule of that many per second;
+ * 0 sends them as fast as the producer admits them, so latencies include the backlog.
+ * Every setting can be overridden with a {@code soak.*} system property, e.g.
+ * {@code -Dsoak.payments=200000}.
+ */
+record SoakWorkload(long seed, int accounts, int payments, double skew, double overdraftRate,
+                    double redeliveryRate, Money initialBalance, double rate) {
+
+    static SoakWorkload fromSystemProperties() {
+        return new SoakWorkload(
+                Long.getLong("soak.seed", 42),
+                Integer.getInteger("soak.accounts", 1_000),
+                Integer.getInteger("soak.payments", 2_000),
+                Double.parseDouble(System.getProperty("soak.skew", "1.1")),
+                Double.parseDouble(System.getProperty("soak.overdraft-rate", "0.02")),
+                Double.parseDouble(System.getProperty("soak.redelivery-rate", "0.05")),
+                Money.parse(System.getProperty("soak.initial-balance", "1000.00")),
+                Double.parseDouble(System.getProperty("soak.rate", "0")));
+    }
+
+    List<String> accountIds() {
+        return IntStream.range(0, accounts).mapToObj(i -> String.format("SOAK%06d", i)).toList();
+    }
+
+    Money totalBalance() {
+        return Money.ofMinor(initialBalance.minorUnits() * accounts, initialBalance.scale());
+    }
+
+    /**
+     * @param events      the records to send, in order; a redelivery is the same instance as the
+     *                    original, so it carries the timestamp the original was sent with
+     * @param overdrafts  transaction ids that must end up FAILED
+     */
+    record Load(List<PaymentEvent> events, Set<String> overdrafts, int redeliveries) {
+
+        int unique() {
+            return events.size() - redeliveries;
+        }
+    }
+
+    /** The payments, without timestamps: they are stamped when sent. */
+    Load generate() {
+        Random random = new Random(seed);
+        Zipf zipf = new Zipf(accounts, skew);
+        List<String> ids = accountIds();
+        Money overdraft = totalBalance().plus(Money.ofMinor(1, initialBalance.scale()));
+        List<PaymentEvent> events = new ArrayList<>(payments);
+        List<PaymentEvent> originals = new ArrayList<>(payments);
+        Set<String> overdrafts = new HashSet<>();
+        int redeliveries = 0;
+        for (int i = 0; i < payments; i++) {
+            if (!originals.isEmpty() && random.nextDouble() < redeliveryRate) {
+                events.add(originals.get(random.nextInt(originals.size())));
+                redeliveries++;
+                continue;
+            }
+            int from = zipf.sample(random);
+            int to = zipf.sample(random);
+            while (to == from) {
+                to = zipf.sample(random);
+            }
+            boolean overdrawn = random.nextDouble() < overdraftRate;
+            PaymentEvent event = PaymentEvent.builder()
+                    .transactionId("SOAK-" + seed + "-" + i)
+                    .fromAccountId(ids.get(from))
+                    .toAccountId(ids.get(to))
+                    .amount(overdrawn ? overdraft : Money.ofMinor(100 + random.nextInt(4_900), 2))
+                    .currency("EUR")
+                    .build();
+            if (overdrawn) {
+                overdrafts.add(event.getTransactionId());
+            }
+            events.add(event);
+            originals.add(event);
+        }
+        return new Load(events, overdrafts, redeliveries);
+    }
+
+    /** Rank {@code k} (0-based) is drawn with a probability proportional to {@code 1 / (k + 1)^skew}. */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, skew);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
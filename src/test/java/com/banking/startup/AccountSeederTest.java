@@ -0,0 +1,86 @@
+package com.banking.startup;
+
+import com.banking.domain.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountSeederTest {
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private AccountSeeder seeder;
+
+    @BeforeEach
+    void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seeder = new AccountSeeder(dataSource, new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void shutdown() {
+        jdbcTemplate.execute("shutdown");
+    }
+
+    @Test
+    void shouldSeedAccountsWithBalancesAcrossChunks() {
+        long seeded = seeder.seed(IntStream.range(0, 25_000)
+                .mapToObj(i -> new AccountSeeder.Seed("ACC" + i, "Owner " + i, "EUR", Money.parse("10.00")))
+                .toList());
+
+        assertThat(seeded).isEqualTo(25_000);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from accounts", Long.class)).isEqualTo(25_000);
+        assertThat(jdbcTemplate.queryForObject("select sum(amount) from balances", BigDecimal.class))
+                .isEqualByComparingTo("250000.00");
+    }
+
+    @Test
+    void shouldParseSeedFileWithCommasInOwnerNames() throws IOException {
+        Path file = Files.write(directory.resolve("accounts.csv"), List.of(
+                AccountSeeder.CSV_HEADER,
+                "DE123456789,Müller, Anna,EUR,1000.00",
+                "",
+                "US000000001, Bob ,USD,0.50"));
+
+        assertThat(seeder.seed(file)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("""
+                select a.id, a.owner_name, a.currency, b.amount, b.version
+                from accounts a join balances b on b.account_id = a.id order by a.id""")).containsExactly(
+                Map.of("ID", "DE123456789", "OWNER_NAME", "Müller, Anna", "CURRENCY", "EUR",
+                        "AMOUNT", new BigDecimal("1000.00"), "VERSION", 0L),
+                Map.of("ID", "US000000001", "OWNER_NAME", "Bob", "CURRENCY", "USD",
+                        "AMOUNT", new BigDecimal("0.50"), "VERSION", 0L));
+    }
+
+    @Test
+    void shouldSeedNothingWhenTheFileIsInvalid() throws IOException {
+        Path file = Files.write(directory.resolve("accounts.csv"), List.of(
+                AccountSeeder.CSV_HEADER, "DE123456789,Anna,EUR,1000.00", "FR987654321;Bob;EUR;5.00"));
+
+        assertThatThrownBy(() -> seeder.seed(file)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from accounts", Long.class)).isZero();
+    }
+}